@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.BankCardNumber;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.Cascade;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个线程同时对同一个级联的对象图脱敏，所有线程共享对象的脱敏计划以及级联计划的内联缓存
+ *
+ * @author zyc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class CascadeBenchmark {
+
+    private final Order order = new Order();
+
+    @Benchmark
+    public Order order() {
+        return Sensitive.desensitize(order);
+    }
+
+    public static class Order {
+
+        @Email
+        String email = "123456@qq.com";
+
+        @Cascade
+        Customer customer = new Customer();
+
+        List<@Cascade Item> items = new ArrayList<>(List.of(new Item(), new Item(), new Item(), new Item()));
+    }
+
+    public static class Customer {
+
+        @ChineseName
+        String name = "张三丰";
+
+        @PhoneNumber
+        String phoneNumber = "19962000001";
+
+        @IdCardNumber
+        String idCardNumber = "321181199301096000";
+    }
+
+    public static class Item {
+
+        @BankCardNumber
+        String bankCardNumber = "6222021234567890123";
+
+        String sku = "SKU-0001";
+
+        int quantity = 1;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import red.zyc.desensitization.MaskingRules;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Mask;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多个线程同时使用从未出现过的正则表达式脱敏，测量正则表达式缓存未命中时编译并写入缓存的延迟。
+ * 每次迭代之前每个线程都会生成新的正则表达式，每次迭代只调用一次。
+ *
+ * @author zyc
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class PatternCompilationBenchmark {
+
+    private static final AtomicLong COUNTER = new AtomicLong();
+
+    private final String[] in = {"19962000001"};
+
+    private final String[] out = new String[1];
+
+    private Mask rule;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // 不会匹配任何字符的分支使得每个正则表达式都不相同
+        rule = MaskingRules.mask("(?<=^.{3}).*(?=.{4}$)|x{" + COUNTER.incrementAndGet() + "}", '*');
+    }
+
+    @Benchmark
+    public String[] compile() {
+        Sensitive.desensitizeColumn(in, out, rule);
+        return out;
+    }
+}
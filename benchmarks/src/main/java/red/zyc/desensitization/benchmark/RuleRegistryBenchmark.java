@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import red.zyc.desensitization.MaskingRules;
+import red.zyc.desensitization.RuleRegistry;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.PhoneNumber;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一个线程不断地发布新的脱敏规则，其余线程同时对级联的对象图脱敏，
+ * 每次发布之后的第一次脱敏都需要在新的规则快照中重新解析脱敏计划
+ *
+ * @author zyc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class RuleRegistryBenchmark {
+
+    private static final MaskingRules[] RULES = {
+            MaskingRules.builder().override(PhoneNumber.class, MaskingRules.mask(3, 4, '*')).build(),
+            MaskingRules.builder().override(PhoneNumber.class, MaskingRules.mask(3, 4, '#')).build()
+    };
+
+    private final CascadeBenchmark.Order order = new CascadeBenchmark.Order();
+
+    private int next;
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(7)
+    public CascadeBenchmark.Order desensitize() {
+        return Sensitive.desensitize(order);
+    }
+
+    @Benchmark
+    @Group("registry")
+    @GroupThreads(1)
+    public void publish() {
+        RuleRegistry.publish(RULES[next++ & 1]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RuleRegistry.reset();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * 分别使用平台线程和虚拟线程，以1到64个线程运行吞吐量基准测试并输出吞吐量随线程数变化的曲线。
+ * 线程数不超过处理器数量时吞吐量应该随线程数线性增长，超过处理器数量后吞吐量应该保持不变，
+ * 任何一个线程数下的吞吐量低于理想值的{@code efficiency}倍时以状态码1退出，例如：
+ * <pre>
+ * java -cp target/benchmarks.jar red.zyc.desensitization.benchmark.ScalingCheck 0.7
+ * </pre>
+ *
+ * @author zyc
+ */
+public final class ScalingCheck {
+
+    /**
+     * 参与检查的吞吐量基准测试
+     */
+    private static final List<Class<?>> BENCHMARKS = List.of(StringHandlerBenchmark.class, CascadeBenchmark.class);
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    /**
+     * 线程的类型与运行基准测试的JVM参数，JMH根据{@code jmh.executor}创建运行基准测试的线程
+     */
+    private static final Map<String, String[]> EXECUTORS = Map.of(
+            "platform", new String[0],
+            "virtual", new String[]{"-Djmh.executor=VIRTUAL_TPE"});
+
+    private ScalingCheck() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        double efficiency = args.length > 0 ? Double.parseDouble(args[0]) : 0.7;
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<String> failures = new ArrayList<>();
+        for (Class<?> benchmark : BENCHMARKS) {
+            for (String executor : List.of("platform", "virtual")) {
+                Map<String, Map<Integer, Double>> curves = new TreeMap<>();
+                for (int threads : THREADS) {
+                    for (RunResult result : run(benchmark, executor, threads)) {
+                        curves.computeIfAbsent(result.getParams().getBenchmark(), name -> new LinkedHashMap<>())
+                                .put(threads, result.getPrimaryResult().getScore());
+                    }
+                }
+                curves.forEach((name, curve) -> {
+                    double single = curve.get(1);
+                    curve.forEach((threads, score) -> {
+                        double ideal = single * Math.min(threads, processors);
+                        System.out.printf("%-80s %-8s %3d threads %14.3f ops/us %6.2f%n", name, executor, threads, score, score / ideal);
+                        if (score < ideal * efficiency) {
+                            failures.add(String.format("%s (%s, %d threads): %.3f ops/us, expected at least %.3f", name, executor, threads, score, ideal * efficiency));
+                        }
+                    });
+                });
+            }
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 以指定数量的线程运行基准测试
+     *
+     * @param benchmark 基准测试类
+     * @param executor  线程的类型
+     * @param threads   线程数
+     * @return 基准测试类中每个方法的结果
+     */
+    private static List<RunResult> run(Class<?> benchmark, String executor, int threads) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include("^" + Pattern.quote(benchmark.getName()) + "\\.")
+                .threads(threads)
+                .jvmArgsAppend(EXECUTORS.get(executor))
+                .build();
+        return List.copyOf(new Runner(options).run());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个线程同时使用内置的字符串处理器脱敏，所有线程共享处理器、脱敏计划以及正则表达式缓存
+ *
+ * @author zyc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class StringHandlerBenchmark {
+
+    private static final AnnotatedTypeToken<@PhoneNumber String> PHONE_NUMBER = new AnnotatedTypeToken<@PhoneNumber String>() {
+    };
+
+    private static final AnnotatedTypeToken<@IdCardNumber String> ID_CARD_NUMBER = new AnnotatedTypeToken<@IdCardNumber String>() {
+    };
+
+    private static final AnnotatedTypeToken<@Email String> EMAIL = new AnnotatedTypeToken<@Email String>() {
+    };
+
+    private static final AnnotatedTypeToken<@Strings(regexp = "(?<=^.{3}).*(?=.{4}$)") String> REGEXP = new AnnotatedTypeToken<@Strings(regexp = "(?<=^.{3}).*(?=.{4}$)") String>() {
+    };
+
+    @Benchmark
+    public String phoneNumber() {
+        return Sensitive.desensitize("19962000001", PHONE_NUMBER);
+    }
+
+    @Benchmark
+    public String idCardNumber() {
+        return Sensitive.desensitize("321181199301096000", ID_CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String email() {
+        return Sensitive.desensitize("123456@qq.com", EMAIL);
+    }
+
+    @Benchmark
+    public String regexp() {
+        return Sensitive.desensitize("6222021234567890123", REGEXP);
+    }
+}
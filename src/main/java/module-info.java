@@ -4,6 +4,17 @@
 module desensitization {
     exports red.zyc.desensitization;
     exports red.zyc.desensitization.annotation;
+    exports red.zyc.desensitization.budget;
     exports red.zyc.desensitization.handler;
+    exports red.zyc.desensitization.jfr;
+    exports red.zyc.desensitization.logging;
+    exports red.zyc.desensitization.metrics;
+    exports red.zyc.desensitization.processor;
     requires annotation.parser;
+    requires transitive java.logging;
+    requires java.management;
+    requires transitive jdk.jfr;
+    requires static transitive java.compiler;
+    requires static jdk.incubator.vector;
+    uses red.zyc.desensitization.metrics.Metrics;
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization;
+
+import red.zyc.desensitization.annotation.BankCardNumber;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.plan.KeyMasker;
+import red.zyc.desensitization.plan.Presets;
+
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 根据键名对没有类型信息的{@link Map}树进行脱敏的规则，每条规则将一组键名映射到一个敏感注解。
+ * 键名在匹配时忽略大小写以及{@code _}、{@code -}分隔符。规则是不可变的，创建时会预先构建好键名的完美哈希表，
+ * 应该在多次脱敏之间共享，例如：
+ * <pre>
+ * KeyRules rules = KeyRules.builder()
+ *         .defaults()
+ *         .rule(orderNumber, "orderNo", "orderNumber")
+ *         .build();
+ * </pre>
+ *
+ * @author zyc
+ * @see Sensitive#desensitizeKeys(Map, KeyRules)
+ */
+public final class KeyRules {
+
+    private static final KeyRules DEFAULTS = builder().defaults().build();
+
+    private final Map<String, Annotation> rules;
+
+    private final KeyMasker masker;
+
+    private KeyRules(Map<String, Annotation> rules) {
+        this.rules = Collections.unmodifiableMap(rules);
+        this.masker = KeyMasker.of(rules);
+    }
+
+    /**
+     * @return 只包含内置规则的{@link KeyRules}，参考{@link Builder#defaults()}
+     */
+    public static KeyRules defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return 空的{@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return 键名与敏感注解的映射
+     */
+    public Map<String, Annotation> rules() {
+        return rules;
+    }
+
+    /**
+     * @return 根据这些规则脱敏的{@link KeyMasker}
+     */
+    KeyMasker masker() {
+        return masker;
+    }
+
+    /**
+     * {@link KeyRules}的构建器
+     */
+    public static final class Builder {
+
+        private final Map<String, Annotation> rules = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加一条规则，已经存在的键名会被覆盖
+         *
+         * @param rule 敏感注解，例如字段或者{@link red.zyc.parser.type.AnnotatedTypeToken}上的{@code @PhoneNumber}
+         * @param keys 使用该敏感注解脱敏的键名
+         * @return 当前构建器
+         */
+        public Builder rule(Annotation rule, String... keys) {
+            Arrays.stream(keys).forEach(key -> rules.put(key, rule));
+            return this;
+        }
+
+        /**
+         * 添加内置规则：
+         * <ul>
+         *     <li>{@code password}、{@code passwd}、{@code pwd}、{@code secret}：{@link Password}</li>
+         *     <li>{@code phone}、{@code phoneNumber}、{@code mobile}、{@code mobilePhone}、{@code tel}、{@code telephone}：{@link PhoneNumber}</li>
+         *     <li>{@code email}、{@code mail}、{@code emailAddress}：{@link Email}</li>
+         *     <li>{@code idCard}、{@code idCardNumber}、{@code idNumber}：{@link IdCardNumber}</li>
+         *     <li>{@code bankCard}、{@code bankCardNumber}、{@code cardNumber}、{@code cardNo}：{@link BankCardNumber}</li>
+         *     <li>{@code realName}、{@code chineseName}：{@link ChineseName}</li>
+         * </ul>
+         *
+         * @return 当前构建器
+         */
+        public Builder defaults() {
+            return rule(Presets.of(Password.class), "password", "passwd", "pwd", "secret")
+                    .rule(Presets.of(PhoneNumber.class), "phone", "phoneNumber", "mobile", "mobilePhone", "tel", "telephone")
+                    .rule(Presets.of(Email.class), "email", "mail", "emailAddress")
+                    .rule(Presets.of(IdCardNumber.class), "idCard", "idCardNumber", "idNumber")
+                    .rule(Presets.of(BankCardNumber.class), "bankCard", "bankCardNumber", "cardNumber", "cardNo")
+                    .rule(Presets.of(ChineseName.class), "realName", "chineseName");
+        }
+
+        /**
+         * @return 包含所有规则的{@link KeyRules}
+         */
+        public KeyRules build() {
+            return new KeyRules(new LinkedHashMap<>(rules));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization;
+
+import red.zyc.desensitization.annotation.AlwaysTrue;
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.Mask;
+import red.zyc.desensitization.annotation.MaskStrategy;
+import red.zyc.desensitization.plan.TypePlans;
+import red.zyc.parser.handler.Parse;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 可以在运行时发布的脱敏规则，包括替换后的敏感注解以及根据键名脱敏的规则。例如将所有{@code @PhoneNumber}替换成只保留末尾两位的规则：
+ * <pre>
+ * RuleRegistry.publish(MaskingRules.builder()
+ *         .override(PhoneNumber.class, MaskingRules.mask(0, 2, '#'))
+ *         .keyRules(KeyRules.builder().defaults().rule(orderNumber, "orderNo").build())
+ *         .build());
+ * </pre>
+ * 规则是不可变的。
+ *
+ * @author zyc
+ * @see RuleRegistry
+ */
+public final class MaskingRules {
+
+    private final Map<Class<? extends Annotation>, Annotation> overrides;
+
+    private final KeyRules keyRules;
+
+    private MaskingRules(Map<Class<? extends Annotation>, Annotation> overrides, KeyRules keyRules) {
+        this.overrides = Collections.unmodifiableMap(overrides);
+        this.keyRules = keyRules;
+    }
+
+    /**
+     * @return 空的{@link Builder}，根据键名脱敏的规则默认为{@link KeyRules#defaults()}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 创建基于位置偏移的{@link Mask}规则，保留的字符过多时依次减少末尾和开头保留的字符数，使得至少有一个字符被替换，
+     * 参考{@link Mask#minMasked()}
+     *
+     * @param keepFirst   保留的开头的字符数
+     * @param keepLast    保留的末尾的字符数
+     * @param placeholder 敏感信息替换后的占位符
+     * @return {@link Mask}规则
+     */
+    public static Mask mask(int keepFirst, int keepLast, char placeholder) {
+        return new MaskRule(keepFirst, keepLast, "", placeholder, keepFirst + keepLast > 0 ? 1 : 0, MaskStrategy.PLACEHOLDER);
+    }
+
+    /**
+     * 创建基于正则表达式的{@link Mask}规则
+     *
+     * @param regexp      匹配敏感信息的正则表达式
+     * @param placeholder 敏感信息替换后的占位符
+     * @return {@link Mask}规则
+     */
+    public static Mask mask(String regexp, char placeholder) {
+        return new MaskRule(0, 0, regexp, placeholder, 0, MaskStrategy.PLACEHOLDER);
+    }
+
+    /**
+     * 创建基于位置偏移、使用假名替换敏感字符的{@link Mask}规则，需要先注册{@link red.zyc.desensitization.handler.Pseudonymizer}
+     *
+     * @param keepFirst 保留的开头的字符数
+     * @param keepLast  保留的末尾的字符数
+     * @return {@link Mask}规则
+     * @see MaskStrategy#PSEUDONYMIZE
+     */
+    public static Mask pseudonymize(int keepFirst, int keepLast) {
+        return new MaskRule(keepFirst, keepLast, "", '*', keepFirst + keepLast > 0 ? 1 : 0, MaskStrategy.PSEUDONYMIZE);
+    }
+
+    /**
+     * @return 敏感注解类型与替换后的敏感注解的映射
+     */
+    public Map<Class<? extends Annotation>, Annotation> overrides() {
+        return overrides;
+    }
+
+    /**
+     * @return 根据键名脱敏的规则
+     */
+    public KeyRules keyRules() {
+        return keyRules;
+    }
+
+    /**
+     * {@link MaskingRules}的构建器
+     */
+    public static final class Builder {
+
+        private final Map<Class<? extends Annotation>, Annotation> overrides = new LinkedHashMap<>();
+
+        private KeyRules keyRules = KeyRules.defaults();
+
+        private Builder() {
+        }
+
+        /**
+         * 替换某种敏感注解，所有被该敏感注解标注的值都会使用替换后的敏感注解脱敏，{@code groups}仍然以原注解为准。
+         * 替换后的敏感注解对应的处理器必须能够处理原注解对应的处理器能够处理的所有值，例如数字注解不能替换成{@link Mask}。
+         * <p>
+         * 替换只作用于预先解析的脱敏计划，交由{@link red.zyc.parser.AnnotationParser}处理的值仍然使用原注解，
+         * 包括除了集合、{@link Map}、{@link java.util.Optional}和{@link java.util.concurrent.CompletionStage}以外、
+         * 类型参数上存在注解的参数化类型，以及域无法通过反射访问的级联对象。
+         *
+         * @param type 被替换的敏感注解类型
+         * @param rule 替换后的敏感注解，例如{@link #mask(int, int, char)}
+         * @return 当前构建器
+         * @throws IllegalArgumentException 不是敏感注解，或者替换后的敏感注解对应的处理器无法处理原注解能够处理的值
+         */
+        public Builder override(Class<? extends Annotation> type, Annotation rule) {
+            Parse original = type.getAnnotation(Parse.class);
+            Parse replacement = rule.annotationType().getAnnotation(Parse.class);
+            if (original == null || replacement == null) {
+                throw new IllegalArgumentException(String.format("%s or %s is not a sensitive annotation", type.getName(), rule.annotationType().getName()));
+            }
+            Class<?> originalType = TypePlans.valueType(original.handler());
+            Class<?> replacementType = TypePlans.valueType(replacement.handler());
+            if (!replacementType.isAssignableFrom(originalType)) {
+                throw new IllegalArgumentException(String.format("%s handles %s and cannot replace %s which handles %s",
+                        rule.annotationType().getName(), replacementType.getName(), type.getName(), originalType.getName()));
+            }
+            overrides.put(type, rule);
+            return this;
+        }
+
+        /**
+         * @param keyRules 根据键名脱敏的规则
+         * @return 当前构建器
+         */
+        public Builder keyRules(KeyRules keyRules) {
+            this.keyRules = keyRules;
+            return this;
+        }
+
+        /**
+         * @return 包含所有规则的{@link MaskingRules}
+         */
+        public MaskingRules build() {
+            return new MaskingRules(new LinkedHashMap<>(overrides), keyRules);
+        }
+    }
+
+    /**
+     * 运行时创建的{@link Mask}
+     *
+     * @param keepFirst   保留的开头的字符数
+     * @param keepLast    保留的末尾的字符数
+     * @param regexp      匹配敏感信息的正则表达式
+     * @param placeholder 敏感信息替换后的占位符
+     * @param minMasked   至少需要被替换的字符数
+     * @param strategy    替换敏感字符的方式
+     */
+    private record MaskRule(int keepFirst, int keepLast, String regexp, char placeholder,
+                            int minMasked, MaskStrategy strategy) implements Mask {
+
+        @Override
+        public Class<? extends Condition<?>> condition() {
+            return AlwaysTrue.class;
+        }
+
+        @Override
+        public Class<?>[] groups() {
+            return new Class<?>[0];
+        }
+
+        @Override
+        public Class<? extends Annotation> annotationType() {
+            return Mask.class;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization;
+
+import red.zyc.desensitization.plan.RuleSnapshot;
+
+/**
+ * 运行时可以热更新的脱敏规则。发布时会在调用线程中编译出完整的不可变规则快照，包括重新解析当前快照中已经解析过的所有类型，
+ * 然后通过一次volatile写原子地发布。脱敏时不需要加锁，每次调用开始时只读取一次当前快照，正在进行的脱敏会继续使用开始时的快照。
+ *
+ * @author zyc
+ * @see MaskingRules
+ */
+public final class RuleRegistry {
+
+    private static volatile MaskingRules current = MaskingRules.builder().build();
+
+    private RuleRegistry() {
+    }
+
+    /**
+     * @return 当前发布的脱敏规则
+     */
+    public static MaskingRules current() {
+        return current;
+    }
+
+    /**
+     * 编译并发布新的脱敏规则，多次发布会依次进行
+     *
+     * @param rules 新的脱敏规则
+     */
+    public static synchronized void publish(MaskingRules rules) {
+        RuleSnapshot.publish(new RuleSnapshot(rules.overrides(), rules.keyRules().masker()));
+        current = rules;
+    }
+
+    /**
+     * 恢复默认的脱敏规则
+     */
+    public static void reset() {
+        publish(MaskingRules.builder().build());
+    }
+}
@@ -15,12 +15,37 @@
  */
 package red.zyc.desensitization;
 
-import red.zyc.parser.AnnotationParser;
+import red.zyc.desensitization.budget.Budget;
+import red.zyc.desensitization.budget.BudgetExceededException;
+import red.zyc.desensitization.jfr.DesensitizeEvent;
+import red.zyc.desensitization.metrics.Metrics;
+import red.zyc.desensitization.plan.Columns;
+import red.zyc.desensitization.plan.Desensitizer;
+import red.zyc.desensitization.plan.Groups;
+import red.zyc.desensitization.plan.Inspector;
+import red.zyc.desensitization.plan.JsonWriter;
+import red.zyc.desensitization.plan.KeyMasker;
+import red.zyc.desensitization.plan.Preparer;
+import red.zyc.desensitization.plan.RuleSnapshot;
+import red.zyc.desensitization.plan.TypePlans;
+import red.zyc.desensitization.plan.Views;
 import red.zyc.parser.type.AnnotatedTypeToken;
 import red.zyc.parser.type.Cascade;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 提供两个有用的方法进行数据脱敏：
@@ -28,12 +53,24 @@ import java.util.Optional;
  *     <li>{@link Sensitive#desensitize(Object) 脱敏对象内部所有非常量域}</li>
  *     <li>{@link Sensitive#desensitize(Object, AnnotatedTypeToken) 根据对象的AnnotatedTypeToken进行脱敏}</li>
  * </ol>
+ * 类型在首次脱敏时会被解析成脱敏计划并缓存，也可以通过{@link Sensitive#prepare(Class[])}在应用启动时预先解析。
  *
  * @author zyc
  * @see AnnotatedTypeToken
  */
 public final class Sensitive {
 
+    /**
+     * {@link #desensitize(Object)}使用的级联类型，所有调用共享同一个{@link AnnotatedTypeToken}，避免每次调用都重新创建
+     */
+    private static final AnnotatedTypeToken<@Cascade Object> CASCADE = new AnnotatedTypeToken<@Cascade Object>() {
+    };
+
+    /**
+     * 异步脱敏时默认的内联阈值，估算的工作量小于该值时直接在完成的线程中脱敏
+     */
+    private static final long INLINE_THRESHOLD = 1024;
+
     private Sensitive() {
     }
 
@@ -44,9 +81,9 @@ public final class Sensitive {
      * @param target 目标对象
      * @return 脱敏后的新对象
      */
+    @SuppressWarnings("unchecked")
     public static <T> T desensitize(T target) {
-        return desensitize(target, new AnnotatedTypeToken<@Cascade T>() {
-        });
+        return desensitize(target, (AnnotatedTypeToken<T>) CASCADE);
     }
 
     /**
@@ -58,10 +95,414 @@ public final class Sensitive {
      * @return 脱敏后的新对象
      */
     public static <T> T desensitize(T target, AnnotatedTypeToken<T> typeToken) {
-        return Optional.ofNullable(target)
-                .map(t -> typeToken)
+        return desensitize(target, typeToken, Budget.UNLIMITED);
+    }
+
+    /**
+     * 在预算内对象{@link Field}脱敏
+     *
+     * @param target 目标对象
+     * @param budget 预算
+     * @param <T>    目标对象类型
+     * @return 脱敏后的新对象
+     * @throws BudgetExceededException 超出预算并且对应的策略是{@link Budget.Policy#FAIL}
+     * @see #desensitize(Object)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T desensitize(T target, Budget budget) {
+        return desensitize(target, (AnnotatedTypeToken<T>) CASCADE, budget);
+    }
+
+    /**
+     * 在预算内根据对象的{@link AnnotatedTypeToken}进行脱敏，用于限制巨大的或者恶意构造的输入占用调用线程的时间
+     *
+     * @param target    目标对象
+     * @param typeToken 目标对象的{@link AnnotatedTypeToken}
+     * @param budget    预算
+     * @param <T>       目标对象类型
+     * @return 脱敏后的新对象
+     * @throws BudgetExceededException 超出预算并且对应的策略是{@link Budget.Policy#FAIL}
+     * @see #desensitize(Object, AnnotatedTypeToken)
+     */
+    public static <T> T desensitize(T target, AnnotatedTypeToken<T> typeToken, Budget budget) {
+        return desensitize(target, typeToken, Groups.ALL, budget);
+    }
+
+    /**
+     * 在激活的分组下对象{@link Field}脱敏
+     *
+     * @param target       目标对象
+     * @param activeGroups 激活的分组
+     * @param <T>          目标对象类型
+     * @return 脱敏后的新对象
+     * @see #desensitize(Object, AnnotatedTypeToken, Class[])
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T desensitize(T target, Class<?>... activeGroups) {
+        return desensitize(target, (AnnotatedTypeToken<T>) CASCADE, activeGroups);
+    }
+
+    /**
+     * 在激活的分组下根据对象的{@link AnnotatedTypeToken}进行脱敏，只有没有指定分组或者指定的分组被激活的规则才会生效，
+     * 例如同一个对象在内部视图和外部接口中需要不同的脱敏规则。每组激活的分组都有独立缓存的脱敏计划，
+     * 不包含任何生效规则的对象、集合等在脱敏时不会被遍历。
+     *
+     * @param target       目标对象
+     * @param typeToken    目标对象的{@link AnnotatedTypeToken}
+     * @param activeGroups 激活的分组，为空时所有规则都会生效
+     * @param <T>          目标对象类型
+     * @return 脱敏后的新对象
+     * @see red.zyc.desensitization.annotation.Mask#groups()
+     * @see red.zyc.desensitization.annotation.CascadeGroups
+     */
+    public static <T> T desensitize(T target, AnnotatedTypeToken<T> typeToken, Class<?>... activeGroups) {
+        return desensitize(target, typeToken, Groups.of(activeGroups), Budget.UNLIMITED);
+    }
+
+    /**
+     * 在激活的分组以及预算内根据对象的{@link AnnotatedTypeToken}进行脱敏，并记录指标和JFR事件
+     *
+     * @param target    目标对象
+     * @param typeToken 目标对象的{@link AnnotatedTypeToken}
+     * @param groups    激活的分组
+     * @param budget    预算
+     * @param <T>       目标对象类型
+     * @return 脱敏后的新对象
+     */
+    private static <T> T desensitize(T target, AnnotatedTypeToken<T> typeToken, Groups groups, Budget budget) {
+        var metrics = Metrics.current();
+        var event = new DesensitizeEvent();
+        if (target == null || !metrics.enabled() && !event.isEnabled()) {
+            return execute(target, typeToken, groups, budget);
+        }
+        long begin = System.nanoTime();
+        event.begin();
+        T result = execute(target, typeToken, groups, budget);
+        event.end();
+        if (metrics.enabled()) {
+            metrics.desensitized(target.getClass(), System.nanoTime() - begin);
+        }
+        if (event.shouldCommit()) {
+            event.targetType = target.getClass();
+            event.elementCount = elementCount(target);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * {@link CompletableFuture}完成后异步对象{@link Field}脱敏
+     *
+     * @param future   目标{@link CompletableFuture}
+     * @param executor 执行脱敏的{@link Executor}
+     * @param <T>      目标对象类型
+     * @return 完成时值已经被脱敏的新{@link CompletableFuture}
+     * @see #desensitizeAsync(CompletableFuture, AnnotatedTypeToken, Executor)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompletableFuture<T> desensitizeAsync(CompletableFuture<T> future, Executor executor) {
+        return desensitizeAsync(future, (AnnotatedTypeToken<T>) CASCADE, executor);
+    }
+
+    /**
+     * {@link CompletableFuture}完成后根据值的{@link AnnotatedTypeToken}异步脱敏，避免在完成{@link CompletableFuture}的线程
+     * （例如Netty的事件循环线程）中对大对象脱敏。估算的工作量小于{@value #INLINE_THRESHOLD}时直接在完成的线程中脱敏，避免切换线程的开销。
+     *
+     * @param future    目标{@link CompletableFuture}
+     * @param typeToken 值的{@link AnnotatedTypeToken}
+     * @param executor  执行脱敏的{@link Executor}
+     * @param <T>       目标对象类型
+     * @return 完成时值已经被脱敏的新{@link CompletableFuture}
+     * @see #desensitizeAsync(CompletableFuture, AnnotatedTypeToken, Executor, long)
+     */
+    public static <T> CompletableFuture<T> desensitizeAsync(CompletableFuture<T> future, AnnotatedTypeToken<T> typeToken, Executor executor) {
+        return desensitizeAsync(future, typeToken, executor, INLINE_THRESHOLD);
+    }
+
+    /**
+     * {@link CompletableFuture}完成后根据值的{@link AnnotatedTypeToken}异步脱敏。工作量的估算只会向下查看一层：
+     * 集合、{@link Map}和数组为其大小，级联的对象为1加上其需要脱敏的域中集合、{@link Map}和数组的大小，其它对象为1
+     *
+     * @param future          目标{@link CompletableFuture}
+     * @param typeToken       值的{@link AnnotatedTypeToken}
+     * @param executor        执行脱敏的{@link Executor}
+     * @param inlineThreshold 内联阈值，估算的工作量小于该值时直接在完成的线程中脱敏，为0时总是交由{@code executor}脱敏
+     * @param <T>             目标对象类型
+     * @return 完成时值已经被脱敏的新{@link CompletableFuture}
+     */
+    public static <T> CompletableFuture<T> desensitizeAsync(CompletableFuture<T> future, AnnotatedTypeToken<T> typeToken, Executor executor, long inlineThreshold) {
+        return future.thenCompose(value -> Desensitizer.weight(value, TypePlans.resolve(typeToken)) < inlineThreshold
+                ? CompletableFuture.completedFuture(desensitize(value, typeToken))
+                : CompletableFuture.supplyAsync(() -> desensitize(value, typeToken), executor));
+    }
+
+    /**
+     * 使用{@link RuleRegistry}中当前发布的根据键名脱敏的规则对{@link Map}树进行脱敏
+     *
+     * @param target 目标{@link Map}
+     * @param <K>    键的类型
+     * @param <V>    值的类型
+     * @return 脱敏后的新{@link Map}，没有任何值发生变化时返回原{@link Map}
+     * @see #desensitizeKeys(Map, KeyRules)
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Map<K, V> desensitizeKeys(Map<K, V> target) {
+        KeyMasker keys = RuleSnapshot.current().keys();
+        return keys != null ? (Map<K, V>) keys.desensitize(target) : desensitizeKeys(target, KeyRules.defaults());
+    }
+
+    /**
+     * 根据键名对没有类型信息的{@link Map}树进行脱敏，例如解析后的JSON或者事件的属性，嵌套的{@link Map}、{@link Collection}
+     * 以及对象数组会被递归脱敏。键名匹配某条规则时该键对应的所有字符序列和数字都会按照规则脱敏，值是容器时规则会作用于容器中的所有值。
+     *
+     * @param target 目标{@link Map}
+     * @param rules  键名对应的规则，例如{@link KeyRules#defaults()}
+     * @param <K>    键的类型
+     * @param <V>    值的类型
+     * @return 脱敏后的新{@link Map}，没有任何值发生变化时返回原{@link Map}
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Map<K, V> desensitizeKeys(Map<K, V> target, KeyRules rules) {
+        return (Map<K, V>) rules.masker().desensitize(target);
+    }
+
+    /**
+     * 只读地检查对象{@link Field}中需要脱敏的值
+     *
+     * @param target  目标对象
+     * @param visitor 接收需要脱敏的值的{@link SensitiveVisitor}
+     * @param <T>     目标对象类型
+     * @return 需要脱敏的值的数量
+     * @see #inspect(Object, AnnotatedTypeToken, SensitiveVisitor)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> long inspect(T target, SensitiveVisitor visitor) {
+        return inspect(target, (AnnotatedTypeToken<T>) CASCADE, visitor);
+    }
+
+    /**
+     * 根据对象的{@link AnnotatedTypeToken}只读地检查需要脱敏的值，按照与{@link #desensitize(Object, AnnotatedTypeToken)}相同的脱敏计划遍历对象，
+     * 将每个需要脱敏的值的路径、敏感注解类型以及长度报告给{@link SensitiveVisitor}。检查不会调用处理器，
+     * 也不会创建脱敏后的字符串或者容器的副本，适用于只需要知道敏感信息的位置和数量的合规扫描。敏感注解的{@code condition}不满足的值不会被报告，
+     * 无法遍历的部分会通过{@link SensitiveVisitor#uninspectable(CharSequence, Class)}报告。
+     *
+     * @param target    目标对象
+     * @param typeToken 目标对象的{@link AnnotatedTypeToken}
+     * @param visitor   接收需要脱敏的值的{@link SensitiveVisitor}
+     * @param <T>       目标对象类型
+     * @return 需要脱敏的值的数量
+     */
+    public static <T> long inspect(T target, AnnotatedTypeToken<T> typeToken, SensitiveVisitor visitor) {
+        return new Inspector(visitor).inspect(target, TypePlans.resolve(typeToken));
+    }
+
+    /**
+     * 将对象脱敏后以JSON格式直接写入{@link Appendable}，不会创建脱敏后的中间对象，敏感的字符序列会被逐个字符地写入
+     *
+     * @param target 目标对象
+     * @param out    写入的目标，例如{@link java.io.Writer}、{@link StringBuilder}
+     * @param <T>    目标对象类型
+     * @throws IOException 写入失败
+     * @see #desensitize(Object)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void writeJson(T target, Appendable out) throws IOException {
+        writeJson(target, (AnnotatedTypeToken<T>) CASCADE, out);
+    }
+
+    /**
+     * 根据对象的{@link AnnotatedTypeToken}将对象脱敏后以JSON格式直接写入{@link Appendable}
+     *
+     * @param target    目标对象
+     * @param typeToken 目标对象的{@link AnnotatedTypeToken}
+     * @param out       写入的目标
+     * @param <T>       目标对象类型
+     * @throws IOException 写入失败
+     * @see #writeJson(Object, Appendable)
+     */
+    public static <T> void writeJson(T target, AnnotatedTypeToken<T> typeToken, Appendable out) throws IOException {
+        new JsonWriter(out).write(target, TypePlans.resolve(typeToken));
+    }
+
+    /**
+     * 将对象脱敏后以UTF-8编码的JSON格式写入{@link OutputStream}，写入完成后会刷新但不会关闭{@link OutputStream}
+     *
+     * @param target 目标对象
+     * @param out    写入的目标
+     * @param <T>    目标对象类型
+     * @throws IOException 写入失败
+     * @see #writeJson(Object, Appendable)
+     */
+    public static <T> void writeJson(T target, OutputStream out) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeJson(target, writer);
+        writer.flush();
+    }
+
+    /**
+     * 创建{@link List}的只读脱敏视图，视图不会复制目标{@link List}，只会在访问元素时才对元素脱敏，
+     * 适合只会访问大{@link List}中一小部分元素的场景，例如分页
+     *
+     * @param target    目标{@link List}
+     * @param typeToken 目标{@link List}的{@link AnnotatedTypeToken}，例如{@code List<@Email String>}，{@link List}本身不能被注解
+     * @param <E>       元素类型
+     * @return 只读的脱敏视图
+     */
+    public static <E> List<E> view(List<E> target, AnnotatedTypeToken<? extends List<E>> typeToken) {
+        return view(target, typeToken, false);
+    }
+
+    /**
+     * 创建{@link List}的只读脱敏视图
+     *
+     * @param target    目标{@link List}
+     * @param typeToken 目标{@link List}的{@link AnnotatedTypeToken}
+     * @param memoize   是否缓存每个索引上的脱敏结果，重复访问同一个索引时不再重复脱敏
+     * @param <E>       元素类型
+     * @return 只读的脱敏视图
+     * @see #view(List, AnnotatedTypeToken)
+     */
+    public static <E> List<E> view(List<E> target, AnnotatedTypeToken<? extends List<E>> typeToken, boolean memoize) {
+        return target == null ? null : Views.list(target, typeToken.getAnnotatedType(), memoize);
+    }
+
+    /**
+     * 创建{@link Collection}的只读脱敏视图
+     *
+     * @param target    目标{@link Collection}
+     * @param typeToken 目标{@link Collection}的{@link AnnotatedTypeToken}，{@link Collection}本身不能被注解
+     * @param <E>       元素类型
+     * @return 只读的脱敏视图
+     * @see #view(List, AnnotatedTypeToken)
+     */
+    public static <E> Collection<E> view(Collection<E> target, AnnotatedTypeToken<? extends Collection<E>> typeToken) {
+        return target == null ? null : Views.collection(target, typeToken.getAnnotatedType());
+    }
+
+    /**
+     * 创建{@link Map}的只读脱敏视图，键不需要脱敏时通过键获取值只会对这一个值脱敏
+     *
+     * @param target    目标{@link Map}
+     * @param typeToken 目标{@link Map}的{@link AnnotatedTypeToken}，{@link Map}本身不能被注解
+     * @param <K>       键的类型
+     * @param <V>       值的类型
+     * @return 只读的脱敏视图
+     * @see #view(List, AnnotatedTypeToken)
+     */
+    public static <K, V> Map<K, V> view(Map<K, V> target, AnnotatedTypeToken<? extends Map<K, V>> typeToken) {
+        return target == null ? null : Views.map(target, typeToken.getAnnotatedType());
+    }
+
+    /**
+     * 对一列值进行脱敏，列中的所有值共享同一个敏感注解，处理器、条件以及正则表达式只会解析一次
+     *
+     * @param in   需要脱敏的列
+     * @param out  保存脱敏结果的列，长度不能小于{@code in}，可以与{@code in}是同一个数组
+     * @param rule 敏感注解，例如字段或者{@link AnnotatedTypeToken}上的{@code @PhoneNumber}
+     */
+    public static void desensitizeColumn(String[] in, String[] out, Annotation rule) {
+        Columns.desensitize(in, out, rule, false);
+    }
+
+    /**
+     * 对一列值进行脱敏
+     *
+     * @param in       需要脱敏的列
+     * @param out      保存脱敏结果的列，长度不能小于{@code in}，可以与{@code in}是同一个数组
+     * @param rule     敏感注解
+     * @param parallel 是否使用{@link java.util.concurrent.ForkJoinPool#commonPool()}分块并行脱敏
+     * @see #desensitizeColumn(String[], String[], Annotation)
+     */
+    public static void desensitizeColumn(String[] in, String[] out, Annotation rule, boolean parallel) {
+        Columns.desensitize(in, out, rule, parallel);
+    }
+
+    /**
+     * 预先解析类型的脱敏计划，同时用合成的数据调用这些类型中敏感注解对应的处理器，
+     * 使得应用启动后的首次脱敏不再需要解析类型、创建处理器和条件、编译正则表达式，并让JIT提前编译脱敏的热点代码。
+     *
+     * @param types 需要通过{@link #desensitize(Object)}脱敏的对象的类型
+     */
+    public static void prepare(Class<?>... types) {
+        Arrays.stream(types).forEach(Preparer::prepare);
+    }
+
+    /**
+     * 预先解析编译期生成的类型索引中记录的所有类型的脱敏计划，不需要在运行时扫描类型
+     *
+     * @see red.zyc.desensitization.processor.IndexProcessor
+     * @see #prepare(Class[])
+     */
+    public static void prepareIndexed() {
+        Preparer.indexedTypes().forEach(Preparer::prepare);
+    }
+
+    /**
+     * 预先解析{@link AnnotatedTypeToken}的脱敏计划
+     *
+     * @param typeTokens 需要通过{@link #desensitize(Object, AnnotatedTypeToken)}脱敏的对象的{@link AnnotatedTypeToken}
+     * @see #prepare(Class[])
+     */
+    public static void prepare(AnnotatedTypeToken<?>... typeTokens) {
+        Arrays.stream(typeTokens).map(AnnotatedTypeToken::getAnnotatedType).forEach(Preparer::prepare);
+    }
+
+    /**
+     * 使用指定的{@link Executor}并行预先解析类型的脱敏计划
+     *
+     * @param executor 执行预先解析的{@link Executor}
+     * @param types    需要通过{@link #desensitize(Object)}脱敏的对象的类型
+     * @return 所有类型都解析完成后结束的{@link CompletableFuture}
+     * @see #prepare(Class[])
+     */
+    public static CompletableFuture<Void> prepare(Executor executor, Class<?>... types) {
+        return CompletableFuture.allOf(Arrays.stream(types)
+                .map(type -> CompletableFuture.runAsync(() -> Preparer.prepare(type), executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 使用指定的{@link Executor}并行预先解析{@link AnnotatedTypeToken}的脱敏计划
+     *
+     * @param executor   执行预先解析的{@link Executor}
+     * @param typeTokens 需要通过{@link #desensitize(Object, AnnotatedTypeToken)}脱敏的对象的{@link AnnotatedTypeToken}
+     * @return 所有类型都解析完成后结束的{@link CompletableFuture}
+     * @see #prepare(Class[])
+     */
+    public static CompletableFuture<Void> prepare(Executor executor, AnnotatedTypeToken<?>... typeTokens) {
+        return CompletableFuture.allOf(Arrays.stream(typeTokens)
                 .map(AnnotatedTypeToken::getAnnotatedType)
-                .map(annotatedType -> AnnotationParser.parse(target, annotatedType))
-                .orElse(target);
+                .map(annotatedType -> CompletableFuture.runAsync(() -> Preparer.prepare(annotatedType), executor))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * 获取目标对象的元素数量
+     *
+     * @param target 目标对象
+     * @return {@link Collection}、{@link Map}和数组返回其大小，其它对象返回1
+     */
+    private static int elementCount(Object target) {
+        return switch (target) {
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Object array when array.getClass().isArray() -> Array.getLength(array);
+            default -> 1;
+        };
+    }
+
+    /**
+     * 根据目标对象的脱敏计划进行脱敏
+     *
+     * @param target    目标对象
+     * @param typeToken 目标对象的{@link AnnotatedTypeToken}
+     * @param groups    激活的分组
+     * @param budget    预算
+     * @param <T>       目标对象类型
+     * @return 脱敏后的新对象
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T execute(T target, AnnotatedTypeToken<T> typeToken, Groups groups, Budget budget) {
+        return target == null ? null : (T) Desensitizer.desensitize(target, TypePlans.resolve(typeToken, groups), budget);
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization;
+
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.lang.annotation.Annotation;
+
+/**
+ * 接收{@link Sensitive#inspect(Object, AnnotatedTypeToken, SensitiveVisitor)}找到的需要脱敏的值
+ *
+ * @author zyc
+ */
+@FunctionalInterface
+public interface SensitiveVisitor {
+
+    /**
+     * 找到一个需要脱敏的值
+     *
+     * @param path           值的路径，例如{@code $.customer.phoneNumber}、{@code $.emails[0]}。
+     *                       路径对应的字符序列会被复用，只在本次调用期间有效，需要保存时应该调用{@link CharSequence#toString()}
+     * @param annotationType 敏感注解的类型，规则在运行时被替换时为替换后的注解类型
+     * @param length         值的长度，非字符序列的值为其字符串形式的长度
+     */
+    void visit(CharSequence path, Class<? extends Annotation> annotationType, int length);
+
+    /**
+     * 找到一个无法只读遍历的值，例如交由annotation-parser处理的值、无法复制的级联对象以及尚未完成的{@link java.util.concurrent.Future}，
+     * 这些值在脱敏时仍然可能包含需要脱敏的部分。默认忽略
+     *
+     * @param path 值的路径，只在本次调用期间有效
+     * @param type 值的运行时类型
+     */
+    default void uninspectable(CharSequence path, Class<?> type) {
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.annotation;
+
+import red.zyc.desensitization.handler.BucketHandler;
+import red.zyc.parser.handler.Parse;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 数字分桶敏感注解，可以标注的类型与{@link MaskDigits}相同。脱敏规则：将目标数字向下取整到{@link #size()}的整数倍，
+ * 即目标数字所在的桶的下界，例如{@code size = 1000}时12345脱敏后的值为12000，-1脱敏后的值为-1000。
+ *
+ * @author zyc
+ */
+@Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Parse(handler = BucketHandler.class, annotation = Bucket.class)
+public @interface Bucket {
+
+    /**
+     * 整数只能使用不小于1的整数作为桶的大小
+     *
+     * @return 桶的大小
+     */
+    double size() default 10;
+
+    /**
+     * @return 是否需要对目标对象进行脱敏的条件
+     */
+    Class<? extends Condition<?>> condition() default AlwaysTrue.class;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 指定同一位置上的{@link red.zyc.parser.type.Cascade}生效的分组，例如{@code @CascadeGroups(External.class) @Cascade Address}
+ * 只有在激活了{@code External}分组时才会级联脱敏。没有该注解的{@link red.zyc.parser.type.Cascade}在任何分组下都会生效。
+ *
+ * @author zyc
+ * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+ */
+@Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CascadeGroups {
+
+    /**
+     * @return 级联脱敏生效的分组
+     */
+    Class<?>[] value();
+}
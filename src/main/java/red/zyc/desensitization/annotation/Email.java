@@ -16,7 +16,7 @@
 
 package red.zyc.desensitization.annotation;
 
-import red.zyc.desensitization.handler.EmailHandler;
+import red.zyc.desensitization.handler.MaskHandler;
 import red.zyc.parser.handler.Parse;
 
 import java.lang.annotation.Documented;
@@ -34,7 +34,8 @@ import java.lang.annotation.Target;
 @Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-@Parse(handler = EmailHandler.class, annotation = Email.class)
+@Mask
+@Parse(handler = MaskHandler.class, annotation = Email.class)
 public @interface Email {
 
     /**
@@ -62,4 +63,17 @@ public @interface Email {
      */
     Class<? extends Condition<?>> condition() default AlwaysTrue.class;
 
+    /**
+     * @return 替换敏感字符的方式
+     */
+    MaskStrategy strategy() default MaskStrategy.PLACEHOLDER;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
 }
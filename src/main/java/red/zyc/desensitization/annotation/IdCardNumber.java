@@ -16,7 +16,7 @@
 
 package red.zyc.desensitization.annotation;
 
-import red.zyc.desensitization.handler.IdCardNumberHandler;
+import red.zyc.desensitization.handler.MaskHandler;
 import red.zyc.parser.handler.Parse;
 
 import java.lang.annotation.Documented;
@@ -33,7 +33,8 @@ import java.lang.annotation.Target;
 @Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
-@Parse(handler = IdCardNumberHandler.class, annotation = IdCardNumber.class)
+@Mask
+@Parse(handler = MaskHandler.class, annotation = IdCardNumber.class)
 public @interface IdCardNumber {
 
     /**
@@ -63,4 +64,17 @@ public @interface IdCardNumber {
      */
     Class<? extends Condition<?>> condition() default AlwaysTrue.class;
 
+    /**
+     * @return 替换敏感字符的方式
+     */
+    MaskStrategy strategy() default MaskStrategy.PLACEHOLDER;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
 }
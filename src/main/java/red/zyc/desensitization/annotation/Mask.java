@@ -0,0 +1,98 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.annotation;
+
+import red.zyc.desensitization.handler.MaskHandler;
+import red.zyc.parser.handler.Parse;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 通用的字符序列敏感注解，默认的脱敏规则：擦除目标对象中的所有字符。
+ * 例如{@code @Mask(keepFirst = 3, keepLast = 4)}脱敏后19962000001的值为199****0001。
+ * <p>
+ * 该注解也可以作为元注解定义预设的敏感注解，预设注解只需要将{@link Parse#handler()}指定为{@link MaskHandler}，
+ * 预设注解中与该注解同名的属性会覆盖元注解中对应的属性，{@code startOffset}和{@code endOffset}分别等同于
+ * {@link #keepFirst()}和{@link #keepLast()}。所有内置的字符序列敏感注解都是该注解的预设，例如：
+ * <pre>
+ * &#64;Mask(keepFirst = 2, keepLast = 2, placeholder = '#')
+ * &#64;Parse(handler = MaskHandler.class, annotation = OrderNumber.class)
+ * public &#64;interface OrderNumber {
+ * }
+ * </pre>
+ *
+ * @author zyc
+ */
+@Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Parse(handler = MaskHandler.class, annotation = Mask.class)
+public @interface Mask {
+
+    /**
+     * @return 保留的开头的字符数
+     */
+    int keepFirst() default 0;
+
+    /**
+     * @return 保留的末尾的字符数
+     */
+    int keepLast() default 0;
+
+    /**
+     * 只要regexp不为{@code ""}就会忽略{@link #keepFirst()}、{@link #keepLast()}和{@link #minMasked()}
+     *
+     * @return 匹配敏感信息的正则表达式
+     */
+    String regexp() default "";
+
+    /**
+     * @return 敏感信息替换后的占位符
+     */
+    char placeholder() default '*';
+
+    /**
+     * 至少需要被替换的字符数，保留的字符过多导致被替换的字符数不足时，依次减少末尾和开头保留的字符数。
+     * 为0时保留的字符数超过目标对象的长度会抛出{@link IllegalArgumentException}
+     *
+     * @return 至少需要被替换的字符数
+     */
+    int minMasked() default 0;
+
+    /**
+     * @return 是否需要对目标对象进行脱敏的条件
+     */
+    Class<? extends Condition<?>> condition() default AlwaysTrue.class;
+
+    /**
+     * @return 替换敏感字符的方式
+     */
+    MaskStrategy strategy() default MaskStrategy.PLACEHOLDER;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
+}
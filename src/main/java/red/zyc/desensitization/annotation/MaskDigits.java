@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.annotation;
+
+import red.zyc.desensitization.handler.MaskDigitsHandler;
+import red.zyc.parser.handler.Parse;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 数字敏感注解，可以标注在{@code long}、{@code int}、{@code double}、{@code float}及其包装类型、
+ * {@link java.math.BigDecimal}、{@link java.math.BigInteger}以及对应的基本类型数组上。
+ * 默认的脱敏规则：保留前3位和后4位数字，其余的数字都替换成0，例如6222021234567890脱敏后的值为6220000000007890。
+ * 小数只会替换整数部分的数字。
+ *
+ * @author zyc
+ */
+@Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Parse(handler = MaskDigitsHandler.class, annotation = MaskDigits.class)
+public @interface MaskDigits {
+
+    /**
+     * @return 保留的最高位的数字个数
+     */
+    int keepFirst() default 3;
+
+    /**
+     * @return 保留的最低位的数字个数
+     */
+    int keepLast() default 4;
+
+    /**
+     * @return 敏感数字替换后的数字，必须在0到9之间
+     */
+    int placeholder() default 0;
+
+    /**
+     * @return 是否需要对目标对象进行脱敏的条件
+     */
+    Class<? extends Condition<?>> condition() default AlwaysTrue.class;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.annotation;
+
+/**
+ * 字符序列敏感注解替换敏感字符的方式
+ *
+ * @author zyc
+ * @see Mask
+ */
+public enum MaskStrategy {
+
+    /**
+     * 替换成占位符
+     */
+    PLACEHOLDER,
+
+    /**
+     * 替换成保留格式的假名，相同的原始值总是得到相同的假名，需要先注册{@link red.zyc.desensitization.handler.Pseudonymizer}
+     */
+    PSEUDONYMIZE
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.annotation;
+
+import red.zyc.desensitization.handler.RoundingHandler;
+import red.zyc.parser.handler.Parse;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.math.RoundingMode;
+
+/**
+ * 数字舍入敏感注解，可以标注的类型与{@link MaskDigits}相同。默认的脱敏规则：四舍五入到整数，
+ * 例如1234.56脱敏后的值为1235。{@link #scale()}为负数时会舍入到整十、整百等，例如{@code scale = -3}时
+ * 1234567脱敏后的值为1235000。
+ *
+ * @author zyc
+ */
+@Target({ElementType.FIELD, ElementType.TYPE_USE, ElementType.PARAMETER, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Parse(handler = RoundingHandler.class, annotation = Rounding.class)
+public @interface Rounding {
+
+    /**
+     * @return 舍入后保留的小数位数，负数代表舍入到小数点左边的位置
+     */
+    int scale() default 0;
+
+    /**
+     * @return 舍入模式
+     */
+    RoundingMode mode() default RoundingMode.HALF_UP;
+
+    /**
+     * @return 是否需要对目标对象进行脱敏的条件
+     */
+    Class<? extends Condition<?>> condition() default AlwaysTrue.class;
+
+    /**
+     * 为空时在任何分组下都会生效
+     *
+     * @return 脱敏规则生效的分组
+     * @see red.zyc.desensitization.Sensitive#desensitize(Object, red.zyc.parser.type.AnnotatedTypeToken, Class[])
+     */
+    Class<?>[] groups() default {};
+
+}
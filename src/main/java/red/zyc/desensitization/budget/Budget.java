@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.budget;
+
+import java.time.Duration;
+
+/**
+ * 单次脱敏的预算，用于限制巨大的或者恶意构造的输入占用调用线程的时间。每一项预算都有各自的{@link Policy}：
+ * <ul>
+ *     <li>{@link #depth()}：数组、集合、{@link java.util.Map}以及级联对象嵌套的最大深度</li>
+ *     <li>{@link #elements()}：需要脱敏的值的最大数量</li>
+ *     <li>{@link #regexChars()}：正则表达式匹配时最多读取的字符数，回溯时重复读取的字符也会被计算在内</li>
+ *     <li>{@link #timeout()}：从脱敏开始计算的最长耗时（纳秒）</li>
+ * </ul>
+ * 预算是不可变的，可以在多次脱敏之间共享，例如：
+ * <pre>
+ * Budget budget = Budget.UNLIMITED
+ *         .withMaxDepth(32, Budget.Policy.FAIL)
+ *         .withMaxRegexChars(1_000_000, Budget.Policy.MASK)
+ *         .withDeadline(Duration.ofMillis(50), Budget.Policy.MASK);
+ * </pre>
+ *
+ * @param depth      嵌套深度的限制
+ * @param elements   需要脱敏的值的数量的限制，只有由处理器脱敏的值才会被计入，容器和级联的对象本身不会被计入
+ * @param regexChars 正则表达式读取的字符数的限制
+ * @param timeout    耗时的限制（纳秒）
+ * @author zyc
+ * @see red.zyc.desensitization.Sensitive#desensitize(Object, Budget)
+ */
+public record Budget(Limit depth, Limit elements, Limit regexChars, Limit timeout) {
+
+    /**
+     * 没有任何限制的预算
+     */
+    public static final Budget UNLIMITED = new Budget(Limit.NONE, Limit.NONE, Limit.NONE, Limit.NONE);
+
+    /**
+     * @param maxDepth 最大嵌套深度，目标对象本身的深度为0
+     * @param policy   超出限制时的策略
+     * @return 限制了嵌套深度的新预算
+     */
+    public Budget withMaxDepth(int maxDepth, Policy policy) {
+        return new Budget(new Limit(maxDepth, policy), elements, regexChars, timeout);
+    }
+
+    /**
+     * @param maxElements 需要脱敏的值的最大数量
+     * @param policy      超出限制时的策略
+     * @return 限制了需要脱敏的值的数量的新预算
+     */
+    public Budget withMaxElements(long maxElements, Policy policy) {
+        return new Budget(depth, new Limit(maxElements, policy), regexChars, timeout);
+    }
+
+    /**
+     * @param maxRegexChars 正则表达式匹配时最多读取的字符数
+     * @param policy        超出限制时的策略
+     * @return 限制了正则表达式读取的字符数的新预算
+     */
+    public Budget withMaxRegexChars(long maxRegexChars, Policy policy) {
+        return new Budget(depth, elements, new Limit(maxRegexChars, policy), timeout);
+    }
+
+    /**
+     * @param timeout 从脱敏开始计算的最长耗时
+     * @param policy  超出限制时的策略
+     * @return 限制了耗时的新预算
+     */
+    public Budget withDeadline(Duration timeout, Policy policy) {
+        return new Budget(depth, elements, regexChars, new Limit(timeout.toNanos(), policy));
+    }
+
+    /**
+     * 超出预算时的策略
+     */
+    public enum Policy {
+
+        /**
+         * 抛出{@link BudgetExceededException}
+         */
+        FAIL,
+
+        /**
+         * 完全脱敏并尽快返回：{@link String}的每一个字符都会被替换成{@code *}，数字被替换成0，{@code char}被替换成{@code '\0'}，{@code boolean}被替换成{@code false}，
+         * 集合、{@link java.util.Map}、数组和{@link java.util.Optional}被替换成同类型的空容器，级联的对象等其它类型被替换成{@code null}。
+         * 超出嵌套深度时只有超出的部分会被完全脱敏，超出其它预算后剩余所有需要脱敏的值都会被完全脱敏。
+         */
+        MASK
+    }
+
+    /**
+     * 预算的种类
+     */
+    public enum Kind {
+
+        /**
+         * 嵌套深度
+         */
+        DEPTH,
+
+        /**
+         * 需要脱敏的值的数量
+         */
+        ELEMENTS,
+
+        /**
+         * 正则表达式读取的字符数
+         */
+        REGEX_CHARS,
+
+        /**
+         * 耗时
+         */
+        DEADLINE
+    }
+
+    /**
+     * 某一项预算的限制
+     *
+     * @param max    最大值
+     * @param policy 超出限制时的策略
+     */
+    public record Limit(long max, Policy policy) {
+
+        /**
+         * 没有限制
+         */
+        public static final Limit NONE = new Limit(Long.MAX_VALUE, Policy.FAIL);
+
+        public Limit {
+            if (max < 0) {
+                throw new IllegalArgumentException(String.format("max: %s", max));
+            }
+            if (policy == null) {
+                throw new IllegalArgumentException("policy must not be null");
+            }
+        }
+    }
+}
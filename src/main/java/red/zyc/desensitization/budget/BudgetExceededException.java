@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.budget;
+
+import java.io.Serial;
+
+/**
+ * 脱敏超出{@link Budget}并且对应的策略是{@link Budget.Policy#FAIL}时抛出的异常
+ *
+ * @author zyc
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Budget.Kind kind;
+
+    /**
+     * @param kind  超出的预算的种类
+     * @param limit 预算的最大值
+     */
+    public BudgetExceededException(Budget.Kind kind, long limit) {
+        super(String.format("Desensitization exceeded %s budget: %s", kind, limit));
+        this.kind = kind;
+    }
+
+    /**
+     * @return 超出的预算的种类
+     */
+    public Budget.Kind getKind() {
+        return kind;
+    }
+}
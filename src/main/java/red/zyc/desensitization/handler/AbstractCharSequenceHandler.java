@@ -17,15 +17,20 @@
 package red.zyc.desensitization.handler;
 
 import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.MaskStrategy;
+import red.zyc.desensitization.jfr.PatternCompilationEvent;
+import red.zyc.desensitization.metrics.Metrics;
 import red.zyc.parser.handler.AnnotationHandler;
 import red.zyc.parser.util.InstanceCreators;
 
 import java.lang.annotation.Annotation;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.IntStream;
 
 /**
  * {@link CharSequence}处理器基类，提供了一些有用的方法。
@@ -37,9 +42,9 @@ import java.util.stream.IntStream;
 public abstract class AbstractCharSequenceHandler<T extends CharSequence, A extends Annotation> implements AnnotationHandler<T, A, T> {
 
     /**
-     * 正则表达式缓存
+     * 正则表达式缓存，每个正则表达式都对应一个可以重复使用的{@link Matcher}池
      */
-    private static final ConcurrentMap<String, Pattern> PATTERN_CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, MatcherPool> PATTERN_CACHE = new ConcurrentHashMap<>();
 
     /**
      * 根据条件判断是否需要脱敏
@@ -65,45 +70,222 @@ public abstract class AbstractCharSequenceHandler<T extends CharSequence, A exte
      * @return 脱敏后的新字符序列对象的字符数组
      */
     public final char[] desensitize(T target, String regexp, int start, int end, char placeholder) {
-        return !regexp.isEmpty() ? desensitize(target, regexp, placeholder) : desensitize(target, start, end, placeholder);
+        return desensitize(target, regexp, start, end, 0, placeholder);
     }
 
     /**
-     * 基于正则表达式脱敏
+     * 脱敏方法
      *
      * @param target      目标字符序列对象
      * @param regexp      正则表达式
+     * @param start       敏感信息在原字符序列中的起始偏移
+     * @param end         敏感信息在原字符序列中的结束偏移
+     * @param minMasked   至少需要被替换的字符数，只对基于位置偏移的脱敏生效
      * @param placeholder 敏感信息替换后的占位符
      * @return 脱敏后的新字符序列对象的字符数组
+     * @see red.zyc.desensitization.annotation.Mask#minMasked()
      */
-    private char[] desensitize(T target, String regexp, char placeholder) {
+    public final char[] desensitize(T target, String regexp, int start, int end, int minMasked, char placeholder) {
+        var metrics = Metrics.current();
+        long begin = metrics.enabled() ? System.nanoTime() : 0L;
         char[] chars = chars(target);
-        Matcher matcher = PATTERN_CACHE.computeIfAbsent(regexp, s -> Pattern.compile(regexp)).matcher(target);
-        // 将正则匹配的每一项中的每一个字符都替换成占位符
-        while (matcher.find()) {
-            // 排除空字符串
-            if (!matcher.group().isEmpty()) {
-                // 将匹配项的每一个字符都替换成占位符
-                replace(chars, matcher.start(), matcher.end(), placeholder);
-            }
+        int length = target.length();
+        int masked = !regexp.isEmpty() ? desensitize(chars, target, regexp, placeholder, metrics) : desensitize(chars, target, keepFirst(length, start, end, minMasked), keepLast(length, start, end, minMasked), placeholder, null);
+        if (metrics.enabled()) {
+            metrics.handled(getClass(), !regexp.isEmpty(), chars.length, masked, System.nanoTime() - begin);
         }
         return chars;
     }
 
+    /**
+     * 将敏感注解绑定成一个可以重复使用的脱敏函数，用于对大量使用同一个注解的值进行脱敏，例如
+     * {@link red.zyc.desensitization.Sensitive#desensitizeColumn(String[], String[], Annotation)}。
+     * 默认每次都调用{@link red.zyc.parser.handler.AnnotationHandler#handle(Object, Annotation)}，子类可以通过{@link #bind(Class, String, int, int, char, Function)}
+     * 在绑定时一次性解析条件和正则表达式。
+     *
+     * @param annotation 敏感注解
+     * @return 绑定了敏感注解的脱敏函数
+     */
+    public UnaryOperator<T> bind(A annotation) {
+        return target -> handle(target, annotation);
+    }
+
+    /**
+     * 将敏感注解的属性绑定成一个可以重复使用的脱敏函数，条件和正则表达式只会在绑定时解析一次
+     *
+     * @param conditionClass 条件的{@link Class}
+     * @param regexp         正则表达式
+     * @param start          敏感信息在原字符序列中的起始偏移
+     * @param end            敏感信息在原字符序列中的结束偏移
+     * @param placeholder    敏感信息替换后的占位符
+     * @param factory        根据脱敏后的字符数组创建新字符序列对象的函数
+     * @return 绑定了敏感注解的属性的脱敏函数
+     */
+    protected final CharSequenceMasker<T> bind(Class<? extends Condition<?>> conditionClass, String regexp, int start, int end, char placeholder, Function<char[], T> factory) {
+        return bind(conditionClass, regexp, start, end, 0, placeholder, factory);
+    }
+
+    /**
+     * 将敏感注解的属性绑定成一个可以重复使用的脱敏函数，条件和正则表达式只会在绑定时解析一次
+     *
+     * @param conditionClass 条件的{@link Class}
+     * @param regexp         正则表达式
+     * @param start          敏感信息在原字符序列中的起始偏移
+     * @param end            敏感信息在原字符序列中的结束偏移
+     * @param minMasked      至少需要被替换的字符数，只对基于位置偏移的脱敏生效
+     * @param placeholder    敏感信息替换后的占位符
+     * @param factory        根据脱敏后的字符数组创建新字符序列对象的函数
+     * @return 绑定了敏感注解的属性的脱敏函数
+     */
+    protected final CharSequenceMasker<T> bind(Class<? extends Condition<?>> conditionClass, String regexp, int start, int end, int minMasked, char placeholder, Function<char[], T> factory) {
+        return bind(conditionClass, regexp, start, end, minMasked, placeholder, MaskStrategy.PLACEHOLDER, factory);
+    }
+
+    /**
+     * 将敏感注解的属性绑定成一个可以重复使用的脱敏函数，条件和正则表达式只会在绑定时解析一次
+     *
+     * @param conditionClass 条件的{@link Class}
+     * @param regexp         正则表达式
+     * @param start          敏感信息在原字符序列中的起始偏移
+     * @param end            敏感信息在原字符序列中的结束偏移
+     * @param minMasked      至少需要被替换的字符数，只对基于位置偏移的脱敏生效
+     * @param placeholder    敏感信息替换后的占位符
+     * @param strategy       替换敏感字符的方式
+     * @param factory        根据脱敏后的字符数组创建新字符序列对象的函数
+     * @return 绑定了敏感注解的属性的脱敏函数
+     */
+    protected final CharSequenceMasker<T> bind(Class<? extends Condition<?>> conditionClass, String regexp, int start, int end, int minMasked, char placeholder, MaskStrategy strategy, Function<char[], T> factory) {
+        @SuppressWarnings("unchecked")
+        Condition<T> condition = InstanceCreators.find((Class<? extends Condition<T>>) conditionClass).create();
+        return new CharSequenceMasker<>(getClass(), condition, !regexp.isEmpty() ? pattern(regexp, Metrics.current()) : null, start, end, minMasked, placeholder, strategy == MaskStrategy.PSEUDONYMIZE, factory);
+    }
+
+    /**
+     * 基于正则表达式脱敏
+     *
+     * @param chars       目标字符序列对象的字符数组
+     * @param target      目标字符序列对象
+     * @param regexp      正则表达式
+     * @param placeholder 敏感信息替换后的占位符
+     * @param metrics     指标收集器
+     * @return 被占位符替换的字符数
+     */
+    private int desensitize(char[] chars, T target, String regexp, char placeholder, Metrics metrics) {
+        return desensitize(chars, target, pattern(regexp, metrics), placeholder, null);
+    }
+
+    /**
+     * 基于正则表达式脱敏
+     *
+     * @param chars       目标字符序列对象的字符数组
+     * @param target      目标字符序列对象
+     * @param pattern     正则表达式对应的{@link Matcher}池
+     * @param placeholder 敏感信息替换后的占位符
+     * @param session     生成假名的{@link Pseudonymizer.Session}，替换成占位符时为{@code null}
+     * @return 被替换的字符数
+     */
+    static int desensitize(char[] chars, CharSequence target, MatcherPool pattern, char placeholder, Pseudonymizer.Session session) {
+        int masked = 0;
+        Matcher matcher = pattern.acquire(target);
+        try {
+            // 将正则匹配的每一项中的每一个字符都替换成占位符
+            while (matcher.find()) {
+                int start = matcher.start();
+                int end = matcher.end();
+                // 排除空字符串，直接比较偏移而不是通过group()创建子串
+                if (end > start) {
+                    // 将匹配项的每一个字符都替换成占位符
+                    masked += replace(chars, start, end, placeholder, session);
+                }
+            }
+        } finally {
+            pattern.release(matcher);
+        }
+        return masked;
+    }
+
     /**
      * 基于位置偏移脱敏
      *
+     * @param chars       目标字符序列对象的字符数组
      * @param target      目标字符序列对象
      * @param start       敏感信息在原字符序列中的起始偏移
      * @param end         敏感信息在原字符序列中的结束偏移
      * @param placeholder 敏感信息替换后的占位符
-     * @return 脱敏后的新字符序列对象的字符数组
+     * @param session     生成假名的{@link Pseudonymizer.Session}，替换成占位符时为{@code null}
+     * @return 被替换的字符数
      */
-    private char[] desensitize(T target, int start, int end, char placeholder) {
+    static int desensitize(char[] chars, CharSequence target, int start, int end, char placeholder, Pseudonymizer.Session session) {
         check(start, end, target);
-        char[] chars = chars(target);
-        replace(chars, start, target.length() - end, placeholder);
-        return chars;
+        return replace(chars, start, target.length() - end, placeholder, session);
+    }
+
+    /**
+     * 计算满足至少需要被替换的字符数时开头保留的字符数，末尾保留的字符数减少到0后才会减少开头保留的字符数
+     *
+     * @param length    目标字符序列的长度
+     * @param start     敏感信息在原字符序列中的起始偏移
+     * @param end       敏感信息在原字符序列中的结束偏移
+     * @param minMasked 至少需要被替换的字符数，为0时不会调整偏移
+     * @return 开头保留的字符数
+     */
+    static int keepFirst(int length, int start, int end, int minMasked) {
+        int excess = excess(length, start, end, minMasked);
+        return start - (excess - Math.min(excess, end));
+    }
+
+    /**
+     * 计算满足至少需要被替换的字符数时末尾保留的字符数
+     *
+     * @param length    目标字符序列的长度
+     * @param start     敏感信息在原字符序列中的起始偏移
+     * @param end       敏感信息在原字符序列中的结束偏移
+     * @param minMasked 至少需要被替换的字符数，为0时不会调整偏移
+     * @return 末尾保留的字符数
+     */
+    static int keepLast(int length, int start, int end, int minMasked) {
+        return end - Math.min(excess(length, start, end, minMasked), end);
+    }
+
+    /**
+     * @return 为了满足至少需要被替换的字符数需要少保留的字符数
+     */
+    private static int excess(int length, int start, int end, int minMasked) {
+        return minMasked > 0 ? Math.max(start + end + Math.min(minMasked, length) - length, 0) : 0;
+    }
+
+    /**
+     * 从缓存中获取正则表达式对应的{@link Matcher}池
+     *
+     * @param regexp  正则表达式
+     * @param metrics 指标收集器
+     * @return 正则表达式对应的{@link Matcher}池
+     */
+    private MatcherPool pattern(String regexp, Metrics metrics) {
+        if (!metrics.enabled()) {
+            return PATTERN_CACHE.computeIfAbsent(regexp, this::compile);
+        }
+        MatcherPool pattern = PATTERN_CACHE.get(regexp);
+        metrics.patternCache(pattern != null);
+        return pattern != null ? pattern : PATTERN_CACHE.computeIfAbsent(regexp, this::compile);
+    }
+
+    /**
+     * 编译正则表达式
+     *
+     * @param regexp 正则表达式
+     * @return 正则表达式对应的{@link Matcher}池
+     */
+    private MatcherPool compile(String regexp) {
+        var event = new PatternCompilationEvent();
+        event.begin();
+        MatcherPool pattern = new MatcherPool(Pattern.compile(regexp));
+        if (event.shouldCommit()) {
+            event.regexp = regexp;
+            event.handlerType = getClass();
+            event.commit();
+        }
+        return pattern;
     }
 
     /**
@@ -112,9 +294,14 @@ public abstract class AbstractCharSequenceHandler<T extends CharSequence, A exte
      * @param target 字符序列对象
      * @return 字符序列对象所代表的字符数组
      */
-    private char[] chars(T target) {
+    static char[] chars(CharSequence target) {
+        if (target instanceof String string) {
+            return string.toCharArray();
+        }
         char[] chars = new char[target.length()];
-        IntStream.range(0, target.length()).forEach(i -> chars[i] = target.charAt(i));
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = target.charAt(i);
+        }
         return chars;
     }
 
@@ -125,11 +312,22 @@ public abstract class AbstractCharSequenceHandler<T extends CharSequence, A exte
      * @param start       敏感信息在字符序列中的起始索引
      * @param end         敏感信息在字符序列中的结束索引
      * @param placeholder 用来替换敏感字符的占位符
+     * @param session     生成假名的{@link Pseudonymizer.Session}，替换成占位符时为{@code null}
+     * @return 被替换的字符数
      */
-    private void replace(char[] chars, int start, int end, char placeholder) {
-        while (start < end) {
-            chars[start++] = placeholder;
+    private static int replace(char[] chars, int start, int end, char placeholder, Pseudonymizer.Session session) {
+        if (end <= start) {
+            return 0;
+        }
+        if (session != null) {
+            for (int i = start; i < end; i++) {
+                chars[i] = session.replace(chars[i], i);
+            }
+            return end - start;
         }
+        // Arrays.fill会被JIT编译成向量化的批量写入
+        Arrays.fill(chars, start, end, placeholder);
+        return end - start;
     }
 
     /**
@@ -139,7 +337,7 @@ public abstract class AbstractCharSequenceHandler<T extends CharSequence, A exte
      * @param endOffset   敏感信息在原字符序列中的结束偏移
      * @param target      原字符序列
      */
-    private void check(int startOffset, int endOffset, T target) {
+    static void check(int startOffset, int endOffset, CharSequence target) {
         if (startOffset < 0 ||
                 endOffset < 0 ||
                 startOffset + endOffset > target.length()) {
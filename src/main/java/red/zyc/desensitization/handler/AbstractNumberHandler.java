@@ -0,0 +1,256 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.AlwaysTrue;
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.parser.handler.AnnotationHandler;
+import red.zyc.parser.util.InstanceCreators;
+
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * 数字处理器基类，除了{@link Number}以外还提供了直接处理{@code long}、{@code int}、{@code double}的方法，
+ * 对基本类型的域和数组脱敏时不会产生装箱以及中间字符串。只有自定义了条件时才会将基本类型装箱后交给条件判断。
+ * 脱敏后的数字超出了原始类型的范围时会饱和到该类型的最大值或者最小值，而不会抛出异常。
+ *
+ * @param <A> 敏感注解类型
+ * @author zyc
+ */
+public abstract class AbstractNumberHandler<A extends Annotation> implements AnnotationHandler<Number, A, Number> {
+
+    /**
+     * 支持脱敏的数字类型
+     */
+    private static final List<Class<?>> SUPPORTED_TYPES = List.of(
+            long.class, int.class, short.class, byte.class, double.class, float.class,
+            Long.class, Integer.class, Short.class, Byte.class, Double.class, Float.class,
+            BigDecimal.class, BigInteger.class);
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    /**
+     * 判断声明的类型是否可能由数字处理器处理，{@link Number}、{@link Object}这类只有在运行时才能确定实际类型的声明类型也是支持的
+     *
+     * @param type 声明的类型
+     * @return 声明的类型是否可能由数字处理器处理
+     */
+    public static boolean supports(Class<?> type) {
+        return SUPPORTED_TYPES.stream().anyMatch(type::isAssignableFrom);
+    }
+
+    /**
+     * @throws IllegalArgumentException 目标数字不是{@link #supports(Class)}支持的类型
+     */
+    @Override
+    public Number handle(Number target, A annotation) {
+        if (!required(target, condition(annotation))) {
+            return target;
+        }
+        return switch (target) {
+            case Long value -> desensitize(value.longValue(), annotation);
+            case Integer value -> (int) clamp(desensitize(value.longValue(), annotation), Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case Short value -> (short) clamp(desensitize(value.longValue(), annotation), Short.MIN_VALUE, Short.MAX_VALUE);
+            case Byte value -> (byte) clamp(desensitize(value.longValue(), annotation), Byte.MIN_VALUE, Byte.MAX_VALUE);
+            case Double value -> desensitize(value.doubleValue(), annotation);
+            case Float value -> (float) desensitize(value.doubleValue(), annotation);
+            case BigDecimal value -> desensitize(value, annotation);
+            case BigInteger value -> desensitize(new BigDecimal(value), annotation).toBigInteger();
+            default -> throw new IllegalArgumentException(String.format("Unsupported number type %s", target.getClass().getName()));
+        };
+    }
+
+    /**
+     * 对{@code long}脱敏
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字
+     */
+    public final long handle(long target, A annotation) {
+        Class<? extends Condition<?>> condition = condition(annotation);
+        return condition == AlwaysTrue.class || required(target, condition) ? desensitize(target, annotation) : target;
+    }
+
+    /**
+     * 对{@code int}脱敏
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字，超出了{@code int}的范围时饱和到{@code int}的最大值或者最小值
+     */
+    public final int handle(int target, A annotation) {
+        Class<? extends Condition<?>> condition = condition(annotation);
+        return condition == AlwaysTrue.class || required(target, condition) ? (int) clamp(desensitize((long) target, annotation), Integer.MIN_VALUE, Integer.MAX_VALUE) : target;
+    }
+
+    /**
+     * 对{@code short}脱敏
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字，超出了{@code short}的范围时饱和到{@code short}的最大值或者最小值
+     */
+    public final short handle(short target, A annotation) {
+        Class<? extends Condition<?>> condition = condition(annotation);
+        return condition == AlwaysTrue.class || required(target, condition) ? (short) clamp(desensitize((long) target, annotation), Short.MIN_VALUE, Short.MAX_VALUE) : target;
+    }
+
+    /**
+     * 对{@code byte}脱敏
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字，超出了{@code byte}的范围时饱和到{@code byte}的最大值或者最小值
+     */
+    public final byte handle(byte target, A annotation) {
+        Class<? extends Condition<?>> condition = condition(annotation);
+        return condition == AlwaysTrue.class || required(target, condition) ? (byte) clamp(desensitize((long) target, annotation), Byte.MIN_VALUE, Byte.MAX_VALUE) : target;
+    }
+
+    /**
+     * 对{@code double}脱敏
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字
+     */
+    public final double handle(double target, A annotation) {
+        Class<? extends Condition<?>> condition = condition(annotation);
+        return condition == AlwaysTrue.class || required(target, condition) ? desensitize(target, annotation) : target;
+    }
+
+    /**
+     * 根据条件判断是否需要脱敏
+     *
+     * @param target         目标数字
+     * @param conditionClass 条件的{@link Class}
+     * @return 是否需要脱敏
+     */
+    public boolean required(Object target, Class<? extends Condition<?>> conditionClass) {
+        @SuppressWarnings("unchecked")
+        Class<? extends Condition<Object>> clazz = (Class<? extends Condition<Object>>) conditionClass;
+        return InstanceCreators.find(clazz).create().required(target);
+    }
+
+    /**
+     * @param annotation 敏感注解
+     * @return 敏感注解的条件
+     */
+    protected abstract Class<? extends Condition<?>> condition(A annotation);
+
+    /**
+     * 对整数脱敏，{@code int}、{@code short}、{@code byte}也会转换成{@code long}后调用此方法
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字，超出了{@code long}的范围时应当饱和到{@code long}的最大值或者最小值
+     */
+    protected abstract long desensitize(long target, A annotation);
+
+    /**
+     * 对浮点数脱敏，{@code float}也会转换成{@code double}后调用此方法
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字
+     */
+    protected abstract double desensitize(double target, A annotation);
+
+    /**
+     * 对{@link BigDecimal}脱敏，{@link BigInteger}也会转换成{@link BigDecimal}后调用此方法
+     *
+     * @param target     目标数字
+     * @param annotation 敏感注解
+     * @return 脱敏后的数字
+     */
+    protected abstract BigDecimal desensitize(BigDecimal target, A annotation);
+
+    /**
+     * 计算10的幂
+     *
+     * @param exponent 指数
+     * @return 10的{@code exponent}次幂
+     * @throws ArithmeticException 结果超出了{@code long}的范围
+     */
+    static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, 10L);
+        }
+        return result;
+    }
+
+    /**
+     * 将数字限制在给定的范围内
+     *
+     * @param value 数字
+     * @param min   最小值
+     * @param max   最大值
+     * @return 限制在{@code [min, max]}范围内的数字
+     */
+    static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * 饱和加法
+     *
+     * @param x 被加数
+     * @param y 加数
+     * @return 和，溢出时返回{@code long}的最大值或者最小值
+     */
+    static long saturatedAdd(long x, long y) {
+        long result = x + y;
+        if (((x ^ result) & (y ^ result)) < 0) {
+            return x < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return result;
+    }
+
+    /**
+     * 饱和乘法
+     *
+     * @param x 被乘数
+     * @param y 乘数
+     * @return 积，溢出时返回{@code long}的最大值或者最小值
+     */
+    static long saturatedMultiply(long x, long y) {
+        long high = Math.multiplyHigh(x, y);
+        long low = x * y;
+        if (high == 0 && low >= 0 || high == -1 && low < 0) {
+            return low;
+        }
+        return (x ^ y) < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+
+    /**
+     * 将整数形式的{@link BigDecimal}饱和转换成{@code long}
+     *
+     * @param value 整数形式的{@link BigDecimal}
+     * @return 限制在{@code long}范围内的数字
+     */
+    static long saturatedLong(BigDecimal value) {
+        return value.max(LONG_MIN).min(LONG_MAX).longValue();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.Bucket;
+import red.zyc.desensitization.annotation.Condition;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 数字分桶处理器
+ *
+ * @author zyc
+ */
+public class BucketHandler extends AbstractNumberHandler<Bucket> {
+
+    @Override
+    protected Class<? extends Condition<?>> condition(Bucket annotation) {
+        return annotation.condition();
+    }
+
+    @Override
+    protected long desensitize(long target, Bucket annotation) {
+        double size = annotation.size();
+        if (size < 1 || size != Math.rint(size) || size >= 0x1p63) {
+            throw new IllegalArgumentException(String.format("size: %s", size));
+        }
+        long unit = (long) size;
+        return saturatedMultiply(Math.floorDiv(target, unit), unit);
+    }
+
+    @Override
+    protected double desensitize(double target, Bucket annotation) {
+        double size = check(annotation.size());
+        return Math.floor(target / size) * size;
+    }
+
+    @Override
+    protected BigDecimal desensitize(BigDecimal target, Bucket annotation) {
+        BigDecimal size = BigDecimal.valueOf(check(annotation.size()));
+        return target.divide(size, 0, RoundingMode.FLOOR).multiply(size);
+    }
+
+    /**
+     * 校验桶的大小的合法性
+     *
+     * @param size 桶的大小
+     * @return 桶的大小
+     */
+    private static double check(double size) {
+        if (!(size > 0) || Double.isInfinite(size)) {
+            throw new IllegalArgumentException(String.format("size: %s", size));
+        }
+        return size;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.metrics.Metrics;
+
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+
+/**
+ * 绑定了敏感注解的属性的字符序列脱敏函数，条件和正则表达式在绑定时就已经解析完成。
+ * 除了返回脱敏后的新字符序列对象以外，还可以将脱敏后的字符直接写入{@link Appendable}而不创建任何中间字符数组或字符串。
+ *
+ * @param <T> 需要脱敏的对象类型
+ * @author zyc
+ * @see AbstractCharSequenceHandler#bind(Class, String, int, int, int, char, Function)
+ */
+public final class CharSequenceMasker<T extends CharSequence> implements UnaryOperator<T> {
+
+    private final Class<?> handlerType;
+
+    private final Condition<T> condition;
+
+    /**
+     * 正则表达式对应的{@link Matcher}池，基于位置偏移脱敏时为{@code null}
+     */
+    private final MatcherPool pattern;
+
+    private final int start;
+
+    private final int end;
+
+    private final int minMasked;
+
+    private final char placeholder;
+
+    /**
+     * 是否使用当前注册的{@link Pseudonymizer}替换敏感字符
+     */
+    private final boolean pseudonymize;
+
+    private final Function<char[], T> factory;
+
+    CharSequenceMasker(Class<?> handlerType, Condition<T> condition, MatcherPool pattern, int start, int end, int minMasked, char placeholder, boolean pseudonymize, Function<char[], T> factory) {
+        this.handlerType = handlerType;
+        this.condition = condition;
+        this.pattern = pattern;
+        this.start = start;
+        this.end = end;
+        this.minMasked = minMasked;
+        this.placeholder = placeholder;
+        this.pseudonymize = pseudonymize;
+        this.factory = factory;
+    }
+
+    @Override
+    public T apply(T target) {
+        return apply(target, target);
+    }
+
+    /**
+     * 脱敏目标字符序列对象，正则表达式扫描的是与目标字符序列内容相同的{@code input}，
+     * 调用方可以借此包装目标字符序列，例如限制{@link Matcher}读取的字符数
+     *
+     * @param target 目标字符序列对象
+     * @param input  交由{@link Matcher}扫描的字符序列，内容必须与目标字符序列相同
+     * @return 脱敏后的新字符序列对象
+     */
+    public T apply(T target, CharSequence input) {
+        if (!condition.required(target)) {
+            return target;
+        }
+        var metrics = Metrics.current();
+        long begin = metrics.enabled() ? System.nanoTime() : 0L;
+        if (metrics.enabled() && pattern != null) {
+            // 绑定时已经从缓存中获取了正则表达式
+            metrics.patternCache(true);
+        }
+        char[] chars = AbstractCharSequenceHandler.chars(target);
+        int masked;
+        try (Pseudonymizer.Session session = session(target)) {
+            masked = pattern != null ? AbstractCharSequenceHandler.desensitize(chars, input, pattern, placeholder, session) : AbstractCharSequenceHandler.desensitize(chars, target, keepFirst(target), keepLast(target), placeholder, session);
+        }
+        if (metrics.enabled()) {
+            metrics.handled(handlerType, pattern != null, chars.length, masked, System.nanoTime() - begin);
+        }
+        return factory.apply(chars);
+    }
+
+    /**
+     * @return 是否基于正则表达式脱敏
+     */
+    public boolean regexp() {
+        return pattern != null;
+    }
+
+    /**
+     * 将脱敏后的字符逐个写入{@link Appendable}，不需要脱敏的片段直接从目标字符序列中写入
+     *
+     * @param target 目标字符序列对象
+     * @param out    写入的目标
+     * @throws IOException 写入失败
+     */
+    public void write(T target, Appendable out) throws IOException {
+        if (!condition.required(target)) {
+            out.append(target);
+            return;
+        }
+        var metrics = Metrics.current();
+        long begin = metrics.enabled() ? System.nanoTime() : 0L;
+        if (metrics.enabled() && pattern != null) {
+            metrics.patternCache(true);
+        }
+        int masked = 0;
+        try (Pseudonymizer.Session session = session(target)) {
+            if (pattern == null) {
+                int keepFirst = keepFirst(target);
+                int keepLast = keepLast(target);
+                AbstractCharSequenceHandler.check(keepFirst, keepLast, target);
+                masked = write(target, 0, keepFirst, target.length() - keepLast, session, out);
+                out.append(target, target.length() - keepLast, target.length());
+            } else {
+                int position = 0;
+                Matcher matcher = pattern.acquire(target);
+                try {
+                    while (matcher.find()) {
+                        if (matcher.end() > matcher.start()) {
+                            masked += write(target, position, matcher.start(), matcher.end(), session, out);
+                            position = matcher.end();
+                        }
+                    }
+                } finally {
+                    pattern.release(matcher);
+                }
+                out.append(target, position, target.length());
+            }
+        }
+        if (metrics.enabled()) {
+            metrics.handled(handlerType, pattern != null, target.length(), masked, System.nanoTime() - begin);
+        }
+    }
+
+    /**
+     * @param target 目标字符序列对象
+     * @return 满足至少需要被替换的字符数时开头保留的字符数
+     */
+    private int keepFirst(T target) {
+        return AbstractCharSequenceHandler.keepFirst(target.length(), start, end, minMasked);
+    }
+
+    /**
+     * @param target 目标字符序列对象
+     * @return 满足至少需要被替换的字符数时末尾保留的字符数
+     */
+    private int keepLast(T target) {
+        return AbstractCharSequenceHandler.keepLast(target.length(), start, end, minMasked);
+    }
+
+    /**
+     * @param target 目标字符序列对象
+     * @return 使用假名替换敏感字符时为目标字符序列准备好的{@link Pseudonymizer.Session}，使用完毕后需要关闭，否则为{@code null}
+     */
+    private Pseudonymizer.Session session(T target) {
+        return pseudonymize ? Pseudonymizer.current().open(target) : null;
+    }
+
+    /**
+     * 写入{@code [from, start)}之间的原始字符以及{@code [start, end)}之间的占位符或者假名
+     *
+     * @param target  目标字符序列对象
+     * @param from    原始字符的起始索引
+     * @param start   敏感信息的起始索引
+     * @param end     敏感信息的结束索引
+     * @param session 生成假名的{@link Pseudonymizer.Session}，替换成占位符时为{@code null}
+     * @param out     写入的目标
+     * @return 写入的占位符或者假名的字符数量
+     * @throws IOException 写入失败
+     */
+    private int write(T target, int from, int start, int end, Pseudonymizer.Session session, Appendable out) throws IOException {
+        out.append(target, from, start);
+        for (int i = start; i < end; i++) {
+            out.append(session != null ? session.replace(target.charAt(i), i) : placeholder);
+        }
+        return Math.max(end - start, 0);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.MaskDigits;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * 数字处理器，按位替换数字的整数部分，{@code long}范围内的数字只使用整数运算。
+ *
+ * @author zyc
+ */
+public class MaskDigitsHandler extends AbstractNumberHandler<MaskDigits> {
+
+    /**
+     * 整数部分能够用{@code long}表示的{@code double}的绝对值的上界
+     */
+    private static final double LONG_RANGE = 0x1p63;
+
+    @Override
+    protected Class<? extends Condition<?>> condition(MaskDigits annotation) {
+        return annotation.condition();
+    }
+
+    @Override
+    protected long desensitize(long target, MaskDigits annotation) {
+        check(annotation);
+        return mask(target, digits(target), annotation.keepFirst(), annotation.keepLast(), annotation.placeholder());
+    }
+
+    @Override
+    protected double desensitize(double target, MaskDigits annotation) {
+        check(annotation);
+        if (Double.isNaN(target) || Double.isInfinite(target) || Math.abs(target) >= LONG_RANGE) {
+            return target;
+        }
+        long integral = (long) target;
+        return mask(integral, digits(integral), annotation.keepFirst(), annotation.keepLast(), annotation.placeholder()) + (target - integral);
+    }
+
+    @Override
+    protected BigDecimal desensitize(BigDecimal target, MaskDigits annotation) {
+        check(annotation);
+        BigDecimal integral = target.setScale(0, RoundingMode.DOWN);
+        BigInteger unscaled = integral.unscaledValue();
+        BigDecimal masked;
+        // 不超过18位的数字替换后仍然在long的范围内，超出的部分按字符处理以保证结果精确
+        if (unscaled.bitLength() < Long.SIZE && digits(unscaled.longValue()) <= 18) {
+            long value = unscaled.longValue();
+            masked = BigDecimal.valueOf(mask(value, digits(value), annotation.keepFirst(), annotation.keepLast(), annotation.placeholder()));
+        } else {
+            char[] chars = unscaled.abs().toString().toCharArray();
+            for (int i = annotation.keepFirst(); i < chars.length - annotation.keepLast(); i++) {
+                chars[i] = (char) ('0' + annotation.placeholder());
+            }
+            BigInteger value = new BigInteger(new String(chars));
+            masked = new BigDecimal(unscaled.signum() < 0 ? value.negate() : value);
+        }
+        return masked.add(target.subtract(integral));
+    }
+
+    /**
+     * 按位替换数字
+     *
+     * @param target      目标数字
+     * @param digits      目标数字的位数
+     * @param keepFirst   保留的最高位的数字个数
+     * @param keepLast    保留的最低位的数字个数
+     * @param placeholder 敏感数字替换后的数字
+     * @return 替换后的数字，超出了{@code long}的范围时饱和到{@code long}的最大值或者最小值
+     */
+    private static long mask(long target, int digits, int keepFirst, int keepLast, int placeholder) {
+        if (keepFirst + keepLast >= digits) {
+            return target;
+        }
+        long result = 0;
+        long unit = 1;
+        long remaining = target;
+        for (int i = 0; i < digits; i++) {
+            long digit = Math.abs(remaining % 10);
+            remaining /= 10;
+            boolean keep = i < keepLast || i >= digits - keepFirst;
+            result = saturatedAdd(result, (keep ? digit : placeholder) * unit);
+            if (i < digits - 1) {
+                unit *= 10;
+            }
+        }
+        return target < 0 ? -result : result;
+    }
+
+    /**
+     * @param target 目标数字
+     * @return 目标数字的十进制位数，0的位数是1
+     */
+    private static int digits(long target) {
+        int digits = 1;
+        for (long remaining = target / 10; remaining != 0; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * 校验注解的属性的合法性
+     *
+     * @param annotation 敏感注解
+     */
+    private static void check(MaskDigits annotation) {
+        if (annotation.keepFirst() < 0 || annotation.keepLast() < 0 || annotation.placeholder() < 0 || annotation.placeholder() > 9) {
+            throw new IllegalArgumentException(String.format("keepFirst: %s, keepLast: %s, placeholder: %s", annotation.keepFirst(), annotation.keepLast(), annotation.placeholder()));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.Mask;
+import red.zyc.desensitization.annotation.MaskStrategy;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Mask}以及所有以{@link Mask}为元注解的预设注解的处理器。
+ * 脱敏策略在绑定注解时就已经确定，所有内置的字符序列敏感注解绑定后都是同一种{@link CharSequenceMasker}，
+ * 使得脱敏的调用点始终只会看到一种实现。
+ *
+ * @author zyc
+ */
+public final class MaskHandler extends AbstractCharSequenceHandler<String, Annotation> {
+
+    /**
+     * 预设注解对应的{@link Preset}，每种预设注解只会解析一次
+     */
+    private static final ClassValue<Preset> PRESETS = new ClassValue<>() {
+
+        @Override
+        protected Preset computeValue(Class<?> type) {
+            return Preset.of(type);
+        }
+    };
+
+    @Override
+    public String handle(String target, Annotation annotation) {
+        Rule rule = rule(annotation);
+        if (rule.strategy() == MaskStrategy.PSEUDONYMIZE) {
+            return bind(annotation).apply(target);
+        }
+        return required(target, rule.condition()) ? String.valueOf(desensitize(target, rule.regexp(), rule.keepFirst(), rule.keepLast(), rule.minMasked(), rule.placeholder())) : target;
+    }
+
+    @Override
+    public UnaryOperator<String> bind(Annotation annotation) {
+        Rule rule = rule(annotation);
+        return bind(rule.condition(), rule.regexp(), rule.keepFirst(), rule.keepLast(), rule.minMasked(), rule.placeholder(), rule.strategy(), String::valueOf);
+    }
+
+    /**
+     * 解析注解对应的脱敏规则
+     *
+     * @param annotation {@link Mask}或者以{@link Mask}为元注解的预设注解
+     * @return 注解对应的脱敏规则
+     */
+    private static Rule rule(Annotation annotation) {
+        if (annotation instanceof Mask mask) {
+            return new Rule(mask.keepFirst(), mask.keepLast(), mask.regexp(), mask.placeholder(), mask.minMasked(), mask.condition(), mask.strategy());
+        }
+        return PRESETS.get(annotation.annotationType()).rule(annotation);
+    }
+
+    /**
+     * 脱敏规则
+     *
+     * @param keepFirst   保留的开头的字符数
+     * @param keepLast    保留的末尾的字符数
+     * @param regexp      匹配敏感信息的正则表达式
+     * @param placeholder 敏感信息替换后的占位符
+     * @param minMasked   至少需要被替换的字符数
+     * @param condition   是否需要对目标对象进行脱敏的条件
+     * @param strategy    替换敏感字符的方式
+     */
+    private record Rule(int keepFirst, int keepLast, String regexp, char placeholder, int minMasked,
+                        Class<? extends Condition<?>> condition, MaskStrategy strategy) {
+    }
+
+    /**
+     * 预设注解，预设注解中声明的属性（包括没有显式赋值时的默认值）总是优先于元注解{@link Mask}中对应的属性，
+     * 元注解只为预设注解中没有声明的属性提供值。内置的预设注解声明了所有的属性，因此它们的元注解不携带任何值。
+     *
+     * @param mask        预设注解上的{@link Mask}
+     * @param keepFirst   预设注解中的{@code keepFirst}或{@code startOffset}属性
+     * @param keepLast    预设注解中的{@code keepLast}或{@code endOffset}属性
+     * @param regexp      预设注解中的{@code regexp}属性
+     * @param placeholder 预设注解中的{@code placeholder}属性
+     * @param minMasked   预设注解中的{@code minMasked}属性
+     * @param condition   预设注解中的{@code condition}属性
+     * @param strategy    预设注解中的{@code strategy}属性
+     */
+    private record Preset(Mask mask, Method keepFirst, Method keepLast, Method regexp, Method placeholder,
+                          Method minMasked, Method condition, Method strategy) {
+
+        /**
+         * 解析预设注解
+         *
+         * @param type 预设注解的类型
+         * @return 预设注解
+         */
+        static Preset of(Class<?> type) {
+            Mask mask = type.getAnnotation(Mask.class);
+            if (mask == null) {
+                throw new IllegalArgumentException(String.format("%s is not annotated with @%s", type.getName(), Mask.class.getSimpleName()));
+            }
+            return new Preset(mask,
+                    attribute(type, int.class, "keepFirst", "startOffset"),
+                    attribute(type, int.class, "keepLast", "endOffset"),
+                    attribute(type, String.class, "regexp"),
+                    attribute(type, char.class, "placeholder"),
+                    attribute(type, int.class, "minMasked"),
+                    attribute(type, Class.class, "condition"),
+                    attribute(type, MaskStrategy.class, "strategy"));
+        }
+
+        /**
+         * 解析预设注解的脱敏规则
+         *
+         * @param annotation 预设注解
+         * @return 预设注解的脱敏规则
+         */
+        @SuppressWarnings("unchecked")
+        Rule rule(Annotation annotation) {
+            return new Rule(value(keepFirst, annotation, mask.keepFirst()),
+                    value(keepLast, annotation, mask.keepLast()),
+                    value(regexp, annotation, mask.regexp()),
+                    value(placeholder, annotation, mask.placeholder()),
+                    value(minMasked, annotation, mask.minMasked()),
+                    (Class<? extends Condition<?>>) value(condition, annotation, mask.condition()),
+                    value(strategy, annotation, mask.strategy()));
+        }
+
+        /**
+         * 查找预设注解中的属性
+         *
+         * @param type       预设注解的类型
+         * @param returnType 属性的类型
+         * @param names      属性可能的名称
+         * @return 预设注解中的属性，不存在时返回{@code null}
+         */
+        private static Method attribute(Class<?> type, Class<?> returnType, String... names) {
+            for (String name : names) {
+                try {
+                    Method method = type.getMethod(name);
+                    if (method.getReturnType() == returnType) {
+                        method.trySetAccessible();
+                        return method;
+                    }
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 读取预设注解中的属性
+         *
+         * @param method       预设注解中的属性
+         * @param annotation   预设注解
+         * @param defaultValue 预设注解中不存在该属性时使用的元注解中的值
+         * @param <V>          属性的类型
+         * @return 属性的值
+         */
+        @SuppressWarnings("unchecked")
+        private static <V> V value(Method method, Annotation annotation, V defaultValue) {
+            if (method == null) {
+                return defaultValue;
+            }
+            try {
+                return (V) method.invoke(annotation);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(String.format("Unable to read %s of %s", method.getName(), annotation), e);
+            }
+        }
+    }
+}
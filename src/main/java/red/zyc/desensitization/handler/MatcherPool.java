@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 正则表达式以及可以重复使用的{@link Matcher}。{@link Matcher}不是线程安全的，因此这里使用了一个有界的无锁池而不是
+ * {@link ThreadLocal}，这样即使在大量虚拟线程中脱敏也只会保留有限个{@link Matcher}。池中没有空闲的{@link Matcher}时会创建新的，
+ * 归还时池已满就直接丢弃。{@link Pseudonymizer}以同样的方式复用{@link javax.crypto.Mac}。
+ *
+ * @author zyc
+ */
+final class MatcherPool {
+
+    /**
+     * 池的大小，处理器数量的两倍向上取整到2的幂，最多64个
+     */
+    static final int SIZE = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1));
+
+    /**
+     * 获取或归还{@link Matcher}时最多探测的槽位数
+     */
+    static final int PROBES = Math.min(4, SIZE);
+
+    private final Pattern pattern;
+
+    private final AtomicReferenceArray<Matcher> matchers = new AtomicReferenceArray<>(SIZE);
+
+    /**
+     * @param pattern 正则表达式
+     */
+    MatcherPool(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * @return 正则表达式
+     */
+    Pattern pattern() {
+        return pattern;
+    }
+
+    /**
+     * 从池中获取一个{@link Matcher}并重置到新的输入，使用完毕后必须调用{@link #release(Matcher)}归还
+     *
+     * @param input 需要匹配的字符序列
+     * @return 匹配{@code input}的{@link Matcher}
+     */
+    Matcher acquire(CharSequence input) {
+        int start = probe();
+        for (int i = 0; i < PROBES; i++) {
+            int index = (start + i) & (SIZE - 1);
+            Matcher matcher = matchers.get(index);
+            if (matcher != null && matchers.compareAndSet(index, matcher, null)) {
+                return matcher.reset(input);
+            }
+        }
+        return pattern.matcher(input);
+    }
+
+    /**
+     * 归还{@link Matcher}，归还前会重置到空字符串以免池中的{@link Matcher}引用已经脱敏完的字符序列
+     *
+     * @param matcher 从池中获取的{@link Matcher}
+     */
+    void release(Matcher matcher) {
+        matcher.reset("");
+        int start = probe();
+        for (int i = 0; i < PROBES; i++) {
+            int index = (start + i) & (SIZE - 1);
+            if (matchers.get(index) == null && matchers.compareAndSet(index, null, matcher)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 根据当前线程分散探测的起始槽位，减少线程之间的竞争
+     */
+    static int probe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 32)) & (SIZE - 1);
+    }
+}
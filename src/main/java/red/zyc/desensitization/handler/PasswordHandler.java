@@ -18,11 +18,16 @@ package red.zyc.desensitization.handler;
 
 import red.zyc.desensitization.annotation.Password;
 
+import java.util.function.UnaryOperator;
+
 /**
  * 密码处理器
  *
  * @author zyc
+ * @deprecated {@link red.zyc.desensitization.annotation.Password}已经是{@link red.zyc.desensitization.annotation.Mask}的预设，
+ * 由{@link MaskHandler}处理，保留该类只是为了兼容直接使用它的代码
  */
+@Deprecated
 public class PasswordHandler extends AbstractCharSequenceHandler<String, Password> {
 
     @Override
@@ -30,4 +35,9 @@ public class PasswordHandler extends AbstractCharSequenceHandler<String, Passwor
         return required(target, annotation.condition()) ? String.valueOf(desensitize(target, annotation.regexp(), annotation.startOffset(), annotation.endOffset(), annotation.placeholder())) : target;
     }
 
+    @Override
+    public UnaryOperator<String> bind(Password annotation) {
+        return bind(annotation.condition(), annotation.regexp(), annotation.startOffset(), annotation.endOffset(), annotation.placeholder(), String::valueOf);
+    }
+
 }
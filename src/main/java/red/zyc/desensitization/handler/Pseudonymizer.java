@@ -0,0 +1,398 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.MaskStrategy;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link MaskStrategy#PSEUDONYMIZE}使用的保留格式的假名生成器。以HmacSHA256对整个原始值计算密钥流，
+ * 需要脱敏的每个字符根据其在原始值中的位置从密钥流中取一个字节进行替换：数字替换成数字，英文字母替换成同样大小写的英文字母，
+ * 常用汉字替换成常用汉字，其它字符保持不变。字节会通过拒绝采样均匀地映射到替换后的字符，不会偏向取值范围中靠前的字符。
+ * 因此相同的原始值在相同的密钥下总是得到相同的假名，并且长度和格式不变。
+ * <p>
+ * {@link Mac}以及缓冲区与{@link MatcherPool}一样保存在有界的无锁池中复用，即使在大量虚拟线程中生成假名也只会保留有限个，
+ * 每个值处理完毕后缓冲区中的原始值和密钥流都会被清空。还可以通过有界的缓存保存最近的原始值对应的密钥流，
+ * 缓存按照原始值的哈希值直接映射，冲突时直接覆盖，不需要加锁。使用前需要通过{@link #register(Pseudonymizer)}注册：
+ * <pre>
+ * Pseudonymizer.register(Pseudonymizer.of(key, 4096));
+ * </pre>
+ *
+ * @author zyc
+ */
+public final class Pseudonymizer {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * 每次计算得到的密钥流的字节数
+     */
+    private static final int BLOCK = 32;
+
+    /**
+     * 常用汉字的范围
+     */
+    private static final char CJK_FIRST = '一';
+
+    private static final char CJK_LAST = '龥';
+
+    private static volatile Pseudonymizer current;
+
+    private final SecretKeySpec key;
+
+    /**
+     * 空闲的{@link Session}
+     */
+    private final AtomicReferenceArray<Session> sessions = new AtomicReferenceArray<>(MatcherPool.SIZE);
+
+    /**
+     * 原始值与其第一块密钥流的缓存，为{@code null}时不缓存
+     */
+    private final Entry[] cache;
+
+    private Pseudonymizer(byte[] key, int cacheSize) {
+        this.key = new SecretKeySpec(key, ALGORITHM);
+        this.cache = cacheSize > 0 ? new Entry[Integer.highestOneBit(cacheSize * 2 - 1)] : null;
+        // 尽早暴露不支持的算法或者非法的密钥
+        release(session());
+    }
+
+    /**
+     * 创建不缓存结果的{@link Pseudonymizer}
+     *
+     * @param key 密钥
+     * @return {@link Pseudonymizer}
+     */
+    public static Pseudonymizer of(byte[] key) {
+        return of(key, 0);
+    }
+
+    /**
+     * 创建{@link Pseudonymizer}
+     *
+     * @param key       密钥
+     * @param cacheSize 缓存的原始值的数量，会被向上取整为2的幂，为0时不缓存
+     * @return {@link Pseudonymizer}
+     */
+    public static Pseudonymizer of(byte[] key, int cacheSize) {
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("Empty key");
+        }
+        if (cacheSize < 0 || cacheSize > 1 << 24) {
+            throw new IllegalArgumentException(String.format("cacheSize: %s", cacheSize));
+        }
+        return new Pseudonymizer(key.clone(), cacheSize);
+    }
+
+    /**
+     * @return 当前注册的{@link Pseudonymizer}
+     * @throws IllegalStateException 没有注册{@link Pseudonymizer}
+     */
+    public static Pseudonymizer current() {
+        Pseudonymizer pseudonymizer = current;
+        if (pseudonymizer == null) {
+            throw new IllegalStateException(String.format("No %s registered", Pseudonymizer.class.getSimpleName()));
+        }
+        return pseudonymizer;
+    }
+
+    /**
+     * 注册{@link Pseudonymizer}
+     *
+     * @param pseudonymizer {@link Pseudonymizer}，为{@code null}时取消注册
+     */
+    public static void register(Pseudonymizer pseudonymizer) {
+        current = pseudonymizer;
+    }
+
+    /**
+     * 为原始值生成假名，{@code [start, end)}之外的字符保持不变
+     *
+     * @param target 原始值
+     * @param start  需要替换的起始索引（包含）
+     * @param end    需要替换的结束索引（不包含）
+     * @return 假名
+     */
+    public String pseudonymize(CharSequence target, int start, int end) {
+        char[] chars = AbstractCharSequenceHandler.chars(target);
+        try (Session session = open(target)) {
+            for (int i = start; i < end; i++) {
+                chars[i] = session.replace(chars[i], i);
+            }
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 从池中获取一个{@link Session}并切换到原始值，使用完毕后必须调用{@link Session#close()}归还
+     *
+     * @param target 原始值
+     * @return 准备好的{@link Session}
+     */
+    Session open(CharSequence target) {
+        Session session = null;
+        int start = MatcherPool.probe();
+        for (int i = 0; i < MatcherPool.PROBES && session == null; i++) {
+            int index = (start + i) & (MatcherPool.SIZE - 1);
+            Session idle = sessions.get(index);
+            if (idle != null && sessions.compareAndSet(index, idle, null)) {
+                session = idle;
+            }
+        }
+        if (session == null) {
+            session = session();
+        }
+        session.reset(target);
+        return session;
+    }
+
+    /**
+     * 归还{@link Session}，池已满时直接丢弃
+     *
+     * @param session 已经清空的{@link Session}
+     */
+    private void release(Session session) {
+        int start = MatcherPool.probe();
+        for (int i = 0; i < MatcherPool.PROBES; i++) {
+            int index = (start + i) & (MatcherPool.SIZE - 1);
+            if (sessions.get(index) == null && sessions.compareAndSet(index, null, session)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 新的{@link Session}
+     */
+    private Session session() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new Session(mac);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * 缓存中的一项
+     *
+     * @param input 原始值
+     * @param block 原始值的第一块密钥流
+     */
+    private record Entry(String input, byte[] block) {
+    }
+
+    /**
+     * 从池中获取的{@link Mac}以及缓冲区，同一时间只属于一个线程
+     */
+    final class Session implements AutoCloseable {
+
+        private final Mac mac;
+
+        /**
+         * 原始值的UTF-16编码
+         */
+        private byte[] input = new byte[64];
+
+        private int length;
+
+        /**
+         * 已经计算的密钥流
+         */
+        private byte[] stream = new byte[BLOCK];
+
+        private int computed;
+
+        private CharSequence target;
+
+        /**
+         * 是否已经从池中取出，避免重复归还导致多个线程共享同一个{@link Session}
+         */
+        private boolean open;
+
+        private Session(Mac mac) {
+            this.mac = mac;
+        }
+
+        /**
+         * 切换到新的原始值，密钥流在需要时才会计算
+         *
+         * @param target 原始值
+         */
+        private void reset(CharSequence target) {
+            this.open = true;
+            this.target = target;
+            this.computed = 0;
+            this.length = target.length() * 2;
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            for (int i = 0; i < target.length(); i++) {
+                char c = target.charAt(i);
+                input[i * 2] = (byte) (c >>> 8);
+                input[i * 2 + 1] = (byte) c;
+            }
+        }
+
+        /**
+         * 替换原始值中的一个字符
+         *
+         * @param c     字符
+         * @param index 字符在原始值中的索引
+         * @return 替换后的字符
+         */
+        char replace(char c, int index) {
+            if (c >= '0' && c <= '9') {
+                return (char) ('0' + uniform(index, 10));
+            }
+            if (c >= 'a' && c <= 'z') {
+                return (char) ('a' + uniform(index, 26));
+            }
+            if (c >= 'A' && c <= 'Z') {
+                return (char) ('A' + uniform(index, 26));
+            }
+            if (c >= CJK_FIRST && c <= CJK_LAST) {
+                return (char) (CJK_FIRST + uniformWide(index, CJK_LAST - CJK_FIRST + 1));
+            }
+            return c;
+        }
+
+        /**
+         * 拒绝采样：依次读取密钥流中{@code index}、{@code index + n}、{@code index + 2n}...处的字节（{@code n}为原始值的长度），
+         * 直到字节小于{@code bound}的最大倍数，每个字符读取的位置互不重叠
+         *
+         * @param index 字符在原始值中的索引
+         * @param bound 取值范围
+         * @return {@code [0, bound)}之间均匀分布的值
+         */
+        private int uniform(int index, int bound) {
+            int limit = 256 - 256 % bound;
+            for (int position = index; ; position += target.length()) {
+                int value = key(position);
+                if (value < limit) {
+                    return value % bound;
+                }
+            }
+        }
+
+        /**
+         * 与{@link #uniform(int, int)}相同，但是每次读取相隔{@code n}的两个字节，用于超过了一个字节能表示的范围的汉字
+         *
+         * @param index 字符在原始值中的索引
+         * @param bound 取值范围
+         * @return {@code [0, bound)}之间均匀分布的值
+         */
+        private int uniformWide(int index, int bound) {
+            int limit = 65536 - 65536 % bound;
+            for (int position = index; ; position += target.length() * 2) {
+                int value = key(position) << 8 | key(position + target.length());
+                if (value < limit) {
+                    return value % bound;
+                }
+            }
+        }
+
+        /**
+         * 清空缓冲区中的原始值和密钥流后归还到池中
+         */
+        @Override
+        public void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            Arrays.fill(input, 0, length, (byte) 0);
+            Arrays.fill(stream, 0, computed, (byte) 0);
+            target = null;
+            length = 0;
+            computed = 0;
+            release(this);
+        }
+
+        /**
+         * @param position 密钥流中的位置
+         * @return 密钥流中该位置的无符号字节
+         */
+        private int key(int position) {
+            while (position >= computed) {
+                compute();
+            }
+            return stream[position] & 0xFF;
+        }
+
+        /**
+         * 计算下一块密钥流：第一块是原始值的HMAC，之后的每一块在原始值之前加上块的序号
+         */
+        private void compute() {
+            int index = computed / BLOCK;
+            if (stream.length < computed + BLOCK) {
+                stream = Arrays.copyOf(stream, stream.length * 2);
+            }
+            if (index == 0 && cached()) {
+                computed = BLOCK;
+                return;
+            }
+            if (index > 0) {
+                mac.update((byte) (index >>> 24));
+                mac.update((byte) (index >>> 16));
+                mac.update((byte) (index >>> 8));
+                mac.update((byte) index);
+            }
+            mac.update(input, 0, length);
+            try {
+                mac.doFinal(stream, computed);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            if (index == 0 && cache != null && target instanceof String string) {
+                cache[slot(string)] = new Entry(string, Arrays.copyOf(stream, BLOCK));
+            }
+            computed += BLOCK;
+        }
+
+        /**
+         * 从缓存中读取第一块密钥流
+         *
+         * @return 是否命中缓存
+         */
+        private boolean cached() {
+            if (cache == null || !(target instanceof String string)) {
+                return false;
+            }
+            Entry entry = cache[slot(string)];
+            if (entry == null || !entry.input().equals(string)) {
+                return false;
+            }
+            System.arraycopy(entry.block(), 0, stream, 0, BLOCK);
+            return true;
+        }
+
+        private int slot(String string) {
+            int hash = string.hashCode();
+            return (hash ^ (hash >>> 16)) & (cache.length - 1);
+        }
+    }
+}
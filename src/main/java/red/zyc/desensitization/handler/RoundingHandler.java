@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.handler;
+
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.Rounding;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 数字舍入处理器
+ *
+ * @author zyc
+ */
+public class RoundingHandler extends AbstractNumberHandler<Rounding> {
+
+    @Override
+    protected Class<? extends Condition<?>> condition(Rounding annotation) {
+        return annotation.condition();
+    }
+
+    @Override
+    protected long desensitize(long target, Rounding annotation) {
+        if (annotation.scale() >= 0) {
+            return target;
+        }
+        if (annotation.scale() < -18) {
+            // 单位超出了long的范围，按BigDecimal舍入后再饱和到long的范围
+            return saturatedLong(desensitize(BigDecimal.valueOf(target), annotation));
+        }
+        long unit = pow10(-annotation.scale());
+        long quotient = target / unit;
+        long remainder = Math.abs(target % unit);
+        if (remainder == 0) {
+            return target;
+        }
+        // 比较remainder与unit - remainder而不是remainder * 2与unit，避免溢出
+        long rest = unit - remainder;
+        boolean increment = switch (annotation.mode()) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> target > 0;
+            case FLOOR -> target < 0;
+            case HALF_UP -> remainder >= rest;
+            case HALF_DOWN -> remainder > rest;
+            case HALF_EVEN -> remainder > rest || remainder == rest && (quotient & 1) != 0;
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return saturatedMultiply(increment ? quotient + Long.signum(target) : quotient, unit);
+    }
+
+    @Override
+    protected double desensitize(double target, Rounding annotation) {
+        if (Double.isNaN(target) || Double.isInfinite(target)) {
+            return target;
+        }
+        double unit = Math.pow(10, annotation.scale());
+        double scaled = target * unit;
+        double rounded = switch (annotation.mode()) {
+            case UP -> scaled > 0 ? Math.ceil(scaled) : Math.floor(scaled);
+            case DOWN -> scaled > 0 ? Math.floor(scaled) : Math.ceil(scaled);
+            case CEILING -> Math.ceil(scaled);
+            case FLOOR -> Math.floor(scaled);
+            case HALF_UP -> Math.copySign(Math.floor(Math.abs(scaled) + 0.5), scaled);
+            case HALF_DOWN -> Math.copySign(Math.ceil(Math.abs(scaled) - 0.5), scaled);
+            case HALF_EVEN -> Math.rint(scaled);
+            case UNNECESSARY -> {
+                if (scaled != Math.rint(scaled)) {
+                    throw new ArithmeticException("Rounding necessary");
+                }
+                yield scaled;
+            }
+        };
+        return rounded / unit;
+    }
+
+    @Override
+    protected BigDecimal desensitize(BigDecimal target, Rounding annotation) {
+        BigDecimal rounded = target.setScale(annotation.scale(), annotation.mode());
+        // 避免舍入到小数点左边后以科学计数法表示
+        return annotation.scale() < 0 ? rounded.setScale(0) : rounded;
+    }
+}
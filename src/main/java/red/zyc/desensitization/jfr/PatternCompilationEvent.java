@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 编译正则表达式的JFR事件，默认关闭，需要在JFR配置中开启{@value #NAME}事件。
+ *
+ * @author zyc
+ */
+@Name(PatternCompilationEvent.NAME)
+@Label("Pattern Compilation")
+@Category("Desensitization")
+@Description("Compilation of a desensitization regular expression")
+@Enabled(false)
+@StackTrace(false)
+public class PatternCompilationEvent extends Event {
+
+    /**
+     * 事件名称
+     */
+    public static final String NAME = "red.zyc.desensitization.PatternCompilation";
+
+    /**
+     * 正则表达式
+     */
+    @Label("Regular Expression")
+    public String regexp;
+
+    /**
+     * 触发编译的处理器
+     */
+    @Label("Handler")
+    public Class<?> handlerType;
+
+}
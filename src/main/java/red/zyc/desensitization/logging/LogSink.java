@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.logging;
+
+import java.util.List;
+
+/**
+ * 接收脱敏后的事件的下游
+ *
+ * @param <E> 事件的类型
+ * @author zyc
+ */
+@FunctionalInterface
+public interface LogSink<E> {
+
+    /**
+     * 接收一批已经脱敏的事件。多个消费者线程以及{@link OverflowPolicy#MASK_INLINE}下的生产者线程可能会并发调用该方法，
+     * 因此实现必须是线程安全的。批次在方法返回后会被复用，实现不能持有它的引用。
+     *
+     * @param batch 已经脱敏的事件
+     */
+    void accept(List<E> batch);
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.logging;
+
+import red.zyc.desensitization.plan.TextMasker;
+
+import java.io.Serial;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * 将{@link MaskingPipeline}适配为{@link Handler}：生产者线程格式化消息参数后将日志记录的副本写入环形缓冲区，
+ * 之后对参数的修改不会影响输出；消费者线程脱敏消息以及异常的描述中的敏感信息后，交给被包装的{@link Handler}输出，例如：
+ * <pre>
+ * logger.addHandler(new MaskingHandler(new ConsoleHandler()));
+ * </pre>
+ *
+ * @author zyc
+ */
+public final class MaskingHandler extends Handler {
+
+    /**
+     * 只用来格式化消息参数
+     */
+    private static final Formatter FORMATTER = new SimpleFormatter();
+
+    private final Handler delegate;
+
+    private final MaskingPipeline<LogRecord> pipeline;
+
+    /**
+     * 使用{@link MaskingPipeline.Builder}的默认配置
+     *
+     * @param delegate 输出脱敏后的日志记录的{@link Handler}
+     */
+    public MaskingHandler(Handler delegate) {
+        this(delegate, 8192, 1, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param delegate  输出脱敏后的日志记录的{@link Handler}
+     * @param capacity  环形缓冲区的容量
+     * @param consumers 消费者线程的数量
+     * @param overflow  缓冲区已满时的策略
+     */
+    public MaskingHandler(Handler delegate, int capacity, int consumers, OverflowPolicy overflow) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.pipeline = MaskingPipeline.<LogRecord>builder(MaskingHandler::mask, batch -> batch.forEach(delegate::publish))
+                .capacity(capacity)
+                .consumers(consumers)
+                .overflow(overflow)
+                .onError(e -> reportError(null, e instanceof Exception exception ? exception : new RuntimeException(e), ErrorManager.WRITE_FAILURE))
+                .build();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        try {
+            pipeline.publish(snapshot(record));
+        } catch (IllegalStateException e) {
+            reportError(null, e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * 等待之前发布的日志记录全部输出到被包装的{@link Handler}后再刷新被包装的{@link Handler}
+     */
+    @Override
+    public void flush() {
+        try {
+            pipeline.flush();
+        } catch (IllegalStateException e) {
+            reportError(null, e, ErrorManager.FLUSH_FAILURE);
+        }
+        delegate.flush();
+    }
+
+    /**
+     * 等待缓冲区中剩余的日志记录输出完成后关闭被包装的{@link Handler}
+     */
+    @Override
+    public void close() {
+        pipeline.close();
+        delegate.close();
+    }
+
+    /**
+     * @return 由于缓冲区已满而被丢弃的日志记录数量
+     */
+    public long dropped() {
+        return pipeline.dropped();
+    }
+
+    /**
+     * 在生产者线程中格式化日志记录的消息参数。参数可能是可变的对象，调用者的类名和方法名是根据当前线程的栈推断的，
+     * 两者都必须在进入缓冲区之前确定
+     *
+     * @param record 原始的日志记录
+     * @return 消息已经格式化并且不再包含参数的日志记录的副本
+     */
+    private static LogRecord snapshot(LogRecord record) {
+        var copy = new LogRecord(record.getLevel(), FORMATTER.formatMessage(record));
+        copy.setLoggerName(record.getLoggerName());
+        copy.setInstant(record.getInstant());
+        copy.setSequenceNumber(record.getSequenceNumber());
+        copy.setSourceClassName(record.getSourceClassName());
+        copy.setSourceMethodName(record.getSourceMethodName());
+        copy.setLongThreadID(record.getLongThreadID());
+        copy.setThrown(record.getThrown());
+        return copy;
+    }
+
+    /**
+     * 脱敏日志记录的消息以及异常的描述，日志记录只属于当前消费者线程，可以原地修改
+     *
+     * @param record {@link #snapshot(LogRecord)}产生的日志记录
+     * @return 脱敏后的日志记录
+     */
+    private static LogRecord mask(LogRecord record) {
+        if (record.getMessage() != null) {
+            record.setMessage(TextMasker.mask(record.getMessage()));
+        }
+        if (record.getThrown() != null) {
+            record.setThrown(mask(record.getThrown(), new IdentityHashMap<>()));
+        }
+        return record;
+    }
+
+    /**
+     * 用描述已经被脱敏的{@link MaskedThrowable}替换异常及其原因和被抑制的异常，异常的类型被保留在描述中，
+     * 调用栈保持不变
+     *
+     * @param thrown 原始的异常
+     * @param masked 已经替换过的异常，用来处理原因之间的循环引用
+     * @return 脱敏后的异常
+     */
+    private static Throwable mask(Throwable thrown, Map<Throwable, Throwable> masked) {
+        Throwable existing = masked.get(thrown);
+        if (existing != null) {
+            return existing;
+        }
+        String message = thrown.getLocalizedMessage();
+        var replacement = new MaskedThrowable(TextMasker.mask(thrown.toString()), message == null ? null : TextMasker.mask(message));
+        masked.put(thrown, replacement);
+        replacement.setStackTrace(thrown.getStackTrace());
+        Throwable cause = thrown.getCause();
+        if (cause != null) {
+            replacement.initCause(mask(cause, masked));
+        }
+        for (Throwable suppressed : thrown.getSuppressed()) {
+            replacement.addSuppressed(mask(suppressed, masked));
+        }
+        return replacement;
+    }
+
+    /**
+     * 描述已经被脱敏的异常，{@link #toString()}返回原始异常脱敏后的{@link Throwable#toString()}
+     */
+    private static final class MaskedThrowable extends Throwable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final String description;
+
+        private MaskedThrowable(String description, String message) {
+            super(message);
+            this.description = description;
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
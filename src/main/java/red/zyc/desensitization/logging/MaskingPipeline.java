@@ -0,0 +1,422 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.logging;
+
+import red.zyc.desensitization.plan.TextMasker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * 面向高吞吐日志的异步脱敏管道。生产者把原始事件写入有界的多生产者环形缓冲区后立即返回，
+ * 少量的消费者线程批量取出事件、脱敏后交给下游的{@link LogSink}，例如：
+ * <pre>
+ * try (var pipeline = MaskingPipeline.builder(batch -> batch.forEach(System.out::println))
+ *         .consumers(2)
+ *         .overflow(OverflowPolicy.DROP)
+ *         .build()) {
+ *     pipeline.publish("手机号：19962000001");
+ * }
+ * </pre>
+ * 缓冲区为空时消费者线程会一直阻塞，直到生产者发现有消费者在等待时将其唤醒，空闲的管道不会占用CPU。
+ * 关闭管道时会等待缓冲区中剩余的事件全部投递完成，与{@link #close()}并发发布的事件不保证被投递。
+ *
+ * @param <E> 事件的类型
+ * @author zyc
+ * @see MaskingHandler
+ */
+public final class MaskingPipeline<E> implements AutoCloseable {
+
+    /**
+     * 缓冲区已满时被阻塞的生产者每次等待的时间
+     */
+    private static final long IDLE_NANOS = 100_000;
+
+    private final RingBuffer<E> buffer;
+
+    private final UnaryOperator<E> masker;
+
+    private final LogSink<E> sink;
+
+    private final OverflowPolicy overflow;
+
+    private final int batchSize;
+
+    private final Consumer<? super Throwable> onError;
+
+    private final List<Thread> consumers;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 因为缓冲区为空而阻塞的消费者的数量
+     */
+    private final AtomicInteger sleeping = new AtomicInteger();
+
+    /**
+     * 仍在运行的消费者的数量
+     */
+    private final AtomicInteger running;
+
+    /**
+     * 每个消费者的进度，取出并投递一批事件期间为奇数，其它时候为偶数，用于{@link #flush()}等待正在投递的事件
+     */
+    private final AtomicLongArray progress;
+
+    private volatile boolean closed;
+
+    /**
+     * 所有消费者线程都意外退出时最后一个消费者线程抛出的异常
+     */
+    private volatile Throwable failure;
+
+    private MaskingPipeline(Builder<E> builder) {
+        this.buffer = new RingBuffer<>(builder.capacity);
+        this.masker = builder.masker;
+        this.sink = builder.sink;
+        this.overflow = builder.overflow;
+        this.batchSize = builder.batchSize;
+        this.onError = builder.onError;
+        this.running = new AtomicInteger(builder.consumers);
+        this.progress = new AtomicLongArray(builder.consumers);
+        List<Thread> threads = new ArrayList<>(builder.consumers);
+        for (int i = 0; i < builder.consumers; i++) {
+            int index = i;
+            Thread thread = builder.threadFactory.newThread(() -> consume(index));
+            threads.add(thread);
+            thread.start();
+        }
+        this.consumers = List.copyOf(threads);
+    }
+
+    /**
+     * 创建脱敏文本事件的管道的构建器，文本中的邮箱、身份证号、银行卡号以及手机号会使用内置注解的规则脱敏
+     *
+     * @param sink 下游
+     * @return {@link Builder}
+     */
+    public static Builder<String> builder(LogSink<String> sink) {
+        return new Builder<>(TextMasker::mask, sink);
+    }
+
+    /**
+     * 创建管道的构建器
+     *
+     * @param masker 脱敏事件的函数，会在消费者线程中执行
+     * @param sink   下游
+     * @param <E>    事件的类型
+     * @return {@link Builder}
+     */
+    public static <E> Builder<E> builder(UnaryOperator<E> masker, LogSink<E> sink) {
+        return new Builder<>(masker, sink);
+    }
+
+    /**
+     * 发布事件，缓冲区已满时根据{@link OverflowPolicy}处理
+     *
+     * @param event 事件
+     * @return 事件被丢弃时返回{@code false}
+     * @throws IllegalStateException 管道已经关闭，或者所有消费者线程都已经意外退出
+     */
+    public boolean publish(E event) {
+        Objects.requireNonNull(event, "event");
+        ensureOpen();
+        if (buffer.offer(event)) {
+            signal();
+            return true;
+        }
+        switch (overflow) {
+            case BLOCK -> {
+                while (!buffer.offer(event)) {
+                    ensureOpen();
+                    LockSupport.parkNanos(IDLE_NANOS);
+                }
+                signal();
+                return true;
+            }
+            case DROP -> {
+                dropped.increment();
+                return false;
+            }
+            case MASK_INLINE -> {
+                deliver(new ArrayList<>(List.of(event)));
+                return true;
+            }
+            default -> throw new IllegalStateException(overflow.name());
+        }
+    }
+
+    /**
+     * 等待调用之前已经发布的事件全部投递到下游，调用期间发布的事件不保证被等待
+     *
+     * @throws IllegalStateException 所有消费者线程都已经意外退出
+     */
+    public void flush() {
+        long claimed = buffer.claimed();
+        while (buffer.consumed() - claimed < 0) {
+            ensureAlive();
+            LockSupport.parkNanos(IDLE_NANOS);
+        }
+        // 之前发布的事件都已经被取出，只需要等待取出这些事件的消费者完成当前这一批的投递
+        for (int i = 0; i < progress.length(); i++) {
+            long current = progress.get(i);
+            while ((current & 1) != 0 && progress.get(i) == current) {
+                ensureAlive();
+                LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return 由于缓冲区已满而被丢弃的事件数量
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 缓冲区的容量
+     */
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 停止接收新的事件，等待缓冲区中剩余的事件投递完成
+     */
+    @Override
+    public void close() {
+        closed = true;
+        boolean interrupted = false;
+        for (Thread consumer : consumers) {
+            LockSupport.unpark(consumer);
+            while (consumer.isAlive()) {
+                try {
+                    consumer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Pipeline closed");
+        }
+        ensureAlive();
+    }
+
+    private void ensureAlive() {
+        if (failure != null) {
+            throw new IllegalStateException("All consumers terminated", failure);
+        }
+    }
+
+    /**
+     * 有消费者因为缓冲区为空而阻塞时唤醒所有消费者，消费者都在工作时只有一次volatile读
+     */
+    private void signal() {
+        if (sleeping.get() > 0) {
+            consumers.forEach(LockSupport::unpark);
+        }
+    }
+
+    /**
+     * 消费者线程的主循环，缓冲区为空并且管道已经关闭时退出。缓冲区为空时先登记为等待中的消费者，
+     * 再次确认缓冲区为空后才阻塞，与生产者写入后检查等待中的消费者的顺序相对，因此不会错过唤醒。
+     *
+     * @param index 消费者的序号
+     */
+    private void consume(int index) {
+        Throwable thrown = null;
+        try {
+            List<E> batch = new ArrayList<>(batchSize);
+            while (true) {
+                progress.incrementAndGet(index);
+                int drained = buffer.drain(batch, batchSize);
+                if (drained > 0) {
+                    deliver(batch);
+                    batch.clear();
+                }
+                progress.incrementAndGet(index);
+                if (drained > 0) {
+                    continue;
+                }
+                if (closed) {
+                    return;
+                }
+                sleeping.incrementAndGet();
+                if (buffer.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                sleeping.decrementAndGet();
+            }
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            // 意外退出时正在投递的事件已经丢失，不能让flush一直等待
+            if ((progress.get(index) & 1) != 0) {
+                progress.incrementAndGet(index);
+            }
+            if (running.decrementAndGet() == 0 && !closed) {
+                failure = thrown != null ? thrown : new IllegalStateException("Consumer terminated");
+            }
+        }
+    }
+
+    /**
+     * 脱敏一批事件并交给下游，脱敏或者投递时抛出的任何异常都会交给{@code onError}，不会中断消费者线程
+     *
+     * @param batch 一批原始事件，会被原地替换为脱敏后的事件
+     */
+    private void deliver(List<E> batch) {
+        try {
+            batch.replaceAll(masker);
+            sink.accept(batch);
+        } catch (Throwable e) {
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * {@link MaskingPipeline}的构建器
+     *
+     * @param <E> 事件的类型
+     */
+    public static final class Builder<E> {
+
+        private final UnaryOperator<E> masker;
+
+        private final LogSink<E> sink;
+
+        private int capacity = 8192;
+
+        private int consumers = 1;
+
+        private int batchSize = 256;
+
+        private OverflowPolicy overflow = OverflowPolicy.BLOCK;
+
+        private ThreadFactory threadFactory = new DaemonThreadFactory();
+
+        private Consumer<? super Throwable> onError = e -> {
+        };
+
+        private Builder(UnaryOperator<E> masker, LogSink<E> sink) {
+            this.masker = Objects.requireNonNull(masker, "masker");
+            this.sink = Objects.requireNonNull(sink, "sink");
+        }
+
+        /**
+         * @param capacity 环形缓冲区的容量，会被向上取整为2的幂，默认为8192
+         * @return 当前构建器
+         */
+        public Builder<E> capacity(int capacity) {
+            this.capacity = positive("capacity", capacity);
+            return this;
+        }
+
+        /**
+         * @param consumers 消费者线程的数量，默认为1
+         * @return 当前构建器
+         */
+        public Builder<E> consumers(int consumers) {
+            this.consumers = positive("consumers", consumers);
+            return this;
+        }
+
+        /**
+         * @param batchSize 消费者每次最多取出的事件数量，默认为256
+         * @return 当前构建器
+         */
+        public Builder<E> batchSize(int batchSize) {
+            this.batchSize = positive("batchSize", batchSize);
+            return this;
+        }
+
+        /**
+         * @param overflow 缓冲区已满时的策略，默认为{@link OverflowPolicy#BLOCK}
+         * @return 当前构建器
+         */
+        public Builder<E> overflow(OverflowPolicy overflow) {
+            this.overflow = Objects.requireNonNull(overflow, "overflow");
+            return this;
+        }
+
+        /**
+         * @param threadFactory 创建消费者线程的{@link ThreadFactory}，默认创建守护线程
+         * @return 当前构建器
+         */
+        public Builder<E> threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory");
+            return this;
+        }
+
+        /**
+         * @param onError 脱敏或者投递事件时抛出异常的回调，默认忽略异常。回调本身抛出的异常会终止消费者线程，
+         *                所有消费者线程都终止后{@link #publish(Object)}会抛出{@link IllegalStateException}
+         * @return 当前构建器
+         */
+        public Builder<E> onError(Consumer<? super Throwable> onError) {
+            this.onError = Objects.requireNonNull(onError, "onError");
+            return this;
+        }
+
+        /**
+         * @return 启动了消费者线程的{@link MaskingPipeline}
+         */
+        public MaskingPipeline<E> build() {
+            return new MaskingPipeline<>(this);
+        }
+
+        private static int positive(String name, int value) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(String.format("%s: %s", name, value));
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 创建名为{@code desensitization-logging-N}的守护线程
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger COUNTER = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "desensitization-logging-" + COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
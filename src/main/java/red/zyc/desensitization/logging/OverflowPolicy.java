@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.logging;
+
+/**
+ * 环形缓冲区已满时发布事件的策略
+ *
+ * @author zyc
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 阻塞生产者直到缓冲区中有空闲的位置
+     */
+    BLOCK,
+
+    /**
+     * 丢弃事件，被丢弃的事件数量可以通过{@link MaskingPipeline#dropped()}获取
+     */
+    DROP,
+
+    /**
+     * 由生产者线程直接脱敏事件并交给下游，不保证与缓冲区中的事件之间的顺序
+     */
+    MASK_INLINE
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.logging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界的多生产者多消费者环形缓冲区。每个槽位都有一个序号，生产者和消费者通过CAS分别竞争写入和读取的位置，
+ * 再根据槽位的序号判断槽位是否可写或者可读，整个过程不需要加锁。
+ *
+ * @param <E> 元素的类型
+ * @author zyc
+ */
+final class RingBuffer<E> {
+
+    private final Object[] elements;
+
+    /**
+     * 每个槽位的序号，等于写入位置时可写，等于写入位置加一时可读
+     */
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    /**
+     * 下一个写入的位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取的位置
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity 容量，会被向上取整为2的幂
+     */
+    RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(String.format("capacity: %s", capacity));
+        }
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一个元素
+     *
+     * @param element 元素
+     * @return 缓冲区已满时返回{@code false}
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * 读取一个元素
+     *
+     * @return 缓冲区为空时返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    sequences.setRelease(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * 批量读取元素
+     *
+     * @param batch 保存读取到的元素
+     * @param max   最多读取的元素数量
+     * @return 读取到的元素数量
+     */
+    int drain(List<E> batch, int max) {
+        int count = 0;
+        E element;
+        while (count < max && (element = poll()) != null) {
+            batch.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 判断缓冲区是否为空。写入位置已经被生产者占用但元素尚未写入时也视为非空，
+     * 写入位置的CAS与调用者随后的volatile读写共同保证了不会错过生产者的唤醒。
+     *
+     * @return 缓冲区是否为空
+     */
+    boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * @return 已经被生产者占用的写入位置的数量，即曾经写入以及正在写入的元素数量
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return 已经被消费者取走的元素数量
+     */
+    long consumed() {
+        return head.get();
+    }
+
+    /**
+     * @return 缓冲区的容量
+     */
+    int capacity() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 基于JMX的指标收集器，通过{@link #install()}注册到平台MBeanServer后，
+ * 可以在{@value #OBJECT_NAME}下查看脱敏的调用次数、耗时分布、正则缓存命中率等指标。
+ *
+ * @author zyc
+ */
+public class JmxMetrics implements Metrics, JmxMetricsMXBean {
+
+    /**
+     * MBean的名称
+     */
+    public static final String OBJECT_NAME = "red.zyc.desensitization:type=Metrics";
+
+    private final LatencyHistogram desensitizeLatency = new LatencyHistogram();
+
+    private final ConcurrentMap<Class<?>, HandlerStatistics> handlerStatistics = new ConcurrentHashMap<>();
+
+    private final LongAdder regexp = new LongAdder();
+
+    private final LongAdder offset = new LongAdder();
+
+    private final LongAdder processedChars = new LongAdder();
+
+    private final LongAdder maskedChars = new LongAdder();
+
+    private final LongAdder patternCacheHits = new LongAdder();
+
+    private final LongAdder patternCacheMisses = new LongAdder();
+
+    /**
+     * 创建一个{@link JmxMetrics}，将其注册到平台MBeanServer并设置为当前使用的指标收集器
+     *
+     * @return 注册后的{@link JmxMetrics}
+     */
+    public static JmxMetrics install() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            var metrics = new JmxMetrics();
+            server.registerMBean(metrics, name);
+            Metrics.register(metrics);
+            return metrics;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 从平台MBeanServer中注销{@link JmxMetrics}并恢复成{@link NoopMetrics}
+     */
+    public static void uninstall() {
+        try {
+            var server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            Metrics.register(NoopMetrics.INSTANCE);
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void desensitized(Class<?> targetType, long nanos) {
+        desensitizeLatency.record(nanos);
+    }
+
+    @Override
+    public void handled(Class<?> handlerType, boolean regexp, int chars, int masked, long nanos) {
+        var statistics = handlerStatistics.computeIfAbsent(handlerType, t -> new HandlerStatistics());
+        statistics.count.increment();
+        statistics.latency.record(nanos);
+        (regexp ? this.regexp : offset).increment();
+        processedChars.add(chars);
+        maskedChars.add(masked);
+    }
+
+    @Override
+    public void patternCache(boolean hit) {
+        (hit ? patternCacheHits : patternCacheMisses).increment();
+    }
+
+    @Override
+    public long getDesensitizeCount() {
+        long count = 0;
+        for (long bucket : desensitizeLatency.snapshot()) {
+            count += bucket;
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getDesensitizeLatencyPercentiles() {
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", desensitizeLatency.percentile(0.5));
+        percentiles.put("p90", desensitizeLatency.percentile(0.9));
+        percentiles.put("p99", desensitizeLatency.percentile(0.99));
+        percentiles.put("p999", desensitizeLatency.percentile(0.999));
+        return percentiles;
+    }
+
+    @Override
+    public Map<String, Long> getDesensitizeLatencyHistogram() {
+        return desensitizeLatency.buckets();
+    }
+
+    @Override
+    public Map<String, Long> getHandledCounts() {
+        return collect(statistics -> statistics.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getHandledLatencyP99() {
+        return collect(statistics -> statistics.latency.percentile(0.99));
+    }
+
+    @Override
+    public long getRegexpCount() {
+        return regexp.sum();
+    }
+
+    @Override
+    public long getOffsetCount() {
+        return offset.sum();
+    }
+
+    @Override
+    public long getProcessedChars() {
+        return processedChars.sum();
+    }
+
+    @Override
+    public long getMaskedChars() {
+        return maskedChars.sum();
+    }
+
+    @Override
+    public double getPatternCacheHitRate() {
+        long hits = patternCacheHits.sum();
+        long total = hits + patternCacheMisses.sum();
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+
+    @Override
+    public void reset() {
+        desensitizeLatency.reset();
+        handlerStatistics.clear();
+        regexp.reset();
+        offset.reset();
+        processedChars.reset();
+        maskedChars.reset();
+        patternCacheHits.reset();
+        patternCacheMisses.reset();
+    }
+
+    private Map<String, Long> collect(Function<HandlerStatistics, Long> mapper) {
+        Map<String, Long> result = new TreeMap<>();
+        handlerStatistics.forEach((type, statistics) -> result.put(type.getName(), mapper.apply(statistics)));
+        return result;
+    }
+
+    /**
+     * 单个处理器的统计信息
+     */
+    private static final class HandlerStatistics {
+
+        final LongAdder count = new LongAdder();
+
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
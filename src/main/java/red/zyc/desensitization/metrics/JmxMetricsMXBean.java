@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+import java.util.Map;
+
+/**
+ * {@link JmxMetrics}暴露的管理接口，所有耗时单位都是纳秒
+ *
+ * @author zyc
+ */
+public interface JmxMetricsMXBean {
+
+    /**
+     * @return {@code Sensitive#desensitize}的调用次数
+     */
+    long getDesensitizeCount();
+
+    /**
+     * @return {@code Sensitive#desensitize}耗时的p50、p90、p99、p999
+     */
+    Map<String, Long> getDesensitizeLatencyPercentiles();
+
+    /**
+     * @return {@code Sensitive#desensitize}耗时直方图
+     */
+    Map<String, Long> getDesensitizeLatencyHistogram();
+
+    /**
+     * @return 每种处理器脱敏的值的数量
+     */
+    Map<String, Long> getHandledCounts();
+
+    /**
+     * @return 每种处理器脱敏耗时的p99
+     */
+    Map<String, Long> getHandledLatencyP99();
+
+    /**
+     * @return 基于正则表达式脱敏的次数
+     */
+    long getRegexpCount();
+
+    /**
+     * @return 基于位置偏移脱敏的次数
+     */
+    long getOffsetCount();
+
+    /**
+     * @return 处理的字符总数
+     */
+    long getProcessedChars();
+
+    /**
+     * @return 被占位符替换的字符总数
+     */
+    long getMaskedChars();
+
+    /**
+     * @return 正则表达式缓存命中率，没有访问过缓存时返回{@code NaN}
+     */
+    double getPatternCacheHitRate();
+
+    /**
+     * 清空所有指标
+     */
+    void reset();
+}
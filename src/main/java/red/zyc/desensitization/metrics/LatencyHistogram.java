@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * 以2的幂次划分桶的延迟直方图，第i个桶记录耗时在[2<sup>i-1</sup>, 2<sup>i</sup>)纳秒之间的次数。
+ * 记录时只有一次{@link LongAdder#increment()}，适合在热点路径上使用。
+ *
+ * @author zyc
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = Long.SIZE;
+
+    private final LongAdder[] buckets = IntStream.range(0, BUCKETS).mapToObj(i -> new LongAdder()).toArray(LongAdder[]::new);
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        buckets[Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0))].increment();
+    }
+
+    /**
+     * @return 每个桶的计数快照
+     */
+    public long[] snapshot() {
+        return IntStream.range(0, BUCKETS).mapToLong(i -> buckets[i].sum()).toArray();
+    }
+
+    /**
+     * 估算百分位数，返回值为百分位数所在桶的上界
+     *
+     * @param percentile 百分位，取值范围(0, 1]
+     * @return 百分位数对应的耗时（纳秒）
+     */
+    public long percentile(double percentile) {
+        long[] counts = snapshot();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        long threshold = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if ((seen += counts[i]) >= threshold && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return 以桶上界（纳秒）为键的非空桶计数
+     */
+    public Map<String, Long> buckets() {
+        long[] counts = snapshot();
+        Map<String, Long> result = new LinkedHashMap<>();
+        IntStream.range(0, counts.length).filter(i -> counts[i] > 0).forEach(i -> result.put("<=" + upperBound(i), counts[i]));
+        return result;
+    }
+
+    /**
+     * 清空所有桶
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    private static long upperBound(int bucket) {
+        return (1L << bucket) - 1;
+    }
+}
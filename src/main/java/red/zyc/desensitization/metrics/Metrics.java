@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+import java.util.ServiceLoader;
+
+/**
+ * 脱敏指标收集SPI。默认使用{@link NoopMetrics}，可以通过{@link #register(Metrics)}手动注册，
+ * 或者通过{@link ServiceLoader}机制提供一个实现，此时会在首次使用时自动加载第一个实现。
+ *
+ * @author zyc
+ * @see NoopMetrics
+ * @see JmxMetrics
+ */
+public interface Metrics {
+
+    /**
+     * 未启用时调用方会跳过计时等所有统计工作，因此默认实现的开销几乎为零
+     *
+     * @return 是否启用指标收集
+     */
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * 记录一次{@code Sensitive#desensitize}调用
+     *
+     * @param targetType 目标对象的类型
+     * @param nanos      调用耗时（纳秒）
+     */
+    void desensitized(Class<?> targetType, long nanos);
+
+    /**
+     * 记录一次字符序列处理器的脱敏
+     *
+     * @param handlerType 处理器的类型
+     * @param regexp      是否是基于正则表达式脱敏，{@code false}代表基于位置偏移脱敏
+     * @param chars       处理的字符数
+     * @param masked      被占位符替换的字符数
+     * @param nanos       脱敏耗时（纳秒）
+     */
+    void handled(Class<?> handlerType, boolean regexp, int chars, int masked, long nanos);
+
+    /**
+     * 记录一次正则表达式缓存的访问
+     *
+     * @param hit 是否命中缓存
+     */
+    void patternCache(boolean hit);
+
+    /**
+     * @return 当前使用的指标收集器
+     */
+    static Metrics current() {
+        return MetricsHolder.metrics;
+    }
+
+    /**
+     * 注册指标收集器
+     *
+     * @param metrics 指标收集器，为{@code null}时恢复成{@link NoopMetrics}
+     */
+    static void register(Metrics metrics) {
+        MetricsHolder.metrics = metrics == null ? NoopMetrics.INSTANCE : metrics;
+    }
+
+}
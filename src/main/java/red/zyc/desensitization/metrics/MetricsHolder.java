@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+import java.util.ServiceLoader;
+
+/**
+ * 持有当前使用的{@link Metrics}
+ *
+ * @author zyc
+ */
+final class MetricsHolder {
+
+    static volatile Metrics metrics = ServiceLoader.load(Metrics.class).findFirst().orElse(NoopMetrics.INSTANCE);
+
+    private MetricsHolder() {
+    }
+}
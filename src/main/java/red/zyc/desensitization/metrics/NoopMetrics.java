@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.metrics;
+
+/**
+ * 不做任何事情的指标收集器
+ *
+ * @author zyc
+ */
+public enum NoopMetrics implements Metrics {
+
+    INSTANCE;
+
+    @Override
+    public boolean enabled() {
+        return false;
+    }
+
+    @Override
+    public void desensitized(Class<?> targetType, long nanos) {
+    }
+
+    @Override
+    public void handled(Class<?> handlerType, boolean regexp, int chars, int masked, long nanos) {
+    }
+
+    @Override
+    public void patternCache(boolean hit) {
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.budget.Budget;
+import red.zyc.desensitization.budget.BudgetExceededException;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 记录单次脱敏对{@link Budget}的使用情况，只会在发起脱敏的线程中使用
+ *
+ * @author zyc
+ */
+final class BudgetTracker {
+
+    /**
+     * 正则表达式每读取这么多字符检查一次是否超时
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final Budget budget;
+
+    /**
+     * 截止时间，没有限制耗时时为{@link Long#MAX_VALUE}
+     */
+    private final long deadline;
+
+    private int depth;
+
+    private long elements;
+
+    private long regexChars;
+
+    /**
+     * 是否已经超出需要脱敏的值的数量或者耗时，并且策略是{@link Budget.Policy#MASK}
+     */
+    private boolean exhausted;
+
+    /**
+     * 是否已经超出正则表达式读取的字符数，并且策略是{@link Budget.Policy#MASK}
+     */
+    private boolean regexExhausted;
+
+    BudgetTracker(Budget budget) {
+        this.budget = budget;
+        long timeout = budget.timeout().max();
+        this.deadline = timeout == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeout;
+    }
+
+    /**
+     * 访问一个需要脱敏的值，只有由处理器脱敏的值才会计入{@link Budget#elements()}，容器和级联的对象本身不会被计入
+     *
+     * @return 是否可以继续正常脱敏，{@code false}代表这个值需要被完全脱敏
+     */
+    boolean visit() {
+        if (!alive()) {
+            return false;
+        }
+        if (++elements > budget.elements().max()) {
+            return exceed(Budget.Kind.ELEMENTS, budget.elements());
+        }
+        return true;
+    }
+
+    /**
+     * 检查是否已经超出需要脱敏的值的数量或者截止时间
+     *
+     * @return 是否可以继续正常脱敏，{@code false}代表剩余的值都需要被完全脱敏
+     */
+    boolean alive() {
+        if (exhausted) {
+            return false;
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            return exceed(Budget.Kind.DEADLINE, budget.timeout());
+        }
+        return true;
+    }
+
+    /**
+     * 进入下一层嵌套，返回{@code true}时必须调用{@link #exit()}
+     *
+     * @return 是否可以继续正常脱敏，{@code false}代表这一层需要被完全脱敏
+     */
+    boolean enter() {
+        if (depth + 1 > budget.depth().max()) {
+            if (budget.depth().policy() == Budget.Policy.FAIL) {
+                throw new BudgetExceededException(Budget.Kind.DEPTH, budget.depth().max());
+            }
+            return false;
+        }
+        depth++;
+        return true;
+    }
+
+    /**
+     * 退出当前嵌套
+     */
+    void exit() {
+        depth--;
+    }
+
+    /**
+     * @return 正则表达式读取的字符数是否已经超出预算
+     */
+    boolean regexExhausted() {
+        return regexExhausted;
+    }
+
+    /**
+     * 将目标字符序列包装成读取字符时会检查预算的字符序列，交由{@link java.util.regex.Matcher}扫描
+     *
+     * @param target 目标字符序列
+     * @return 读取字符时会检查预算的字符序列
+     */
+    CharSequence scan(CharSequence target) {
+        return new Scanned(target);
+    }
+
+    /**
+     * 处理正则表达式匹配时超出的预算
+     *
+     * @param e 超出预算时抛出的异常
+     * @return 策略是{@link Budget.Policy#MASK}时返回{@code false}，否则重新抛出异常
+     */
+    boolean regexExceeded(BudgetExceededException e) {
+        Budget.Limit limit = e.getKind() == Budget.Kind.DEADLINE ? budget.timeout() : budget.regexChars();
+        if (limit.policy() == Budget.Policy.FAIL) {
+            throw e;
+        }
+        if (e.getKind() == Budget.Kind.DEADLINE) {
+            exhausted = true;
+        } else {
+            regexExhausted = true;
+        }
+        return false;
+    }
+
+    private boolean exceed(Budget.Kind kind, Budget.Limit limit) {
+        if (limit.policy() == Budget.Policy.FAIL) {
+            throw new BudgetExceededException(kind, limit.max());
+        }
+        exhausted = true;
+        return false;
+    }
+
+    /**
+     * 完全脱敏，{@link String}的每一个字符都会被替换成{@code *}，基本类型的包装类型被替换成0，
+     * 集合、{@link Map}、数组和{@link Optional}被替换成同类型的空容器，其它类型被替换成{@code null}
+     *
+     * @param value 需要完全脱敏的值
+     * @return 完全脱敏后的值
+     */
+    static Object mask(Object value) {
+        return switch (value) {
+            case String string -> "*".repeat(string.length());
+            case Long l -> 0L;
+            case Integer i -> 0;
+            case Double d -> 0D;
+            case Float f -> 0F;
+            case Short s -> (short) 0;
+            case Byte b -> (byte) 0;
+            case Character c -> '\0';
+            case Boolean b -> false;
+            case Collection<?> collection -> Containers.empty(collection);
+            case Map<?, ?> map -> Containers.empty(map);
+            case Optional<?> optional -> Optional.empty();
+            default -> value.getClass().isArray() ? Array.newInstance(value.getClass().getComponentType(), 0) : null;
+        };
+    }
+
+    /**
+     * 读取字符时会检查预算的字符序列，{@link java.util.regex.Matcher}回溯时重复读取的字符也会被计算在内，
+     * 超出预算时抛出{@link BudgetExceededException}中断匹配
+     */
+    private final class Scanned implements CharSequence {
+
+        private final CharSequence target;
+
+        private Scanned(CharSequence target) {
+            this.target = target;
+        }
+
+        @Override
+        public int length() {
+            return target.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++regexChars > budget.regexChars().max()) {
+                throw new BudgetExceededException(Budget.Kind.REGEX_CHARS, budget.regexChars().max());
+            }
+            if (deadline != Long.MAX_VALUE && regexChars % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+                throw new BudgetExceededException(Budget.Kind.DEADLINE, budget.timeout().max());
+            }
+            return target.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return target.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return target.toString();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.parser.type.Cascade;
+
+import java.lang.reflect.AnnotatedType;
+
+/**
+ * 级联脱敏计划，对象内部的域需要根据对象的运行时类型来解析
+ *
+ * @param annotatedType 被{@link Cascade}标注的类型
+ * @param declaredType  声明的类型
+ * @param inherited     是否需要脱敏从父类继承的域
+ * @param plans         解析该计划时使用的脱敏计划缓存，运行时类型的脱敏计划同样在该缓存中解析
+ * @param objectPlans   运行时类型对应的脱敏计划的内联缓存
+ * @author zyc
+ * @see ObjectPlan
+ */
+public record CascadePlan(AnnotatedType annotatedType, Class<?> declaredType, boolean inherited,
+                          PlanCache plans, ObjectPlanCache objectPlans) implements TypePlan {
+
+    /**
+     * @param annotatedType 被{@link Cascade}标注的类型
+     * @param declaredType  声明的类型
+     * @param inherited     是否需要脱敏从父类继承的域
+     */
+    public CascadePlan(AnnotatedType annotatedType, Class<?> declaredType, boolean inherited) {
+        this(annotatedType, declaredType, inherited, RuleSnapshot.current().cache(Groups.ALL));
+    }
+
+    /**
+     * @param annotatedType 被{@link Cascade}标注的类型
+     * @param declaredType  声明的类型
+     * @param inherited     是否需要脱敏从父类继承的域
+     * @param plans         解析该计划时使用的脱敏计划缓存
+     */
+    public CascadePlan(AnnotatedType annotatedType, Class<?> declaredType, boolean inherited, PlanCache plans) {
+        this(annotatedType, declaredType, inherited, plans, new ObjectPlanCache(declaredType, inherited, plans));
+    }
+
+    /**
+     * 获取对象的运行时类型对应的脱敏计划，优先从内联缓存中获取
+     *
+     * @param type 对象的运行时类型
+     * @return 运行时类型对应的脱敏计划
+     */
+    public ObjectPlan objectPlan(Class<?> type) {
+        return objectPlans.get(type);
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.util.List;
+
+/**
+ * 依次执行的多个脱敏计划，例如同一个类型上标注了多个敏感注解
+ *
+ * @param plans 依次执行的脱敏计划
+ * @author zyc
+ */
+public record ChainPlan(List<TypePlan> plans) implements TypePlan {
+}
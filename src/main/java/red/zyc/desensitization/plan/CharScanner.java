@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+/**
+ * 在文本中查找可能属于敏感信息的字符，即数字以及{@code @}。运行时启用了{@code jdk.incubator.vector}模块时
+ * （例如{@code --add-modules jdk.incubator.vector}）使用{@link VectorCharScanner}一次比较多个字符，否则逐个字符比较。
+ *
+ * @author zyc
+ */
+interface CharScanner {
+
+    /**
+     * 逐个字符比较的实现，{@code jdk.incubator.vector}模块不可用时使用
+     */
+    CharScanner SCALAR = (chars, from, to) -> {
+        for (int i = from; i < to; i++) {
+            if (candidate(chars[i])) {
+                return i;
+            }
+        }
+        return to;
+    };
+
+    /**
+     * 当前运行时可用的实现
+     */
+    CharScanner INSTANCE = load();
+
+    /**
+     * 查找下一个数字或者{@code @}
+     *
+     * @param chars 文本的字符数组
+     * @param from  开始查找的索引（包含）
+     * @param to    结束查找的索引（不包含）
+     * @return 下一个数字或者{@code @}的索引，不存在时返回{@code to}
+     */
+    int next(char[] chars, int from, int to);
+
+    /**
+     * 逐个字符查找下一个数字或者{@code @}
+     *
+     * @param text 文本
+     * @param from 开始查找的索引（包含）
+     * @param to   结束查找的索引（不包含）
+     * @return 下一个数字或者{@code @}的索引，不存在时返回{@code to}
+     */
+    static int scan(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (candidate(text.charAt(i))) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @param c 字符
+     * @return 字符是否是数字或者{@code @}
+     */
+    static boolean candidate(char c) {
+        return (char) (c - '0') < 10 || c == '@';
+    }
+
+    /**
+     * 只有{@code jdk.incubator.vector}模块被解析时才会加载{@link VectorCharScanner}，否则它引用的类型并不存在
+     *
+     * @return 当前运行时可用的实现
+     */
+    private static CharScanner load() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorCharScanner();
+            } catch (LinkageError | RuntimeException ignored) {
+            }
+        }
+        return SCALAR;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.handler.AbstractCharSequenceHandler;
+import red.zyc.parser.handler.AnnotationHandler;
+
+import java.lang.annotation.Annotation;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * 按列批量脱敏，同一列中的所有值共享同一个敏感注解，处理器、条件以及正则表达式只会在开始时解析一次，
+ * 敏感注解在当前规则快照中被替换时使用替换后的注解
+ *
+ * @author zyc
+ */
+public final class Columns {
+
+    /**
+     * 并行脱敏时每个任务处理的值的数量
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    private Columns() {
+    }
+
+    /**
+     * 对一列值进行脱敏
+     *
+     * @param in         需要脱敏的列
+     * @param out        保存脱敏结果的列，可以与{@code in}是同一个数组
+     * @param annotation 敏感注解
+     * @param parallel   是否并行脱敏
+     */
+    public static void desensitize(String[] in, String[] out, Annotation annotation, boolean parallel) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException(String.format("in.length: %s, out.length: %s", in.length, out.length));
+        }
+        UnaryOperator<String> function = bind(RuleSnapshot.current().override(annotation));
+        if (!parallel || in.length <= CHUNK_SIZE) {
+            desensitize(in, out, function, 0, in.length);
+            return;
+        }
+        IntStream.range(0, (in.length + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                .parallel()
+                .forEach(chunk -> desensitize(in, out, function, chunk * CHUNK_SIZE, Math.min(in.length, (chunk + 1) * CHUNK_SIZE)));
+    }
+
+    /**
+     * 对列中指定范围的值进行脱敏
+     *
+     * @param in       需要脱敏的列
+     * @param out      保存脱敏结果的列
+     * @param function 绑定了敏感注解的脱敏函数
+     * @param from     起始索引（包含）
+     * @param to       结束索引（不包含）
+     */
+    private static void desensitize(String[] in, String[] out, UnaryOperator<String> function, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String value = in[i];
+            out[i] = value != null ? function.apply(value) : null;
+        }
+    }
+
+    /**
+     * 将敏感注解绑定成脱敏函数，{@link AbstractCharSequenceHandler}的子类会在绑定时解析条件以及正则表达式
+     *
+     * @param annotation 敏感注解
+     * @return 绑定了敏感注解的脱敏函数
+     */
+    @SuppressWarnings("unchecked")
+    private static UnaryOperator<String> bind(Annotation annotation) {
+        AnnotationHandler<Object, Annotation, Object> handler = TypePlans.handler(annotation);
+        Object candidate = handler;
+        if (candidate instanceof AbstractCharSequenceHandler<?, ?> charSequenceHandler) {
+            return ((AbstractCharSequenceHandler<String, Annotation>) charSequenceHandler).bind(annotation);
+        }
+        return value -> (String) handler.handle(value, annotation);
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 根据目标容器重新构建脱敏后的容器。新容器在创建时就确定了最终的容量，构建过程中不会扩容或者重新哈希，
+ * 同时尽可能保留目标容器的具体类型：
+ * <ul>
+ *     <li>常见的{@link ArrayList}、{@link HashMap}、{@link LinkedHashMap}等类型直接按照目标容器的大小创建</li>
+ *     <li>有序容器保留其{@link Comparator}，{@link EnumMap}和{@link EnumSet}保留其枚举类型</li>
+ *     <li>{@link List#of()}、{@link Set#of()}、{@link Map#of()}等不可变容器重新构建成同样紧凑的不可变容器</li>
+ *     <li>{@link Collections#unmodifiableList(List)}、{@link Collections#unmodifiableSortedSet(SortedSet)}等不可修改的视图以及
+ *     {@link Collections#synchronizedList(List)}等同步的视图重新构建后同样包装成相同的视图，有序的视图保留其{@link Comparator}</li>
+ *     <li>其它类型通过缓存的公共构造器创建，有序容器优先使用接收{@link Comparator}的构造器，没有时根据其实现的接口选择一个合适的容器</li>
+ *     <li>{@link ConcurrentHashMap}、{@link ArrayDeque}等不允许{@code null}的容器遇到{@code null}时退化为允许{@code null}的容器</li>
+ * </ul>
+ *
+ * @author zyc
+ */
+final class Containers {
+
+    private static final Set<Class<?>> IMMUTABLE_LISTS = classes(List.of(), List.of(1), List.of(1, 2, 3), Stream.of(1).toList());
+
+    private static final Set<Class<?>> IMMUTABLE_SETS = classes(Set.of(), Set.of(1), Set.of(1, 2, 3));
+
+    private static final Set<Class<?>> IMMUTABLE_MAPS = classes(Map.of(), Map.of(1, 1), Map.of(1, 1, 2, 2, 3, 3));
+
+    private static final Set<Class<?>> UNMODIFIABLE_LISTS = classes(Collections.unmodifiableList(new ArrayList<>()), Collections.unmodifiableList(new LinkedList<>()));
+
+    private static final Class<?> UNMODIFIABLE_SET = Collections.unmodifiableSet(new HashSet<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_COLLECTION = Collections.unmodifiableCollection(new ArrayList<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_MAP = Collections.unmodifiableMap(new HashMap<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_SORTED_SET = Collections.unmodifiableSortedSet(new TreeSet<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_NAVIGABLE_SET = Collections.unmodifiableNavigableSet(new TreeSet<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_SORTED_MAP = Collections.unmodifiableSortedMap(new TreeMap<>()).getClass();
+
+    private static final Class<?> UNMODIFIABLE_NAVIGABLE_MAP = Collections.unmodifiableNavigableMap(new TreeMap<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_COLLECTION = Collections.synchronizedCollection(new ArrayList<>()).getClass();
+
+    private static final Set<Class<?>> SYNCHRONIZED_LISTS = classes(Collections.synchronizedList(new ArrayList<>()), Collections.synchronizedList(new LinkedList<>()));
+
+    private static final Class<?> SYNCHRONIZED_SET = Collections.synchronizedSet(new HashSet<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_SORTED_SET = Collections.synchronizedSortedSet(new TreeSet<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_NAVIGABLE_SET = Collections.synchronizedNavigableSet(new TreeSet<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_MAP = Collections.synchronizedMap(new HashMap<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_SORTED_MAP = Collections.synchronizedSortedMap(new TreeMap<>()).getClass();
+
+    private static final Class<?> SYNCHRONIZED_NAVIGABLE_MAP = Collections.synchronizedNavigableMap(new TreeMap<>()).getClass();
+
+    /**
+     * 容器类型的公共无参构造器
+     */
+    private static final ClassValue<Optional<MethodHandle>> CONSTRUCTORS = new ClassValue<>() {
+
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                return Optional.of(MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    /**
+     * 有序容器类型的接收{@link Comparator}的公共构造器
+     */
+    private static final ClassValue<Optional<MethodHandle>> COMPARATOR_CONSTRUCTORS = new ClassValue<>() {
+
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> type) {
+            try {
+                return Optional.of(MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class, Comparator.class)));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return Optional.empty();
+            }
+        }
+    };
+
+    private Containers() {
+    }
+
+    /**
+     * 重新构建脱敏后的集合
+     *
+     * @param target 目标集合
+     * @param mapper 集合元素的脱敏函数
+     * @return 脱敏后的新集合
+     */
+    static Collection<Object> collection(Collection<?> target, UnaryOperator<Object> mapper) {
+        Class<?> type = target.getClass();
+        int size = target.size();
+        if (IMMUTABLE_LISTS.contains(type)) {
+            Object[] elements = new Object[size];
+            boolean nullable = false;
+            int i = 0;
+            for (Object element : target) {
+                nullable |= (elements[i++] = mapper.apply(element)) == null;
+            }
+            return nullable ? Collections.unmodifiableList(Arrays.asList(elements)) : List.of(elements);
+        }
+        if (IMMUTABLE_SETS.contains(type)) {
+            // 不同的元素脱敏后可能相同，因此先通过LinkedHashSet去重
+            Set<Object> result = fill(LinkedHashSet.newLinkedHashSet(size), target, mapper);
+            return result.contains(null) ? Collections.unmodifiableSet(result) : Set.copyOf(result);
+        }
+        if (UNMODIFIABLE_LISTS.contains(type)) {
+            return Collections.unmodifiableList(fill(new ArrayList<>(size), target, mapper));
+        }
+        if (type == UNMODIFIABLE_SET) {
+            return Collections.unmodifiableSet(fill(LinkedHashSet.newLinkedHashSet(size), target, mapper));
+        }
+        if (type == UNMODIFIABLE_COLLECTION) {
+            return Collections.unmodifiableCollection(fill(new ArrayList<>(size), target, mapper));
+        }
+        if (type == CopyOnWriteArrayList.class) {
+            // 逐个添加元素会导致每次都复制数组
+            return new CopyOnWriteArrayList<>(fill(new ArrayList<>(size), target, mapper));
+        }
+        Collection<Object> view = view(target, type, target, mapper);
+        if (view != null) {
+            return view;
+        }
+        return rebuild(newCollection(target, type, size), target, mapper);
+    }
+
+    /**
+     * 重新构建有序的不可修改的视图以及同步的视图，视图没有公共构造器，因此先构建一个合适的容器再包装成相同的视图
+     *
+     * @param target   目标集合
+     * @param type     目标集合的类型
+     * @param elements 新视图中的原始元素
+     * @param mapper   集合元素的脱敏函数
+     * @return 脱敏后的新视图，目标集合不是这些视图时返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> view(Collection<?> target, Class<?> type, Collection<?> elements, UnaryOperator<Object> mapper) {
+        if (type == UNMODIFIABLE_SORTED_SET || type == UNMODIFIABLE_NAVIGABLE_SET || type == SYNCHRONIZED_SORTED_SET || type == SYNCHRONIZED_NAVIGABLE_SET) {
+            NavigableSet<Object> result = fill(new TreeSet<>((Comparator<Object>) ((SortedSet<?>) target).comparator()), elements, mapper);
+            if (type == UNMODIFIABLE_SORTED_SET) {
+                return Collections.unmodifiableSortedSet(result);
+            }
+            if (type == UNMODIFIABLE_NAVIGABLE_SET) {
+                return Collections.unmodifiableNavigableSet(result);
+            }
+            return type == SYNCHRONIZED_SORTED_SET ? Collections.synchronizedSortedSet(result) : Collections.synchronizedNavigableSet(result);
+        }
+        if (SYNCHRONIZED_LISTS.contains(type)) {
+            return Collections.synchronizedList(fill(new ArrayList<>(elements.size()), elements, mapper));
+        }
+        if (type == SYNCHRONIZED_SET) {
+            return Collections.synchronizedSet(fill(LinkedHashSet.newLinkedHashSet(elements.size()), elements, mapper));
+        }
+        if (type == SYNCHRONIZED_COLLECTION) {
+            return Collections.synchronizedCollection(fill(new ArrayList<>(elements.size()), elements, mapper));
+        }
+        return null;
+    }
+
+    /**
+     * 重新构建脱敏后的{@link Map}
+     *
+     * @param target        目标{@link Map}
+     * @param keyMapper     键的脱敏函数
+     * @param valueMapper   值的脱敏函数
+     * @param keysPreserved 键是否不需要脱敏，此时不同的键脱敏后也一定不同
+     * @return 脱敏后的新{@link Map}
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> map(Map<?, ?> target, UnaryOperator<Object> keyMapper, UnaryOperator<Object> valueMapper, boolean keysPreserved) {
+        Class<?> type = target.getClass();
+        int size = target.size();
+        if (IMMUTABLE_MAPS.contains(type)) {
+            if (!keysPreserved) {
+                // 不同的键脱敏后可能相同，因此先通过HashMap去重
+                Map<Object, Object> result = fill(HashMap.newHashMap(size), target, keyMapper, valueMapper);
+                return result.containsKey(null) || result.containsValue(null) ? Collections.unmodifiableMap(result) : Map.copyOf(result);
+            }
+            Map.Entry<?, ?>[] entries = new Map.Entry<?, ?>[size];
+            boolean nullable = false;
+            int i = 0;
+            for (Map.Entry<?, ?> entry : target.entrySet()) {
+                Object value = valueMapper.apply(entry.getValue());
+                nullable |= value == null;
+                entries[i++] = new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), value);
+            }
+            if (!nullable) {
+                return Map.<Object, Object>ofEntries(entries);
+            }
+            Map<Object, Object> result = LinkedHashMap.newLinkedHashMap(size);
+            Arrays.stream(entries).forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+            return Collections.unmodifiableMap(result);
+        }
+        if (type == UNMODIFIABLE_MAP) {
+            return Collections.unmodifiableMap(fill(LinkedHashMap.newLinkedHashMap(size), target, keyMapper, valueMapper));
+        }
+        Map<Object, Object> view = view(target, type, target, keyMapper, valueMapper);
+        if (view != null) {
+            return view;
+        }
+        if (target instanceof EnumMap<?, ?> enumMap && keysPreserved) {
+            // 复制后直接覆盖所有的值，保留枚举类型
+            Map<Object, Object> result = (Map<Object, Object>) enumMap.clone();
+            for (Map.Entry<Object, Object> entry : result.entrySet()) {
+                entry.setValue(valueMapper.apply(entry.getValue()));
+            }
+            return result;
+        }
+        return fill(newMap(target, type, size), target, keyMapper, valueMapper);
+    }
+
+    /**
+     * 重新构建有序的不可修改的视图以及同步的视图
+     *
+     * @param target      目标{@link Map}
+     * @param type        目标{@link Map}的类型
+     * @param entries     新视图中的原始键值对
+     * @param keyMapper   键的脱敏函数
+     * @param valueMapper 值的脱敏函数
+     * @return 脱敏后的新视图，目标{@link Map}不是这些视图时返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> view(Map<?, ?> target, Class<?> type, Map<?, ?> entries, UnaryOperator<Object> keyMapper, UnaryOperator<Object> valueMapper) {
+        if (type == UNMODIFIABLE_SORTED_MAP || type == UNMODIFIABLE_NAVIGABLE_MAP || type == SYNCHRONIZED_SORTED_MAP || type == SYNCHRONIZED_NAVIGABLE_MAP) {
+            NavigableMap<Object, Object> result = new TreeMap<>((Comparator<Object>) ((SortedMap<?, ?>) target).comparator());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                result.put(keyMapper.apply(entry.getKey()), valueMapper.apply(entry.getValue()));
+            }
+            if (type == UNMODIFIABLE_SORTED_MAP) {
+                return Collections.unmodifiableSortedMap(result);
+            }
+            if (type == UNMODIFIABLE_NAVIGABLE_MAP) {
+                return Collections.unmodifiableNavigableMap(result);
+            }
+            return type == SYNCHRONIZED_SORTED_MAP ? Collections.synchronizedSortedMap(result) : Collections.synchronizedNavigableMap(result);
+        }
+        if (type == SYNCHRONIZED_MAP) {
+            return Collections.synchronizedMap(fill(LinkedHashMap.newLinkedHashMap(entries.size()), entries, keyMapper, valueMapper));
+        }
+        return null;
+    }
+
+    /**
+     * 创建一个与目标集合类型相同的空集合，不可变的集合和不可修改的视图同样返回不可变的空集合
+     *
+     * @param target 目标集合
+     * @return 空集合
+     */
+    static Collection<Object> empty(Collection<?> target) {
+        Class<?> type = target.getClass();
+        if (IMMUTABLE_LISTS.contains(type) || UNMODIFIABLE_LISTS.contains(type) || type == UNMODIFIABLE_COLLECTION) {
+            return List.of();
+        }
+        if (IMMUTABLE_SETS.contains(type) || type == UNMODIFIABLE_SET) {
+            return Set.of();
+        }
+        if (type == CopyOnWriteArrayList.class) {
+            return new CopyOnWriteArrayList<>();
+        }
+        Collection<Object> view = view(target, type, List.of(), UnaryOperator.identity());
+        return view != null ? view : newCollection(target, type, 0);
+    }
+
+    /**
+     * 创建一个与目标{@link Map}类型相同的空{@link Map}，不可变的{@link Map}和不可修改的视图同样返回不可变的空{@link Map}
+     *
+     * @param target 目标{@link Map}
+     * @return 空{@link Map}
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> empty(Map<?, ?> target) {
+        Class<?> type = target.getClass();
+        if (IMMUTABLE_MAPS.contains(type) || type == UNMODIFIABLE_MAP) {
+            return Map.of();
+        }
+        if (target instanceof EnumMap<?, ?> enumMap) {
+            Map<Object, Object> result = (Map<Object, Object>) enumMap.clone();
+            result.clear();
+            return result;
+        }
+        Map<Object, Object> view = view(target, type, Map.of(), UnaryOperator.identity(), UnaryOperator.identity());
+        return view != null ? view : newMap(target, type, 0);
+    }
+
+    /**
+     * 创建一个与目标集合类型相同、容量足够的空集合
+     *
+     * @param target 目标集合
+     * @param type   目标集合的类型
+     * @param size   目标集合的大小
+     * @return 空集合
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Collection<?> target, Class<?> type, int size) {
+        if (type == ArrayList.class) {
+            return new ArrayList<>(size);
+        }
+        if (type == HashSet.class) {
+            return HashSet.newHashSet(size);
+        }
+        if (type == LinkedHashSet.class) {
+            return LinkedHashSet.newLinkedHashSet(size);
+        }
+        if (type == ArrayDeque.class) {
+            return new ArrayDeque<>(size);
+        }
+        if (type == LinkedList.class) {
+            return new LinkedList<>();
+        }
+        if (target instanceof SortedSet<?> sortedSet) {
+            // ConcurrentSkipListSet等有序容器保留其具体类型，没有合适的公共构造器时才使用TreeSet
+            Collection<Object> result = (Collection<Object>) construct(type, sortedSet.comparator());
+            return result != null ? result : new TreeSet<>((Comparator<Object>) sortedSet.comparator());
+        }
+        if (target instanceof EnumSet<?> enumSet) {
+            EnumSet<?> result = enumSet.clone();
+            result.clear();
+            return (Collection<Object>) (Collection<?>) result;
+        }
+        Collection<Object> result = (Collection<Object>) construct(type);
+        if (result != null) {
+            return result;
+        }
+        return switch (target) {
+            case List<?> list -> new ArrayList<>(size);
+            case Set<?> set -> LinkedHashSet.newLinkedHashSet(size);
+            case Deque<?> deque -> new ArrayDeque<>(size);
+            case Queue<?> queue -> new ArrayDeque<>(size);
+            default -> new ArrayList<>(size);
+        };
+    }
+
+    /**
+     * 创建一个与目标{@link Map}类型相同、容量足够的空{@link Map}
+     *
+     * @param target 目标{@link Map}
+     * @param type   目标{@link Map}的类型
+     * @param size   目标{@link Map}的大小
+     * @return 空{@link Map}
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> newMap(Map<?, ?> target, Class<?> type, int size) {
+        if (type == HashMap.class) {
+            return HashMap.newHashMap(size);
+        }
+        if (type == LinkedHashMap.class) {
+            return LinkedHashMap.newLinkedHashMap(size);
+        }
+        if (type == ConcurrentHashMap.class) {
+            return new ConcurrentHashMap<>(size);
+        }
+        if (target instanceof SortedMap<?, ?> sortedMap) {
+            Map<Object, Object> result = (Map<Object, Object>) construct(type, sortedMap.comparator());
+            return result != null ? result : new TreeMap<>((Comparator<Object>) sortedMap.comparator());
+        }
+        Map<Object, Object> result = (Map<Object, Object>) construct(type);
+        return result != null ? result : LinkedHashMap.newLinkedHashMap(size);
+    }
+
+    /**
+     * 通过缓存的公共无参构造器创建容器
+     *
+     * @param type 容器类型
+     * @return 新容器，没有公共无参构造器或者创建失败时返回{@code null}
+     */
+    private static Object construct(Class<?> type) {
+        MethodHandle constructor = CONSTRUCTORS.get(type).orElse(null);
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return constructor.invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 通过缓存的公共构造器创建保留{@link Comparator}的有序容器
+     *
+     * @param type       有序容器类型
+     * @param comparator 目标容器的{@link Comparator}，为{@code null}时使用无参构造器
+     * @return 新容器，没有对应的公共构造器或者创建失败时返回{@code null}
+     */
+    private static Object construct(Class<?> type, Comparator<?> comparator) {
+        if (comparator == null) {
+            return construct(type);
+        }
+        MethodHandle constructor = COMPARATOR_CONSTRUCTORS.get(type).orElse(null);
+        if (constructor == null) {
+            return null;
+        }
+        try {
+            return constructor.invoke(comparator);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 将脱敏后的元素添加到新集合中，{@link java.util.ArrayDeque}、{@link java.util.concurrent.ConcurrentLinkedQueue}
+     * 这类不允许{@code null}的集合遇到完全脱敏后的{@code null}时会退化为允许{@code null}的集合
+     *
+     * @param result 新集合
+     * @param target 目标集合
+     * @param mapper 集合元素的脱敏函数
+     * @return 新集合
+     */
+    private static Collection<Object> rebuild(Collection<Object> result, Collection<?> target, UnaryOperator<Object> mapper) {
+        Collection<Object> current = result;
+        for (Object element : target) {
+            Object mapped = mapper.apply(element);
+            try {
+                current.add(mapped);
+            } catch (NullPointerException e) {
+                if (mapped != null) {
+                    throw e;
+                }
+                current = nullable(current, target.size());
+                current.add(null);
+            }
+        }
+        return current;
+    }
+
+    private static <C extends Collection<Object>> C fill(C result, Collection<?> target, UnaryOperator<Object> mapper) {
+        for (Object element : target) {
+            result.add(mapper.apply(element));
+        }
+        return result;
+    }
+
+    /**
+     * 将脱敏后的键值对添加到新{@link Map}中，{@link ConcurrentHashMap}这类不允许{@code null}的{@link Map}
+     * 遇到{@code null}键或者完全脱敏后的{@code null}值时会退化为{@link LinkedHashMap}
+     *
+     * @param result      新{@link Map}
+     * @param target      目标{@link Map}
+     * @param keyMapper   键的脱敏函数
+     * @param valueMapper 值的脱敏函数
+     * @return 新{@link Map}
+     */
+    private static Map<Object, Object> fill(Map<Object, Object> result, Map<?, ?> target, UnaryOperator<Object> keyMapper, UnaryOperator<Object> valueMapper) {
+        Map<Object, Object> current = result;
+        for (Map.Entry<?, ?> entry : target.entrySet()) {
+            Object key = keyMapper.apply(entry.getKey());
+            Object value = valueMapper.apply(entry.getValue());
+            try {
+                current.put(key, value);
+            } catch (NullPointerException e) {
+                if (key != null && value != null) {
+                    throw e;
+                }
+                Map<Object, Object> fallback = LinkedHashMap.newLinkedHashMap(target.size());
+                fallback.putAll(current);
+                current = fallback;
+                current.put(key, value);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 将不允许{@code null}的集合中已有的元素复制到允许{@code null}的集合中
+     *
+     * @param collection 不允许{@code null}的集合
+     * @param size       目标集合的大小
+     * @return 允许{@code null}的集合
+     */
+    private static Collection<Object> nullable(Collection<Object> collection, int size) {
+        Collection<Object> result = switch (collection) {
+            case List<?> list -> new ArrayList<>(size);
+            case Set<?> set -> LinkedHashSet.newLinkedHashSet(size);
+            case Queue<?> queue -> new LinkedList<>();
+            default -> new ArrayList<>(size);
+        };
+        result.addAll(collection);
+        return result;
+    }
+
+    private static Set<Class<?>> classes(Object... containers) {
+        return Arrays.stream(containers).map(Object::getClass).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.budget.Budget;
+import red.zyc.desensitization.budget.BudgetExceededException;
+import red.zyc.desensitization.handler.AbstractNumberHandler;
+import red.zyc.desensitization.handler.CharSequenceMasker;
+import red.zyc.parser.AnnotationParser;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 根据{@link TypePlan}对目标对象进行脱敏
+ *
+ * @author zyc
+ */
+public final class Desensitizer {
+
+    private Desensitizer() {
+    }
+
+    /**
+     * 根据脱敏计划对目标对象进行脱敏
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @return 脱敏后的新对象，目标对象不包含敏感信息时返回原对象
+     */
+    public static Object desensitize(Object target, TypePlan plan) {
+        return desensitize(target, plan, (BudgetTracker) null);
+    }
+
+    /**
+     * 在预算内根据脱敏计划对目标对象进行脱敏，交由{@link AnnotationParser}处理的部分不受预算限制
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @param budget 预算
+     * @return 脱敏后的新对象，目标对象不包含敏感信息时返回原对象
+     * @throws BudgetExceededException 超出预算并且对应的策略是{@link Budget.Policy#FAIL}
+     */
+    public static Object desensitize(Object target, TypePlan plan, Budget budget) {
+        return desensitize(target, plan, budget == Budget.UNLIMITED ? null : new BudgetTracker(budget));
+    }
+
+    /**
+     * 根据脱敏计划对目标对象进行脱敏
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新对象
+     */
+    private static Object desensitize(Object target, TypePlan plan, BudgetTracker budget) {
+        if (target == null) {
+            return null;
+        }
+        if (budget == null || plan == SkipPlan.INSTANCE) {
+            return dispatch(target, plan, null);
+        }
+        if (plan instanceof HandlerPlan ? !budget.visit() : !budget.alive()) {
+            return BudgetTracker.mask(target);
+        }
+        if (plan instanceof ArrayPlan || plan instanceof CollectionPlan || plan instanceof MapPlan || plan instanceof CascadePlan) {
+            if (!budget.enter()) {
+                return BudgetTracker.mask(target);
+            }
+            Object result = dispatch(target, plan, budget);
+            budget.exit();
+            return result;
+        }
+        return dispatch(target, plan, budget);
+    }
+
+    /**
+     * 根据脱敏计划的类型执行脱敏
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新对象
+     */
+    private static Object dispatch(Object target, TypePlan plan, BudgetTracker budget) {
+        return switch (plan) {
+            case SkipPlan skip -> target;
+            case HandlerPlan handler -> budget == null ? handler.binding().apply(target) : handle(target, handler, budget);
+            case ArrayPlan array -> target instanceof Object[] objects ? array(objects, array, budget) : primitiveArray(target, array, budget);
+            case CollectionPlan collection -> collection((Collection<?>) target, collection, budget);
+            case MapPlan map -> map((Map<?, ?>) target, map, budget);
+            case OptionalPlan optional -> ((Optional<?>) target).map(value -> desensitize(value, optional.value(), budget));
+            case FuturePlan future -> future((CompletionStage<?>) target, future);
+            case CascadePlan cascade -> cascade(target, cascade, budget);
+            case FallbackPlan fallback -> AnnotationParser.parse(target, fallback.annotatedType());
+            case ChainPlan chain -> chain(target, chain, budget);
+        };
+    }
+
+    /**
+     * 在预算内调用处理器，基于正则表达式脱敏的字符序列会被包装成读取字符时检查预算的字符序列再交由{@link java.util.regex.Matcher}扫描
+     *
+     * @param target 目标对象
+     * @param plan   处理器对应的计划
+     * @param budget 预算的使用情况
+     * @return 脱敏后的新对象
+     */
+    @SuppressWarnings("unchecked")
+    private static Object handle(Object target, HandlerPlan plan, BudgetTracker budget) {
+        Object candidate = plan.binding();
+        if (!(candidate instanceof CharSequenceMasker<?> masker) || !masker.regexp() || !(target instanceof CharSequence sequence)) {
+            return plan.binding().apply(target);
+        }
+        if (budget.regexExhausted()) {
+            return BudgetTracker.mask(target);
+        }
+        try {
+            return ((CharSequenceMasker<CharSequence>) masker).apply(sequence, budget.scan(sequence));
+        } catch (BudgetExceededException e) {
+            budget.regexExceeded(e);
+            return BudgetTracker.mask(target);
+        }
+    }
+
+    /**
+     * 数组脱敏
+     *
+     * @param target 目标数组
+     * @param plan   数组的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新数组
+     */
+    private static Object[] array(Object[] target, ArrayPlan plan, BudgetTracker budget) {
+        Object[] result = target.clone();
+        for (int i = 0; i < result.length; i++) {
+            result[i] = desensitize(result[i], plan.component(), budget);
+        }
+        return result;
+    }
+
+    /**
+     * 基本类型数组脱敏，数组元素由数字处理器处理时不会产生装箱
+     *
+     * @param target 目标数组
+     * @param plan   数组的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新数组
+     */
+    private static Object primitiveArray(Object target, ArrayPlan plan, BudgetTracker budget) {
+        AbstractNumberHandler<Annotation> handler = numberHandler(plan.component());
+        // 存在预算时逐个元素检查预算
+        if (handler == null || budget != null) {
+            return boxedArray(target, plan, budget);
+        }
+        Annotation annotation = ((HandlerPlan) plan.component()).annotation();
+        switch (target) {
+            case long[] values -> {
+                long[] result = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = handler.handle(values[i], annotation);
+                }
+                return result;
+            }
+            case int[] values -> {
+                int[] result = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = handler.handle(values[i], annotation);
+                }
+                return result;
+            }
+            case double[] values -> {
+                double[] result = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = handler.handle(values[i], annotation);
+                }
+                return result;
+            }
+            case float[] values -> {
+                float[] result = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = (float) handler.handle((double) values[i], annotation);
+                }
+                return result;
+            }
+            case short[] values -> {
+                short[] result = new short[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = handler.handle(values[i], annotation);
+                }
+                return result;
+            }
+            case byte[] values -> {
+                byte[] result = new byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    result[i] = handler.handle(values[i], annotation);
+                }
+                return result;
+            }
+            default -> {
+                return boxedArray(target, plan, budget);
+            }
+        }
+    }
+
+    /**
+     * 逐个元素装箱后脱敏基本类型数组
+     *
+     * @param target 目标数组
+     * @param plan   数组的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新数组
+     */
+    private static Object boxedArray(Object target, ArrayPlan plan, BudgetTracker budget) {
+        int length = Array.getLength(target);
+        Object result = Array.newInstance(target.getClass().getComponentType(), length);
+        for (int i = 0; i < length; i++) {
+            Array.set(result, i, desensitize(Array.get(target, i), plan.component(), budget));
+        }
+        return result;
+    }
+
+    /**
+     * {@link Collection}脱敏
+     *
+     * @param target 目标集合
+     * @param plan   集合的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新集合
+     */
+    private static Collection<?> collection(Collection<?> target, CollectionPlan plan, BudgetTracker budget) {
+        return Containers.collection(target, element -> desensitize(element, plan.element(), budget));
+    }
+
+    /**
+     * {@link Map}脱敏
+     *
+     * @param target 目标{@link Map}
+     * @param plan   {@link Map}的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新{@link Map}
+     */
+    private static Map<?, ?> map(Map<?, ?> target, MapPlan plan, BudgetTracker budget) {
+        return Containers.map(target, key -> desensitize(key, plan.key(), budget), value -> desensitize(value, plan.value(), budget), plan.key() == SkipPlan.INSTANCE);
+    }
+
+    /**
+     * {@link CompletionStage}脱敏，值在完成时由完成的线程脱敏。完成的时间不确定，因此值的脱敏不受预算限制
+     *
+     * @param target 目标{@link CompletionStage}
+     * @param plan   {@link CompletionStage}的脱敏计划
+     * @return 完成时值已经被脱敏的新{@link CompletionStage}，目标是{@link CompletableFuture}时也返回{@link CompletableFuture}
+     */
+    private static CompletionStage<?> future(CompletionStage<?> target, FuturePlan plan) {
+        return target.thenApply(value -> desensitize(value, plan.value(), (BudgetTracker) null));
+    }
+
+    /**
+     * 估算对目标对象脱敏的工作量：集合、{@link Map}和数组为其大小，级联的对象为1加上其需要脱敏的域中集合、{@link Map}和数组的大小，
+     * 其它对象为1。估算只会向下查看一层，不会遍历整个对象图。
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @return 估算的工作量
+     */
+    public static long weight(Object target, TypePlan plan) {
+        if (target == null) {
+            return 0;
+        }
+        return switch (plan) {
+            case SkipPlan skip -> 0;
+            case OptionalPlan optional -> weight(((Optional<?>) target).orElse(null), optional.value());
+            case CascadePlan cascade -> {
+                ObjectPlan objectPlan = cascade.objectPlan(target.getClass());
+                long weight = 1;
+                if (objectPlan.sensitive() && objectPlan.copyable()) {
+                    try {
+                        for (FieldPlan field : objectPlan.fields()) {
+                            if (field.plan() != SkipPlan.INSTANCE && !field.field().getType().isPrimitive()) {
+                                weight += size(field.field().get(target));
+                            }
+                        }
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                yield weight;
+            }
+            default -> size(target);
+        };
+    }
+
+    /**
+     * @param target 目标对象
+     * @return 集合、{@link Map}和数组返回其大小，其它对象返回1
+     */
+    private static long size(Object target) {
+        return switch (target) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            case Object array when array.getClass().isArray() -> Array.getLength(array);
+            default -> 1;
+        };
+    }
+
+    /**
+     * 级联脱敏，对象内部的所有域会被复制到新对象中
+     *
+     * @param target 目标对象
+     * @param plan   级联脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新对象，目标对象不包含需要脱敏的域时返回原对象
+     */
+    private static Object cascade(Object target, CascadePlan plan, BudgetTracker budget) {
+        ObjectPlan objectPlan = plan.objectPlan(target.getClass());
+        if (!objectPlan.copyable()) {
+            return AnnotationParser.parse(target, plan.annotatedType());
+        }
+        if (!objectPlan.sensitive()) {
+            return target;
+        }
+        if (objectPlan.constructor() != null) {
+            return record(target, objectPlan, budget);
+        }
+        try {
+            Object result = objectPlan.creator().create();
+            for (FieldPlan field : objectPlan.fields()) {
+                if (!field.field().getType().isPrimitive() || budget != null || !primitiveField(field, target, result)) {
+                    field.field().set(result, desensitize(field.field().get(target), field.plan(), budget));
+                }
+            }
+            return result;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 通过规范构造器重新创建记录，只有需要脱敏的组件会被脱敏，其余组件原样传入。
+     * 所有组件脱敏后都与原值相同时直接返回原记录。
+     *
+     * @param target 目标记录
+     * @param plan   记录类型的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新记录
+     */
+    private static Object record(Object target, ObjectPlan plan, BudgetTracker budget) {
+        List<FieldPlan> fields = plan.fields();
+        Object[] arguments = new Object[fields.size()];
+        boolean changed = false;
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                FieldPlan field = fields.get(i);
+                Object value = field.field().get(target);
+                arguments[i] = field.plan() == SkipPlan.INSTANCE ? value : desensitize(value, field.plan(), budget);
+                changed |= arguments[i] != value;
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!changed) {
+            return target;
+        }
+        try {
+            return plan.constructor().invokeExact(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 不经过装箱复制{@code long}、{@code int}、{@code double}、{@code float}类型的域，需要脱敏时交由数字处理器处理
+     *
+     * @param plan   域的脱敏计划
+     * @param target 目标对象
+     * @param result 脱敏后的新对象
+     * @return 是否已经复制了域
+     * @throws IllegalAccessException 域不可访问
+     */
+    private static boolean primitiveField(FieldPlan plan, Object target, Object result) throws IllegalAccessException {
+        Field field = plan.field();
+        AbstractNumberHandler<Annotation> handler = numberHandler(plan.plan());
+        if (handler == null && plan.plan() != SkipPlan.INSTANCE) {
+            return false;
+        }
+        Annotation annotation = handler != null ? ((HandlerPlan) plan.plan()).annotation() : null;
+        Class<?> type = field.getType();
+        if (type == long.class) {
+            long value = field.getLong(target);
+            field.setLong(result, handler != null ? handler.handle(value, annotation) : value);
+        } else if (type == int.class) {
+            int value = field.getInt(target);
+            field.setInt(result, handler != null ? handler.handle(value, annotation) : value);
+        } else if (type == double.class) {
+            double value = field.getDouble(target);
+            field.setDouble(result, handler != null ? handler.handle(value, annotation) : value);
+        } else if (type == float.class) {
+            float value = field.getFloat(target);
+            field.setFloat(result, handler != null ? (float) handler.handle((double) value, annotation) : value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param plan 脱敏计划
+     * @return 脱敏计划是由数字处理器处理时返回对应的处理器，否则返回{@code null}
+     */
+    @SuppressWarnings("unchecked")
+    private static AbstractNumberHandler<Annotation> numberHandler(TypePlan plan) {
+        if (plan instanceof HandlerPlan handler) {
+            Object candidate = handler.handler();
+            if (candidate instanceof AbstractNumberHandler<?> numberHandler) {
+                return (AbstractNumberHandler<Annotation>) numberHandler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 依次执行多个脱敏计划
+     *
+     * @param target 目标对象
+     * @param plan   依次执行的脱敏计划
+     * @param budget 预算的使用情况，没有预算时为{@code null}
+     * @return 脱敏后的新对象
+     */
+    private static Object chain(Object target, ChainPlan plan, BudgetTracker budget) {
+        Object result = target;
+        for (TypePlan typePlan : plan.plans()) {
+            result = desensitize(result, typePlan, budget);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.parser.AnnotationParser;
+
+import java.lang.reflect.AnnotatedType;
+
+/**
+ * 无法预先解析的类型，即除了集合、{@link java.util.Map}、{@link java.util.Optional}和
+ * {@link java.util.concurrent.CompletionStage}以外、类型参数上存在注解的参数化类型，例如自定义的{@code Box<@Email String>}，
+ * 脱敏时交由{@link AnnotationParser}处理，因此运行时替换的敏感注解不会作用于此类值
+ *
+ * @param annotatedType 无法预先解析的类型
+ * @author zyc
+ */
+public record FallbackPlan(AnnotatedType annotatedType) implements TypePlan {
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+/**
+ * {@link java.util.concurrent.CompletionStage}脱敏计划，值在完成之后才会被脱敏
+ *
+ * @param value {@link java.util.concurrent.CompletionStage}完成后的值的脱敏计划
+ * @author zyc
+ */
+public record FuturePlan(TypePlan value) implements TypePlan {
+}
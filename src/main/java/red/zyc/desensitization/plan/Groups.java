@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 脱敏时激活的分组。敏感注解的{@code groups}属性以及{@link red.zyc.desensitization.annotation.CascadeGroups}
+ * 指定了规则生效的分组，没有指定分组的规则在任何分组下都会生效；激活的分组是规则的某个分组本身或者其子类型时规则生效。
+ * 同一组激活的分组只会对应一个实例，每个实例在每个规则快照中都拥有独立的脱敏计划缓存，不生效的规则在解析时就被跳过，
+ * 因此只包含不生效的规则的对象、集合等在脱敏时不会被遍历。
+ *
+ * @author zyc
+ */
+public final class Groups {
+
+    /**
+     * 不限制分组，所有规则都会生效
+     */
+    public static final Groups ALL = new Groups(null);
+
+    /**
+     * 只激活一个分组时对应的实例
+     */
+    private static final ClassValue<Groups> SINGLE = new ClassValue<>() {
+
+        @Override
+        protected Groups computeValue(Class<?> type) {
+            return new Groups(new Class<?>[]{type});
+        }
+    };
+
+    /**
+     * 激活多个分组时对应的实例
+     */
+    private static final ConcurrentMap<Set<Class<?>>, Groups> MULTIPLE = new ConcurrentHashMap<>();
+
+    /**
+     * 激活的分组，为{@code null}时不限制分组
+     */
+    private final Class<?>[] active;
+
+    private Groups(Class<?>[] active) {
+        this.active = active;
+    }
+
+    /**
+     * 获取激活的分组对应的实例
+     *
+     * @param active 激活的分组，为空时不限制分组
+     * @return 激活的分组对应的实例
+     */
+    public static Groups of(Class<?>... active) {
+        return switch (active.length) {
+            case 0 -> ALL;
+            case 1 -> SINGLE.get(active[0]);
+            default -> {
+                Set<Class<?>> key = Set.of(Arrays.stream(active).distinct().toArray(Class<?>[]::new));
+                yield key.size() == 1 ? SINGLE.get(active[0]) : MULTIPLE.computeIfAbsent(key, k -> new Groups(k.toArray(Class<?>[]::new)));
+            }
+        };
+    }
+
+    /**
+     * 判断规则在激活的分组下是否生效
+     *
+     * @param groups 规则生效的分组
+     * @return 规则是否生效
+     */
+    public boolean active(Class<?>[] groups) {
+        if (active == null || groups.length == 0) {
+            return true;
+        }
+        for (Class<?> group : groups) {
+            for (Class<?> type : active) {
+                if (group.isAssignableFrom(type)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return active == null ? "ALL" : Arrays.toString(active);
+    }
+}
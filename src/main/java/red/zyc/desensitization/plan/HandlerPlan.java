@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.parser.handler.AnnotationHandler;
+
+import java.lang.annotation.Annotation;
+import java.util.function.UnaryOperator;
+
+/**
+ * 使用敏感注解对应的处理器进行脱敏的计划
+ *
+ * @param type       被标注的对象的类型
+ * @param annotation 敏感注解
+ * @param handler    敏感注解对应的处理器
+ * @param binding    绑定了敏感注解的处理器，参考{@link red.zyc.desensitization.handler.AbstractCharSequenceHandler#bind(Annotation)}
+ * @author zyc
+ */
+public record HandlerPlan(Class<?> type,
+                          Annotation annotation,
+                          AnnotationHandler<Object, Annotation, Object> handler,
+                          UnaryOperator<Object> binding) implements TypePlan {
+}
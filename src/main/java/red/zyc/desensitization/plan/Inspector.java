@@ -0,0 +1,347 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.SensitiveVisitor;
+import red.zyc.desensitization.annotation.AlwaysTrue;
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.parser.util.InstanceCreators;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+/**
+ * 根据{@link TypePlan}只读地遍历目标对象，报告每个需要脱敏的值的路径、敏感注解类型以及长度，
+ * 不会调用处理器，也不会创建脱敏后的字符串或者容器的副本。与脱敏时一样，敏感注解的{@code condition}
+ * 不满足的值不会被报告。路径以{@code $}表示目标对象，例如：
+ * <ul>
+ *     <li>{@code $.customer.phoneNumber}：对象的域</li>
+ *     <li>{@code $.emails[0]}：数组或者集合中的元素</li>
+ *     <li>{@code $.phones[home]}：{@link Map}中的值，键需要脱敏时使用条目的序号{@code $.phones[0]}而不是键</li>
+ *     <li>{@code $.phones{0}}：{@link Map}中需要脱敏的键</li>
+ * </ul>
+ * 交由annotation-parser处理的部分（{@link FallbackPlan}以及无法复制的级联对象）和尚未完成的{@link Future}无法被遍历，
+ * 它们的路径和类型会通过{@link SensitiveVisitor#uninspectable(CharSequence, Class)}报告。
+ *
+ * @author zyc
+ */
+public final class Inspector {
+
+    /**
+     * 敏感注解的类型对应的返回{@link Condition}类型的{@code condition}方法，没有该方法时为{@code null}
+     */
+    private static final ClassValue<Method> CONDITION_METHODS = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                Method method = type.getMethod("condition");
+                return method.getReturnType() == Class.class ? method : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    /**
+     * 总是需要脱敏的条件
+     */
+    private static final Condition<Object> ALWAYS = new AlwaysTrue();
+
+    private final SensitiveVisitor visitor;
+
+    /**
+     * 本次遍历中每个敏感注解对应的条件，脱敏计划中的注解实例是共享的，因此按照引用缓存
+     */
+    private final Map<Annotation, Condition<Object>> conditions = new IdentityHashMap<>();
+
+    /**
+     * 当前值的路径，进入下一层时追加、返回时截断，不会为每个值创建新的字符串
+     */
+    private final StringBuilder path = new StringBuilder("$");
+
+    /**
+     * 当前正在遍历的对象，用来检测循环引用
+     */
+    private final Set<Object> visiting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private long found;
+
+    /**
+     * @param visitor 接收需要脱敏的值的{@link SensitiveVisitor}
+     */
+    public Inspector(SensitiveVisitor visitor) {
+        this.visitor = visitor;
+    }
+
+    /**
+     * 遍历目标对象
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @return 需要脱敏的值的数量
+     */
+    public long inspect(Object target, TypePlan plan) {
+        visit(target, plan);
+        return found;
+    }
+
+    /**
+     * 根据脱敏计划的类型遍历目标对象
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     */
+    private void visit(Object target, TypePlan plan) {
+        if (target == null) {
+            return;
+        }
+        switch (plan) {
+            case SkipPlan skip -> {
+            }
+            case HandlerPlan handler -> {
+                if (condition(handler.annotation()).required(target)) {
+                    found(handler.annotation(), length(target));
+                }
+            }
+            case ArrayPlan array -> array(target, array.component());
+            case CollectionPlan collection -> iterable((Collection<?>) target, collection.element());
+            case MapPlan map -> map((Map<?, ?>) target, map.key(), map.value());
+            case OptionalPlan optional -> visit(((Optional<?>) target).orElse(null), optional.value());
+            case FuturePlan future -> {
+                if (target instanceof Future<?> completed && completed.state() == Future.State.SUCCESS) {
+                    visit(completed.resultNow(), future.value());
+                } else {
+                    visitor.uninspectable(path, target.getClass());
+                }
+            }
+            case CascadePlan cascade -> cascade(target, cascade);
+            case FallbackPlan fallback -> visitor.uninspectable(path, target.getClass());
+            case ChainPlan chain -> chain.plans().forEach(typePlan -> visit(target, typePlan));
+        }
+    }
+
+    /**
+     * 遍历数组，由处理器处理的{@code long}、{@code int}数组不会产生装箱
+     *
+     * @param target    目标数组
+     * @param component 数组元素的脱敏计划
+     */
+    private void array(Object target, TypePlan component) {
+        if (component == SkipPlan.INSTANCE) {
+            return;
+        }
+        int mark = path.length();
+        switch (target) {
+            case Object[] values -> {
+                for (int i = 0; i < values.length; i++) {
+                    path.append('[').append(i).append(']');
+                    visit(values[i], component);
+                    path.setLength(mark);
+                }
+            }
+            case long[] values when component instanceof HandlerPlan handler -> {
+                Condition<Object> condition = condition(handler.annotation());
+                for (int i = 0; i < values.length; i++) {
+                    if (condition == ALWAYS || condition.required(values[i])) {
+                        path.append('[').append(i).append(']');
+                        found(handler.annotation(), digits(values[i]));
+                        path.setLength(mark);
+                    }
+                }
+            }
+            case int[] values when component instanceof HandlerPlan handler -> {
+                Condition<Object> condition = condition(handler.annotation());
+                for (int i = 0; i < values.length; i++) {
+                    if (condition == ALWAYS || condition.required(values[i])) {
+                        path.append('[').append(i).append(']');
+                        found(handler.annotation(), digits(values[i]));
+                        path.setLength(mark);
+                    }
+                }
+            }
+            default -> {
+                for (int i = 0, length = Array.getLength(target); i < length; i++) {
+                    path.append('[').append(i).append(']');
+                    visit(Array.get(target, i), component);
+                    path.setLength(mark);
+                }
+            }
+        }
+    }
+
+    /**
+     * 遍历集合
+     *
+     * @param target  目标集合
+     * @param element 集合元素的脱敏计划
+     */
+    private void iterable(Collection<?> target, TypePlan element) {
+        if (element == SkipPlan.INSTANCE) {
+            return;
+        }
+        int mark = path.length();
+        int i = 0;
+        for (Object value : target) {
+            path.append('[').append(i++).append(']');
+            visit(value, element);
+            path.setLength(mark);
+        }
+    }
+
+    /**
+     * 遍历{@link Map}
+     *
+     * @param target 目标{@link Map}
+     * @param key    键的脱敏计划
+     * @param value  值的脱敏计划
+     */
+    private void map(Map<?, ?> target, TypePlan key, TypePlan value) {
+        if (key == SkipPlan.INSTANCE && value == SkipPlan.INSTANCE) {
+            return;
+        }
+        int mark = path.length();
+        int i = 0;
+        for (Map.Entry<?, ?> entry : target.entrySet()) {
+            if (key != SkipPlan.INSTANCE) {
+                path.append('{').append(i).append('}');
+                visit(entry.getKey(), key);
+                path.setLength(mark);
+                path.append('[').append(i).append(']');
+            } else {
+                path.append('[').append(entry.getKey()).append(']');
+            }
+            visit(entry.getValue(), value);
+            path.setLength(mark);
+            i++;
+        }
+    }
+
+    /**
+     * 遍历级联的对象中需要脱敏的域
+     *
+     * @param target 目标对象
+     * @param plan   级联脱敏计划
+     */
+    private void cascade(Object target, CascadePlan plan) {
+        ObjectPlan objectPlan = plan.objectPlan(target.getClass());
+        if (!objectPlan.copyable()) {
+            visitor.uninspectable(path, target.getClass());
+            return;
+        }
+        if (!objectPlan.sensitive() || !visiting.add(target)) {
+            return;
+        }
+        int mark = path.length();
+        try {
+            for (FieldPlan field : objectPlan.fields()) {
+                if (field.plan() != SkipPlan.INSTANCE) {
+                    path.append('.').append(field.field().getName());
+                    visit(field.field().get(target), field.plan());
+                    path.setLength(mark);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            visiting.remove(target);
+        }
+    }
+
+    /**
+     * @param annotation 敏感注解
+     * @return 敏感注解的{@code condition}对应的条件，没有{@code condition}或者无法读取时为{@link #ALWAYS}
+     */
+    private Condition<Object> condition(Annotation annotation) {
+        Condition<Object> condition = conditions.get(annotation);
+        if (condition == null) {
+            condition = createCondition(annotation);
+            conditions.put(annotation, condition);
+        }
+        return condition;
+    }
+
+    /**
+     * @param annotation 敏感注解
+     * @return 敏感注解的{@code condition}对应的条件的新实例，与处理器一样通过{@link InstanceCreators}创建
+     */
+    @SuppressWarnings("unchecked")
+    private static Condition<Object> createCondition(Annotation annotation) {
+        Method method = CONDITION_METHODS.get(annotation.annotationType());
+        if (method == null) {
+            return ALWAYS;
+        }
+        Object value;
+        try {
+            value = method.invoke(annotation);
+        } catch (ReflectiveOperationException e) {
+            // 敏感注解所在的包没有导出时无法读取条件，宁可多报告也不能漏报
+            return ALWAYS;
+        }
+        if (value == AlwaysTrue.class || !(value instanceof Class<?> type) || !Condition.class.isAssignableFrom(type)) {
+            return ALWAYS;
+        }
+        return InstanceCreators.find((Class<? extends Condition<Object>>) type).create();
+    }
+
+    /**
+     * 报告当前路径上需要脱敏的值
+     *
+     * @param annotation 敏感注解
+     * @param length     值的长度
+     */
+    private void found(Annotation annotation, int length) {
+        found++;
+        visitor.visit(path, annotation.annotationType(), length);
+    }
+
+    /**
+     * @param value 需要脱敏的值
+     * @return 字符序列的长度，整数的十进制位数（包括负号），其它值的字符串形式的长度
+     */
+    private static int length(Object value) {
+        return switch (value) {
+            case CharSequence sequence -> sequence.length();
+            case Long number -> digits(number);
+            case Integer number -> digits(number);
+            default -> String.valueOf(value).length();
+        };
+    }
+
+    /**
+     * @param value 整数
+     * @return 整数的十进制位数（包括负号）
+     */
+    private static int digits(long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        int digits = value < 0 ? 2 : 1;
+        for (long remaining = Math.abs(value); remaining >= 10; remaining /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+}
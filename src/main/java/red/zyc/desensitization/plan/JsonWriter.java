@@ -0,0 +1,404 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.handler.AbstractNumberHandler;
+import red.zyc.desensitization.handler.CharSequenceMasker;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * 根据{@link TypePlan}将目标对象脱敏后直接以JSON格式写入{@link Appendable}，不会创建脱敏后的中间对象。
+ * 由{@link CharSequenceMasker}处理的字符序列会被逐个字符地写入，其它处理器、{@link FallbackPlan}以及{@link ChainPlan}
+ * 只能先脱敏再写入脱敏后的值。对象会被写成包含其所有实例域的JSON对象，{@code java.*}包中的其它类型会被写成其
+ * {@link Object#toString()}对应的JSON字符串。
+ *
+ * @author zyc
+ */
+public final class JsonWriter {
+
+    private final Appendable out;
+
+    /**
+     * 对JSON字符串中的字符进行转义后写入{@link #out}
+     */
+    private final Appendable escaper;
+
+    /**
+     * 当前正在写入的对象，用来检测循环引用
+     */
+    private final Set<Object> writing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * @param out 写入的目标
+     */
+    public JsonWriter(Appendable out) {
+        this.out = out;
+        this.escaper = new Escaper(out);
+    }
+
+    /**
+     * 根据脱敏计划将目标对象脱敏后写入
+     *
+     * @param target 目标对象
+     * @param plan   目标对象的脱敏计划
+     * @throws IOException 写入失败
+     */
+    public void write(Object target, TypePlan plan) throws IOException {
+        if (target == null) {
+            out.append("null");
+            return;
+        }
+        switch (plan) {
+            case SkipPlan skip -> raw(target);
+            case HandlerPlan handler -> handler(target, handler);
+            case ArrayPlan array -> array(target, array.component());
+            case CollectionPlan collection -> iterable((Collection<?>) target, collection.element());
+            case MapPlan map -> map((Map<?, ?>) target, map.key(), map.value());
+            case OptionalPlan optional -> write(((Optional<?>) target).orElse(null), optional.value());
+            case FuturePlan future -> future((CompletionStage<?>) target, future.value());
+            case CascadePlan cascade -> cascade(target, cascade);
+            case FallbackPlan fallback -> raw(Desensitizer.desensitize(target, fallback));
+            case ChainPlan chain -> raw(Desensitizer.desensitize(target, chain));
+        }
+    }
+
+    /**
+     * 使用处理器脱敏后写入
+     *
+     * @param target 目标对象
+     * @param plan   处理器对应的计划
+     * @throws IOException 写入失败
+     */
+    private void handler(Object target, HandlerPlan plan) throws IOException {
+        if (!masked(target, plan)) {
+            raw(plan.binding().apply(target));
+        }
+    }
+
+    /**
+     * 由{@link CharSequenceMasker}处理的字符序列会被逐个字符地写成JSON字符串
+     *
+     * @param target 目标对象
+     * @param plan   处理器对应的计划
+     * @return 是否已经写入
+     * @throws IOException 写入失败
+     */
+    @SuppressWarnings("unchecked")
+    private boolean masked(Object target, HandlerPlan plan) throws IOException {
+        if (target instanceof CharSequence charSequence && plan.binding() instanceof CharSequenceMasker<?> masker) {
+            out.append('"');
+            ((CharSequenceMasker<CharSequence>) masker).write(charSequence, escaper);
+            out.append('"');
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 级联脱敏后写入，不包含敏感域的对象与不需要脱敏的值一样写入
+     *
+     * @param target 目标对象
+     * @param plan   级联脱敏计划
+     * @throws IOException 写入失败
+     */
+    private void cascade(Object target, CascadePlan plan) throws IOException {
+        ObjectPlan objectPlan = plan.objectPlan(target.getClass());
+        if (objectPlan.sensitive()) {
+            object(target, objectPlan, false);
+        } else {
+            raw(target);
+        }
+    }
+
+    /**
+     * 写入数组，基本类型数组的元素由数字处理器处理时不会产生装箱
+     *
+     * @param target    目标数组
+     * @param component 数组元素的脱敏计划
+     * @throws IOException 写入失败
+     */
+    @SuppressWarnings("unchecked")
+    private void array(Object target, TypePlan component) throws IOException {
+        if (target instanceof Object[] objects) {
+            out.append('[');
+            for (int i = 0; i < objects.length; i++) {
+                comma(i);
+                write(objects[i], component);
+            }
+            out.append(']');
+            return;
+        }
+        Object candidate = component instanceof HandlerPlan plan ? plan.handler() : null;
+        if (candidate instanceof AbstractNumberHandler<?> numberHandler && (target instanceof long[] || target instanceof int[])) {
+            var handler = (AbstractNumberHandler<Annotation>) numberHandler;
+            Annotation annotation = ((HandlerPlan) component).annotation();
+            out.append('[');
+            int length = Array.getLength(target);
+            for (int i = 0; i < length; i++) {
+                comma(i);
+                number(target instanceof long[] values ? handler.handle(values[i], annotation) : handler.handle(((int[]) target)[i], annotation));
+            }
+            out.append(']');
+            return;
+        }
+        out.append('[');
+        int length = Array.getLength(target);
+        for (int i = 0; i < length; i++) {
+            comma(i);
+            write(Array.get(target, i), component);
+        }
+        out.append(']');
+    }
+
+    /**
+     * 写入已经正常完成的异步结果的值，尚未完成或者异常完成时写入{@code null}，写入时不会等待异步结果完成
+     *
+     * @param target 目标异步结果
+     * @param value  值的脱敏计划
+     * @throws IOException 写入失败
+     */
+    private void future(CompletionStage<?> target, TypePlan value) throws IOException {
+        CompletableFuture<?> future;
+        try {
+            future = target.toCompletableFuture();
+        } catch (UnsupportedOperationException e) {
+            out.append("null");
+            return;
+        }
+        write(future.state() == Future.State.SUCCESS ? future.resultNow() : null, value);
+    }
+
+    /**
+     * 写入可迭代的容器
+     *
+     * @param target  目标容器
+     * @param element 元素的脱敏计划
+     * @throws IOException 写入失败
+     */
+    private void iterable(Iterable<?> target, TypePlan element) throws IOException {
+        enter(target);
+        out.append('[');
+        int i = 0;
+        for (Object value : target) {
+            comma(i++);
+            write(value, element);
+        }
+        out.append(']');
+        writing.remove(target);
+    }
+
+    /**
+     * 写入{@link Map}，键总是被写成JSON字符串
+     *
+     * @param target 目标{@link Map}
+     * @param key    键的脱敏计划
+     * @param value  值的脱敏计划
+     * @throws IOException 写入失败
+     */
+    private void map(Map<?, ?> target, TypePlan key, TypePlan value) throws IOException {
+        enter(target);
+        out.append('{');
+        int i = 0;
+        for (Map.Entry<?, ?> entry : target.entrySet()) {
+            comma(i++);
+            if (!(key instanceof HandlerPlan handler && masked(entry.getKey(), handler))) {
+                string(String.valueOf(Desensitizer.desensitize(entry.getKey(), key)));
+            }
+            out.append(':');
+            write(entry.getValue(), value);
+        }
+        out.append('}');
+        writing.remove(target);
+    }
+
+    /**
+     * 将对象写成JSON对象
+     *
+     * @param target 目标对象
+     * @param plan   对象的脱敏计划
+     * @param raw    是否忽略域上的敏感注解
+     * @throws IOException 写入失败
+     */
+    private void object(Object target, ObjectPlan plan, boolean raw) throws IOException {
+        enter(target);
+        out.append('{');
+        int i = 0;
+        for (FieldPlan field : plan.fields()) {
+            comma(i++);
+            string(field.field().getName());
+            out.append(':');
+            Object value;
+            try {
+                value = field.field().get(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(String.format("%s is not accessible", field.field()), e);
+            }
+            write(value, raw ? SkipPlan.INSTANCE : field.plan());
+        }
+        out.append('}');
+        writing.remove(target);
+    }
+
+    /**
+     * 写入不需要脱敏的值
+     *
+     * @param target 目标对象
+     * @throws IOException 写入失败
+     */
+    private void raw(Object target) throws IOException {
+        switch (target) {
+            case null -> out.append("null");
+            case CharSequence charSequence -> string(charSequence);
+            case Character character -> string(String.valueOf(character.charValue()));
+            case Boolean bool -> out.append(bool ? "true" : "false");
+            case Long value -> number(value);
+            case Integer value -> number(value);
+            case Short value -> number(value);
+            case Byte value -> number(value);
+            case Double value -> out.append(Double.isFinite(value) ? value.toString() : "null");
+            case Float value -> out.append(Float.isFinite(value) ? value.toString() : "null");
+            case BigDecimal value -> out.append(value.toPlainString());
+            case BigInteger value -> out.append(value.toString());
+            case Enum<?> value -> string(value.name());
+            case Collection<?> collection -> iterable(collection, SkipPlan.INSTANCE);
+            case Map<?, ?> map -> map(map, SkipPlan.INSTANCE, SkipPlan.INSTANCE);
+            case Object array when array.getClass().isArray() -> array(array, SkipPlan.INSTANCE);
+            case Object value when value.getClass().getPackageName().startsWith("java.") -> string(value.toString());
+            default -> object(target, TypePlans.objectPlan(target.getClass(), true), true);
+        }
+    }
+
+    /**
+     * 写入JSON字符串
+     *
+     * @param value 字符序列
+     * @throws IOException 写入失败
+     */
+    private void string(CharSequence value) throws IOException {
+        out.append('"');
+        escaper.append(value);
+        out.append('"');
+    }
+
+    /**
+     * 不创建字符串写入整数
+     *
+     * @param value 整数
+     * @throws IOException 写入失败
+     */
+    private void number(long value) throws IOException {
+        if (value < 0) {
+            out.append('-');
+        } else {
+            value = -value;
+        }
+        // 使用负数计算避免Long.MIN_VALUE溢出
+        long unit = -1;
+        while (unit >= Long.MIN_VALUE / 10 && value <= unit * 10) {
+            unit *= 10;
+        }
+        for (; unit != 0; unit /= 10) {
+            out.append((char) ('0' + value / unit));
+            value %= unit;
+        }
+    }
+
+    /**
+     * 写入元素之间的逗号
+     *
+     * @param index 元素的索引
+     * @throws IOException 写入失败
+     */
+    private void comma(int index) throws IOException {
+        if (index > 0) {
+            out.append(',');
+        }
+    }
+
+    /**
+     * 标记开始写入容器或者对象
+     *
+     * @param target 容器或者对象
+     */
+    private void enter(Object target) {
+        if (!writing.add(target)) {
+            throw new IllegalStateException(String.format("Circular reference detected: %s", target.getClass().getName()));
+        }
+    }
+
+    /**
+     * 转义JSON字符串中的双引号、反斜杠以及控制字符
+     *
+     * @param out 写入的目标
+     */
+    private record Escaper(Appendable out) implements Appendable {
+
+        /**
+         * 十六进制数字
+         */
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        @Override
+        public Appendable append(CharSequence csq) throws IOException {
+            return append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) throws IOException {
+            for (int i = start; i < end; i++) {
+                append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) throws IOException {
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+            return this;
+        }
+    }
+}
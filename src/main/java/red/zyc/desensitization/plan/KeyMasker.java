@@ -0,0 +1,330 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.handler.AbstractNumberHandler;
+import red.zyc.parser.handler.AnnotationHandler;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 根据键名对没有类型信息的{@link Map}树进行脱敏，例如解析后的JSON或者事件的属性。递归遍历嵌套的{@link Map}、{@link Collection}
+ * 以及对象数组，键名匹配某条规则时该键对应的所有字符序列和数字都会按照规则脱敏，值是容器时规则会作用于容器中的所有值。
+ * 规则是数字处理器时只有数字会被脱敏并保持原来的类型，其它规则下数字会先转换成字符串。
+ * <p>
+ * 键名在匹配时忽略大小写以及{@code _}、{@code -}分隔符，例如{@code phoneNumber}、{@code PHONE_NUMBER}和{@code phone-number}
+ * 都会匹配同一条规则。所有规则的键名在创建时被放入一个完美哈希表，构建时不断更换哈希种子直到所有键名都落在不同的槽中，
+ * 因此每次查找只需要对键名计算一次哈希并与一个槽中的键名比较，不会创建键名的小写副本。
+ * <p>
+ * 容器中没有任何值发生变化时返回原容器，否则{@link Map}重新构建成{@link LinkedHashMap}，{@link Set}重新构建成{@link LinkedHashSet}，
+ * 其它{@link Collection}重新构建成{@link ArrayList}。
+ *
+ * @author zyc
+ */
+public final class KeyMasker {
+
+    /**
+     * 每种表大小尝试的哈希种子的数量，超过后扩大哈希表
+     */
+    private static final int SEEDS = 1024;
+
+    private final int seed;
+
+    private final int mask;
+
+    private final String[] keys;
+
+    private final List<UnaryOperator<Object>> bindings;
+
+    private KeyMasker(int seed, String[] keys, List<UnaryOperator<Object>> bindings) {
+        this.seed = seed;
+        this.mask = keys.length - 1;
+        this.keys = keys;
+        this.bindings = bindings;
+    }
+
+    /**
+     * 创建根据键名脱敏的{@link KeyMasker}
+     *
+     * @param rules 键名与敏感注解的映射，忽略大小写和分隔符后相同的键名以最后一个为准
+     * @return {@link KeyMasker}
+     */
+    public static KeyMasker of(Map<String, Annotation> rules) {
+        Map<String, UnaryOperator<Object>> normalized = new LinkedHashMap<>();
+        rules.forEach((key, annotation) -> normalized.put(normalize(key), bind(annotation)));
+        String[] candidates = normalized.keySet().toArray(String[]::new);
+        for (int size = Integer.highestOneBit(Math.max(1, candidates.length * 2 - 1)) << 1; ; size <<= 1) {
+            for (int seed = 1; seed <= SEEDS; seed++) {
+                String[] keys = new String[size];
+                if (place(candidates, keys, seed)) {
+                    List<UnaryOperator<Object>> bindings = new ArrayList<>(size);
+                    for (String key : keys) {
+                        bindings.add(key == null ? null : normalized.get(key));
+                    }
+                    return new KeyMasker(seed, keys, bindings);
+                }
+            }
+        }
+    }
+
+    /**
+     * 根据键名对目标对象脱敏
+     *
+     * @param target 目标对象，通常是{@link Map}
+     * @return 脱敏后的对象，没有任何值发生变化时返回原对象
+     */
+    public Object desensitize(Object target) {
+        return desensitize(target, null);
+    }
+
+    /**
+     * 查找键名对应的规则
+     *
+     * @param key 键名
+     * @return 键名对应的绑定了敏感注解的处理器，没有对应的规则时返回{@code null}
+     */
+    public UnaryOperator<Object> find(CharSequence key) {
+        int slot = hash(key, seed) & mask;
+        String candidate = keys[slot];
+        return candidate != null && matches(key, candidate) ? bindings.get(slot) : null;
+    }
+
+    /**
+     * 将敏感注解绑定到处理器上，数字处理器只处理其支持的数字，其它处理器处理字符序列以及转换成字符串后的数字
+     *
+     * @param annotation 敏感注解
+     * @return 绑定了敏感注解的处理器，不支持的值原样返回
+     */
+    private static UnaryOperator<Object> bind(Annotation annotation) {
+        AnnotationHandler<Object, Annotation, Object> handler = TypePlans.handler(annotation);
+        UnaryOperator<Object> binding = TypePlans.bind(handler, annotation);
+        Object candidate = handler;
+        if (candidate instanceof AbstractNumberHandler<?>) {
+            return value -> value instanceof Number && AbstractNumberHandler.supports(value.getClass()) ? binding.apply(value) : value;
+        }
+        return value -> value instanceof CharSequence || value instanceof Number ? binding.apply(value.toString()) : value;
+    }
+
+    /**
+     * 递归脱敏
+     *
+     * @param target  目标对象
+     * @param binding 上层的键名对应的规则，没有时为{@code null}
+     * @return 脱敏后的对象
+     */
+    private Object desensitize(Object target, UnaryOperator<Object> binding) {
+        return switch (target) {
+            case null -> null;
+            case Map<?, ?> map -> map(map, binding);
+            case Collection<?> collection -> collection(collection, binding);
+            case Object[] array -> array(array, binding);
+            case CharSequence sequence when binding != null -> binding.apply(sequence);
+            case Number number when binding != null -> binding.apply(number);
+            default -> target;
+        };
+    }
+
+    /**
+     * {@link Map}脱敏，键名匹配的规则会作用于对应的值
+     *
+     * @param target  目标{@link Map}
+     * @param binding 上层的键名对应的规则，没有时为{@code null}
+     * @return 脱敏后的{@link Map}
+     */
+    private Map<?, ?> map(Map<?, ?> target, UnaryOperator<Object> binding) {
+        Map<Object, Object> result = null;
+        int index = 0;
+        for (Map.Entry<?, ?> entry : target.entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            UnaryOperator<Object> current = binding;
+            if (current == null && key instanceof CharSequence name) {
+                current = find(name);
+            }
+            Object masked = current == null && !container(value) ? value : desensitize(value, current);
+            if (result == null && masked != value) {
+                // 第一个发生变化的值之前的所有条目原样复制
+                result = LinkedHashMap.newLinkedHashMap(target.size());
+                Iterator<? extends Map.Entry<?, ?>> iterator = target.entrySet().iterator();
+                for (int i = 0; i < index; i++) {
+                    Map.Entry<?, ?> previous = iterator.next();
+                    result.put(previous.getKey(), previous.getValue());
+                }
+            }
+            if (result != null) {
+                result.put(key, masked);
+            }
+            index++;
+        }
+        return result == null ? target : result;
+    }
+
+    /**
+     * {@link Collection}脱敏
+     *
+     * @param target  目标集合
+     * @param binding 上层的键名对应的规则，没有时为{@code null}
+     * @return 脱敏后的集合
+     */
+    private Collection<?> collection(Collection<?> target, UnaryOperator<Object> binding) {
+        Collection<Object> result = null;
+        int index = 0;
+        for (Object element : target) {
+            Object masked = binding == null && !container(element) ? element : desensitize(element, binding);
+            if (result == null && masked != element) {
+                result = target instanceof Set<?> ? LinkedHashSet.newLinkedHashSet(target.size()) : new ArrayList<>(target.size());
+                Iterator<?> iterator = target.iterator();
+                for (int i = 0; i < index; i++) {
+                    result.add(iterator.next());
+                }
+            }
+            if (result != null) {
+                result.add(masked);
+            }
+            index++;
+        }
+        return result == null ? target : result;
+    }
+
+    /**
+     * 对象数组脱敏
+     *
+     * @param target  目标数组
+     * @param binding 上层的键名对应的规则，没有时为{@code null}
+     * @return 脱敏后的数组
+     */
+    private Object[] array(Object[] target, UnaryOperator<Object> binding) {
+        Object[] result = null;
+        for (int i = 0; i < target.length; i++) {
+            Object element = target[i];
+            Object masked = binding == null && !container(element) ? element : desensitize(element, binding);
+            if (masked != element) {
+                if (result == null) {
+                    // 数字脱敏后可能是字符串，因此总是复制成Object[]
+                    result = Arrays.copyOf(target, target.length, Object[].class);
+                }
+                result[i] = masked;
+            }
+        }
+        return result == null ? target : result;
+    }
+
+    private static boolean container(Object value) {
+        return value instanceof Map<?, ?> || value instanceof Collection<?> || value instanceof Object[];
+    }
+
+    /**
+     * 将所有键名放入哈希表
+     *
+     * @param candidates 所有规范化后的键名
+     * @param keys       哈希表
+     * @param seed       哈希种子
+     * @return 所有键名是否都落在不同的槽中
+     */
+    private static boolean place(String[] candidates, String[] keys, int seed) {
+        for (String candidate : candidates) {
+            int slot = hash(candidate, seed) & (keys.length - 1);
+            if (keys[slot] != null) {
+                return false;
+            }
+            keys[slot] = candidate;
+        }
+        return true;
+    }
+
+    /**
+     * 忽略大小写和分隔符计算键名的哈希值
+     *
+     * @param key  键名
+     * @param seed 哈希种子
+     * @return 哈希值
+     */
+    private static int hash(CharSequence key, int seed) {
+        int h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!separator(c)) {
+                h = (h ^ fold(c)) * 0x01000193;
+            }
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 忽略大小写和分隔符比较键名
+     *
+     * @param key       键名
+     * @param candidate 规范化后的键名
+     * @return 是否匹配
+     */
+    private static boolean matches(CharSequence key, String candidate) {
+        int j = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (separator(c)) {
+                continue;
+            }
+            if (j == candidate.length() || fold(c) != candidate.charAt(j++)) {
+                return false;
+            }
+        }
+        return j == candidate.length();
+    }
+
+    /**
+     * @param key 键名
+     * @return 去除分隔符并转换成小写后的键名
+     */
+    private static String normalize(String key) {
+        StringBuilder builder = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!separator(c)) {
+                builder.append(fold(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean separator(char c) {
+        return c == '_' || c == '-';
+    }
+
+    /**
+     * 与{@link String#equalsIgnoreCase(String)}一致的大小写折叠，ASCII字符不需要查表
+     *
+     * @param c 字符
+     * @return 折叠后的字符
+     */
+    private static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
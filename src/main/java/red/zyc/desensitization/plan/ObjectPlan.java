@@ -0,0 +1,38 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.parser.util.InstanceCreator;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+/**
+ * 某个运行时类型的对象的脱敏计划
+ *
+ * @param type        对象的运行时类型
+ * @param fields      对象所有实例域的脱敏计划，不需要脱敏的域的计划为{@link SkipPlan}
+ * @param sensitive   对象是否包含需要脱敏的域，不包含时直接返回原对象
+ * @param copyable    对象的所有实例域是否都能通过反射访问，不能访问时交由{@link red.zyc.parser.AnnotationParser}处理
+ * @param creator     创建对象副本的{@link InstanceCreator}，避免每次复制时重新查找，记录类型为{@code null}
+ * @param constructor 记录类型的规范构造器，接收按照记录组件顺序排列的参数数组，其它类型为{@code null}
+ * @author zyc
+ */
+public record ObjectPlan(Class<?> type, List<FieldPlan> fields, boolean sensitive, boolean copyable,
+                         InstanceCreator<?> creator, MethodHandle constructor) {
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 级联脱敏计划的内联缓存，记录该计划遇到过的少量运行时类型对应的{@link ObjectPlan}，命中时只需要比较{@link Class}的引用。
+ * 遇到的运行时类型超过容量后不再记录，直接查询所属{@link PlanCache}中的缓存。
+ * 声明的类型是密封类型时，所有允许的具体子类型会在首次使用时一次性解析，缓存的容量足以容纳所有允许的子类型。
+ *
+ * @author zyc
+ * @see CascadePlan
+ */
+public final class ObjectPlanCache {
+
+    /**
+     * 非密封类型的内联缓存能够记录的运行时类型的数量
+     */
+    static final int CAPACITY = 4;
+
+    private static final ObjectPlan[] EMPTY = new ObjectPlan[0];
+
+    private final boolean inherited;
+
+    private final PlanCache cache;
+
+    /**
+     * 声明的类型是密封类型时所有允许的具体子类型
+     */
+    private final List<Class<?>> permitted;
+
+    private final int capacity;
+
+    /**
+     * 已经记录的运行时类型对应的脱敏计划，每次记录新的运行时类型时都会整体替换
+     */
+    private volatile ObjectPlan[] plans = EMPTY;
+
+    /**
+     * @param declaredType 声明的类型
+     * @param inherited    是否需要脱敏从父类继承的域
+     * @param cache        解析运行时类型的脱敏计划时使用的脱敏计划缓存
+     */
+    ObjectPlanCache(Class<?> declaredType, boolean inherited, PlanCache cache) {
+        this.inherited = inherited;
+        this.cache = cache;
+        this.permitted = permitted(declaredType);
+        this.capacity = Math.max(CAPACITY, permitted.size());
+    }
+
+    /**
+     * 获取运行时类型对应的脱敏计划
+     *
+     * @param type 对象的运行时类型
+     * @return 运行时类型对应的脱敏计划
+     */
+    public ObjectPlan get(Class<?> type) {
+        ObjectPlan[] current = plans;
+        for (ObjectPlan plan : current) {
+            if (plan.type() == type) {
+                return plan;
+            }
+        }
+        return miss(type, current);
+    }
+
+    /**
+     * @return 声明的类型是密封类型时所有允许的具体子类型，否则为空
+     */
+    public List<Class<?>> permitted() {
+        return permitted;
+    }
+
+    /**
+     * 内联缓存未命中时从所属{@link PlanCache}中获取脱敏计划并尝试记录下来。并发记录时可能会丢失其中一个运行时类型，
+     * 这只会导致下一次调用再次未命中。
+     *
+     * @param type    对象的运行时类型
+     * @param current 未命中时的内联缓存
+     * @return 运行时类型对应的脱敏计划
+     */
+    private ObjectPlan miss(Class<?> type, ObjectPlan[] current) {
+        if (current.length == 0 && !permitted.isEmpty()) {
+            current = permitted.stream().map(clazz -> TypePlans.objectPlan(clazz, inherited, cache)).toArray(ObjectPlan[]::new);
+            plans = current;
+            for (ObjectPlan plan : current) {
+                if (plan.type() == type) {
+                    return plan;
+                }
+            }
+        }
+        ObjectPlan plan = TypePlans.objectPlan(type, inherited, cache);
+        if (current.length < capacity) {
+            ObjectPlan[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = plan;
+            plans = updated;
+        }
+        return plan;
+    }
+
+    /**
+     * 收集密封类型所有允许的具体子类型，允许的子类型也是密封类型时会继续收集
+     *
+     * @param type 声明的类型
+     * @return 所有允许的具体子类型，类型不是密封类型时为空
+     */
+    private static List<Class<?>> permitted(Class<?> type) {
+        if (!type.isSealed()) {
+            return List.of();
+        }
+        Set<Class<?>> result = new LinkedHashSet<>();
+        collect(type, result);
+        return List.copyOf(result);
+    }
+
+    private static void collect(Class<?> type, Set<Class<?>> result) {
+        if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+            result.add(type);
+        }
+        if (type.isSealed()) {
+            for (Class<?> subclass : type.getPermittedSubclasses()) {
+                collect(subclass, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.lang.reflect.AnnotatedType;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 某个规则快照在某组激活的分组下的脱敏计划缓存。解析出的脱敏计划中的级联计划同样持有该缓存，
+ * 因此一次脱敏中解析的所有对象的脱敏计划都来自同一个规则快照。
+ *
+ * @author zyc
+ * @see RuleSnapshot#cache(Groups)
+ */
+public final class PlanCache {
+
+    private final RuleSnapshot snapshot;
+
+    private final Groups groups;
+
+    /**
+     * {@link AnnotatedType}对应的脱敏计划缓存
+     */
+    final ConcurrentMap<AnnotatedType, TypePlan> typePlans = new ConcurrentHashMap<>();
+
+    /**
+     * 对象的运行时类型对应的脱敏计划缓存，分别对应{@link red.zyc.parser.type.Cascade#inherited()}为{@code false}和{@code true}
+     */
+    final List<ConcurrentMap<Class<?>, ObjectPlan>> objectPlans = List.of(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    PlanCache(RuleSnapshot snapshot, Groups groups) {
+        this.snapshot = snapshot;
+        this.groups = groups;
+    }
+
+    /**
+     * @return 缓存所属的规则快照
+     */
+    public RuleSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return 激活的分组
+     */
+    public Groups groups() {
+        return groups;
+    }
+
+    @Override
+    public String toString() {
+        return groups.toString();
+    }
+}
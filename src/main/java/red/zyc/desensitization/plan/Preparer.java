@@ -0,0 +1,155 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.plan;
+
+import java.lang.reflect.AnnotatedType;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预先解析类型的脱敏计划，并用合成的数据调用敏感注解对应的处理器，使得处理器、条件、正则表达式都被提前创建，
+ * 同时让JIT提前编译脱敏的热点代码。
+ *
+ * @author zyc
+ */
+public final class Preparer {
+
+    /**
+     * 每个处理器预热的调用次数，足以触发C2编译
+     */
+    private static final int WARMUP_ITERATIONS = 10_000;
+
+    /**
+     * 预热时使用的合成数据，包含了数字、字母以及{@code @}符号
+     */
+    private static final String SAMPLE = "0123456789abcdefghij@example.com";
+
+    /**
+     * 已经预热过的处理器对应的计划，避免重复预热
+     */
+    private static final Set<HandlerPlan> WARMED = ConcurrentHashMap.newKeySet();
+
+    private Preparer() {
+    }
+
+    /**
+     * 预先解析{@link AnnotatedType}对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     */
+    public static void prepare(AnnotatedType annotatedType) {
+        prepare(TypePlans.resolve(annotatedType), ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * 预先解析对象的运行时类型对应的脱敏计划
+     *
+     * @param type 对象的运行时类型
+     */
+    public static void prepare(Class<?> type) {
+        Set<Class<?>> visited = ConcurrentHashMap.newKeySet();
+        prepare(TypePlans.objectPlan(type, false), visited);
+        prepare(TypePlans.objectPlan(type, true), visited);
+    }
+
+    /**
+     * 加载{@link TypeIndex}中记录的所有类型
+     *
+     * @return {@link TypeIndex}中记录的所有类型
+     */
+    public static List<Class<?>> indexedTypes() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return TypeIndex.entries().stream()
+                .map(TypeIndex.Entry::type)
+                .distinct()
+                .<Class<?>>map(name -> {
+                    try {
+                        return Class.forName(name, false, classLoader != null ? classLoader : Preparer.class.getClassLoader());
+                    } catch (ClassNotFoundException e) {
+                        throw new IllegalStateException(String.format("Indexed type %s not found", name), e);
+                    }
+                })
+                .toList();
+    }
+
+    /**
+     * 递归预热脱敏计划
+     *
+     * @param plan    脱敏计划
+     * @param visited 已经预热过的类型，避免对象之间循环引用导致无限递归
+     */
+    private static void prepare(TypePlan plan, Set<Class<?>> visited) {
+        switch (plan) {
+            case HandlerPlan handler -> warmUp(handler);
+            case ArrayPlan array -> prepare(array.component(), visited);
+            case CollectionPlan collection -> prepare(collection.element(), visited);
+            case MapPlan map -> {
+                prepare(map.key(), visited);
+                prepare(map.value(), visited);
+            }
+            case OptionalPlan optional -> prepare(optional.value(), visited);
+            case FuturePlan future -> prepare(future.value(), visited);
+            case CascadePlan cascade -> {
+                if (cascade.declaredType() != Object.class && !cascade.declaredType().isInterface() && visited.add(cascade.declaredType())) {
+                    prepare(TypePlans.objectPlan(cascade.declaredType(), cascade.inherited(), cascade.plans()), visited);
+                }
+                // 密封类型所有允许的子类型都可以提前解析，同时填充级联脱敏计划的内联缓存
+                for (Class<?> type : cascade.objectPlans().permitted()) {
+                    ObjectPlan objectPlan = cascade.objectPlan(type);
+                    if (visited.add(type)) {
+                        prepare(objectPlan, visited);
+                    }
+                }
+            }
+            case ChainPlan chain -> chain.plans().forEach(typePlan -> prepare(typePlan, visited));
+            case SkipPlan skip -> {
+            }
+            case FallbackPlan fallback -> {
+            }
+        }
+    }
+
+    /**
+     * 预热对象的脱敏计划
+     *
+     * @param plan    对象的脱敏计划
+     * @param visited 已经预热过的类型
+     */
+    private static void prepare(ObjectPlan plan, Set<Class<?>> visited) {
+        visited.add(plan.type());
+        plan.fields().forEach(field -> prepare(field.plan(), visited));
+    }
+
+    /**
+     * 使用合成数据调用处理器，使处理器的条件和正则表达式被提前创建并触发JIT编译。
+     * 目前只预热被标注的类型能够接收{@link String}的处理器，预热只是尽力而为，处理器抛出的任何异常都会被忽略。
+     *
+     * @param plan 处理器对应的计划
+     */
+    private static void warmUp(HandlerPlan plan) {
+        if (!plan.type().isAssignableFrom(String.class) || !WARMED.add(plan)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                plan.binding().apply(SAMPLE);
+            }
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.annotation.BankCardNumber;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.annotation.PhoneNumber;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 内置敏感注解使用默认属性时的实例，供不依赖于域或者{@link red.zyc.parser.type.AnnotatedTypeToken}的脱敏规则使用。
+ *
+ * @author zyc
+ */
+public final class Presets {
+
+    /**
+     * 注解类型与其默认实例的映射
+     */
+    private static final Map<Class<? extends Annotation>, Annotation> PRESETS = Arrays.stream(Holder.class.getDeclaredFields())
+            .map(Field::getAnnotations)
+            .map(annotations -> annotations[0])
+            .collect(Collectors.toUnmodifiableMap(Annotation::annotationType, annotation -> annotation));
+
+    private Presets() {
+    }
+
+    /**
+     * 获取内置敏感注解的默认实例
+     *
+     * @param type 内置敏感注解的类型
+     * @param <A>  内置敏感注解的类型
+     * @return 使用默认属性的注解实例
+     */
+    public static <A extends Annotation> A of(Class<A> type) {
+        Annotation annotation = PRESETS.get(type);
+        if (annotation == null) {
+            throw new IllegalArgumentException(String.format("%s is not a built-in sensitive annotation", type.getName()));
+        }
+        return type.cast(annotation);
+    }
+
+    /**
+     * 声明内置敏感注解的域
+     */
+    private static final class Holder {
+
+        @Password
+        String password;
+
+        @PhoneNumber
+        String phoneNumber;
+
+        @Email
+        String email;
+
+        @IdCardNumber
+        String idCardNumber;
+
+        @BankCardNumber
+        String bankCardNumber;
+
+        @ChineseName
+        String chineseName;
+    }
+}
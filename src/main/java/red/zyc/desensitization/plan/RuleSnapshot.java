@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 不可变的规则快照，包含运行时替换的敏感注解、根据键名脱敏的规则以及在该快照下解析的所有脱敏计划。
+ * 新的快照在发布之前会重新解析上一个快照中已经解析过的所有类型，发布只是一次volatile写。
+ * 每次脱敏开始时只读取一次当前快照，之后解析的所有脱敏计划都来自这个快照，因此发布新快照不会影响正在进行的脱敏。
+ *
+ * @author zyc
+ */
+public final class RuleSnapshot {
+
+    private static final Object LOCK = new Object();
+
+    private static volatile RuleSnapshot current = new RuleSnapshot(Map.of(), null);
+
+    /**
+     * 敏感注解类型与替换后的敏感注解的映射
+     */
+    private final Map<Class<? extends Annotation>, Annotation> overrides;
+
+    private final KeyMasker keys;
+
+    private final PlanCache all = new PlanCache(this, Groups.ALL);
+
+    private final ConcurrentMap<Groups, PlanCache> grouped = new ConcurrentHashMap<>();
+
+    /**
+     * @param overrides 敏感注解类型与替换后的敏感注解的映射
+     * @param keys      根据键名脱敏的规则，没有时为{@code null}
+     */
+    public RuleSnapshot(Map<Class<? extends Annotation>, Annotation> overrides, KeyMasker keys) {
+        this.overrides = Map.copyOf(overrides);
+        this.keys = keys;
+    }
+
+    /**
+     * @return 当前的规则快照
+     */
+    public static RuleSnapshot current() {
+        return current;
+    }
+
+    /**
+     * 重新解析当前快照中已经解析过的所有类型后发布新的快照
+     *
+     * @param snapshot 新的规则快照
+     */
+    public static void publish(RuleSnapshot snapshot) {
+        synchronized (LOCK) {
+            snapshot.warm(current);
+            current = snapshot;
+        }
+    }
+
+    /**
+     * 获取激活的分组对应的脱敏计划缓存
+     *
+     * @param groups 激活的分组
+     * @return 激活的分组对应的脱敏计划缓存
+     */
+    public PlanCache cache(Groups groups) {
+        return groups == Groups.ALL ? all : grouped.computeIfAbsent(groups, g -> new PlanCache(this, g));
+    }
+
+    /**
+     * @param annotation 敏感注解
+     * @return 敏感注解在该快照中替换后的敏感注解，没有替换时返回原注解
+     */
+    public Annotation override(Annotation annotation) {
+        return overrides.getOrDefault(annotation.annotationType(), annotation);
+    }
+
+    /**
+     * @return 根据键名脱敏的规则，没有时为{@code null}
+     */
+    public KeyMasker keys() {
+        return keys;
+    }
+
+    /**
+     * 解析上一个快照中已经解析过的所有类型
+     *
+     * @param previous 上一个快照
+     */
+    private void warm(RuleSnapshot previous) {
+        warm(previous.all);
+        previous.grouped.values().forEach(this::warm);
+    }
+
+    private void warm(PlanCache previous) {
+        PlanCache cache = cache(previous.groups());
+        for (AnnotatedType annotatedType : previous.typePlans.keySet()) {
+            TypePlans.resolve(annotatedType, cache);
+        }
+        for (int i = 0; i < previous.objectPlans.size(); i++) {
+            for (Class<?> type : previous.objectPlans.get(i).keySet()) {
+                TypePlans.objectPlan(type, i == 1, cache);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.annotation.BankCardNumber;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.PhoneNumber;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 对没有类型信息的自由文本（例如日志消息）进行脱敏，识别文本中的邮箱、身份证号、银行卡号以及手机号，
+ * 并分别使用{@link Email}、{@link IdCardNumber}、{@link BankCardNumber}以及{@link PhoneNumber}的规则脱敏。
+ * 规则在当前规则快照中被替换时使用替换后的规则。较长的文本会先通过{@link CharScanner}跳过不包含数字和{@code @}的部分，
+ * 只在可能包含敏感信息的单词内匹配正则表达式。
+ *
+ * @author zyc
+ */
+public final class TextMasker {
+
+    /**
+     * 依次匹配邮箱、身份证号、银行卡号以及手机号，18位的数字会优先被当作身份证号
+     */
+    private static final Pattern PATTERN = Pattern.compile(
+            "([A-Za-z0-9._%+-]+@[A-Za-z0-9-]+(?:\\.[A-Za-z0-9-]+)*\\.[A-Za-z]{2,})"
+                    + "|((?<![0-9])[1-9][0-9]{16}[0-9Xx](?![0-9A-Za-z]))"
+                    + "|((?<![0-9])[0-9]{16,19}(?![0-9]))"
+                    + "|((?<![0-9])1[3-9][0-9]{9}(?![0-9]))");
+
+    /**
+     * 与{@link #PATTERN}中每个捕获组对应的内置敏感注解
+     */
+    private static final List<Class<? extends Annotation>> RULES = List.of(Email.class, IdCardNumber.class, BankCardNumber.class, PhoneNumber.class);
+
+    /**
+     * 能够被识别的最短的数字序列的长度，即手机号的长度
+     */
+    private static final int MIN_DIGITS = 11;
+
+    /**
+     * 不短于该长度的文本会被复制为字符数组，使用{@link CharScanner#INSTANCE}查找数字或者{@code @}
+     */
+    private static final int VECTOR_THRESHOLD = 256;
+
+    /**
+     * 最近一次绑定的规则
+     */
+    private static volatile Bindings bindings;
+
+    private TextMasker() {
+    }
+
+    /**
+     * 对文本进行脱敏
+     *
+     * @param text 文本
+     * @return 脱敏后的文本，没有识别到敏感信息时返回原文本
+     */
+    public static String mask(String text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        char[] chars = length >= VECTOR_THRESHOLD ? text.toCharArray() : null;
+        Matcher matcher = null;
+        List<UnaryOperator<Object>> functions = null;
+        StringBuilder builder = null;
+        int last = 0;
+        for (int i = next(text, chars, 0); i < length; i = next(text, chars, i)) {
+            // 所有敏感信息都只由单词字符组成，因此只需要在包含数字或者@的单词内匹配正则表达式
+            int start = i;
+            while (start > 0 && word(text.charAt(start - 1))) {
+                start--;
+            }
+            int end = i + 1;
+            while (end < length && word(text.charAt(end))) {
+                end++;
+            }
+            i = end;
+            if (!candidate(text, start, end)) {
+                continue;
+            }
+            if (matcher == null) {
+                // 透明边界使得单词前后的环视能够看到单词之外的字符
+                matcher = PATTERN.matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+                functions = bindings();
+            }
+            matcher.region(start, end);
+            while (matcher.find()) {
+                int group = 1;
+                while (matcher.start(group) < 0) {
+                    group++;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder(length);
+                }
+                builder.append(text, last, matcher.start()).append(functions.get(group - 1).apply(matcher.group()));
+                last = matcher.end();
+            }
+        }
+        return builder == null ? text : builder.append(text, last, length).toString();
+    }
+
+    /**
+     * 查找下一个数字或者{@code @}
+     *
+     * @param text  文本
+     * @param chars 文本的字符数组，文本较短时为{@code null}
+     * @param from  开始查找的索引
+     * @return 下一个数字或者{@code @}的索引，不存在时返回文本的长度
+     */
+    private static int next(String text, char[] chars, int from) {
+        return chars == null ? CharScanner.scan(text, from, text.length()) : CharScanner.INSTANCE.next(chars, from, chars.length);
+    }
+
+    /**
+     * @param c 字符
+     * @return 字符是否可能是邮箱、身份证号、银行卡号或者手机号的一部分
+     */
+    private static boolean word(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '%' || c == '+' || c == '-' || c == '@';
+    }
+
+    /**
+     * 判断单词是否可能包含敏感信息，即是否存在{@code @}或者不短于{@value #MIN_DIGITS}的连续数字，
+     * 例如日期、时间之类的单词不需要执行正则表达式匹配
+     *
+     * @param text  文本
+     * @param start 单词的起始索引（包含）
+     * @param end   单词的结束索引（不包含）
+     * @return 单词是否可能包含敏感信息
+     */
+    private static boolean candidate(CharSequence text, int start, int end) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits == MIN_DIGITS) {
+                    return true;
+                }
+            } else if (c == '@') {
+                return true;
+            } else {
+                digits = 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return 当前规则快照对应的脱敏函数
+     */
+    private static List<UnaryOperator<Object>> bindings() {
+        RuleSnapshot snapshot = RuleSnapshot.current();
+        Bindings current = bindings;
+        if (current == null || current.snapshot() != snapshot) {
+            current = new Bindings(snapshot, RULES.stream().<UnaryOperator<Object>>map(type -> {
+                Annotation annotation = snapshot.override(Presets.of(type));
+                return TypePlans.bind(TypePlans.handler(annotation), annotation);
+            }).toList());
+            bindings = current;
+        }
+        return current.functions();
+    }
+
+    /**
+     * 某个规则快照对应的脱敏函数
+     *
+     * @param snapshot  规则快照
+     * @param functions 与{@link #RULES}一一对应的脱敏函数
+     */
+    private record Bindings(RuleSnapshot snapshot, List<UnaryOperator<Object>> functions) {
+    }
+}
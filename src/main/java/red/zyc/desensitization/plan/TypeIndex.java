@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.plan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 编译期生成的类型索引，记录了每个类型中包含敏感注解或{@link red.zyc.parser.type.Cascade}的域。
+ * 索引文件位于{@value #LOCATION}，每一行代表域上的一个注解，各列之间以制表符分隔：
+ * <pre>
+ * 类型的二进制名称  域名称  注解类型  处理器类型  正则表达式
+ * </pre>
+ * 以{@code #}开头的行是注释。索引只用来加速解析：索引中记录的域会直接解析脱敏计划，其余的域仍然会检查类型上是否存在注解，
+ * 因此过期或者不完整的索引不会导致敏感的域被遗漏，索引中记录但类型中并不存在的域会被忽略。
+ *
+ * @author zyc
+ * @see red.zyc.desensitization.processor.IndexProcessor
+ */
+public final class TypeIndex {
+
+    /**
+     * 索引文件的位置
+     */
+    public static final String LOCATION = "META-INF/desensitization/index";
+
+    private TypeIndex() {
+    }
+
+    /**
+     * 获取类型在索引中记录的域
+     *
+     * @param type 类型
+     * @return 索引中记录的该类型包含敏感注解的域名称，类型不存在于索引中时返回{@code null}
+     */
+    public static Set<String> fields(Class<?> type) {
+        return Holder.INDEX.fields().get(type.getName());
+    }
+
+    /**
+     * @return 所有索引文件中的记录
+     */
+    public static List<Entry> entries() {
+        return Holder.INDEX.entries();
+    }
+
+    /**
+     * 读取索引文件
+     *
+     * @param classLoader 加载索引文件的{@link ClassLoader}
+     * @return 加载后的索引
+     */
+    private static Index read(ClassLoader classLoader) {
+        try {
+            List<Entry> result = new ArrayList<>();
+            for (URL url : Collections.list(classLoader.getResources(LOCATION))) {
+                try (var reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    reader.lines().filter(line -> !line.isBlank() && !line.startsWith("#")).map(Entry::parse).forEach(result::add);
+                }
+            }
+            Map<String, Set<String>> fields = new HashMap<>();
+            result.forEach(entry -> fields.computeIfAbsent(entry.type(), t -> new LinkedHashSet<>()).add(entry.field()));
+            return new Index(List.copyOf(result), fields.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> Set.copyOf(e.getValue()))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 加载索引文件的{@link ClassLoader}
+     */
+    private static ClassLoader classLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : TypeIndex.class.getClassLoader();
+    }
+
+    /**
+     * 转义正则表达式中的制表符、换行符和反斜杠
+     *
+     * @param value 原始值
+     * @return 转义后的值
+     */
+    public static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    /**
+     * 反转义{@link #escape(String)}转义后的值
+     *
+     * @param value 转义后的值
+     * @return 原始值
+     */
+    public static String unescape(String value) {
+        var builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                builder.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 首次使用时才加载索引文件
+     */
+    private static final class Holder {
+
+        static final Index INDEX = read(classLoader());
+    }
+
+    /**
+     * 加载后的索引
+     *
+     * @param entries 所有索引文件中的记录
+     * @param fields  类型的二进制名称与索引中该类型包含敏感注解的域名称的映射
+     */
+    private record Index(List<Entry> entries, Map<String, Set<String>> fields) {
+    }
+
+    /**
+     * 索引中的一条记录
+     *
+     * @param type       类型的二进制名称
+     * @param field      域名称
+     * @param annotation 注解类型的二进制名称
+     * @param handler    注解对应的处理器类型的二进制名称，{@link red.zyc.parser.type.Cascade}为空字符串
+     * @param regexp     注解的正则表达式，没有时为空字符串
+     */
+    public record Entry(String type, String field, String annotation, String handler, String regexp) {
+
+        /**
+         * 解析索引文件中的一行
+         *
+         * @param line 索引文件中的一行
+         * @return 索引中的一条记录
+         */
+        public static Entry parse(String line) {
+            String[] columns = line.split("\t", -1);
+            if (columns.length != 5) {
+                throw new IllegalArgumentException(String.format("Illegal index line: %s", line));
+            }
+            return new Entry(columns[0], columns[1], columns[2], columns[3], unescape(columns[4]));
+        }
+
+        /**
+         * @return 索引文件中的一行
+         */
+        public String format() {
+            return String.join("\t", type, field, annotation, handler, escape(regexp));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+/**
+ * 预先解析好的脱敏计划，描述了如何对某个{@link java.lang.reflect.AnnotatedType}所代表的对象进行脱敏，
+ * 解析结果会被缓存，脱敏时不再需要反射读取注解。
+ *
+ * @author zyc
+ * @see TypePlans
+ * @see Desensitizer
+ */
+public sealed interface TypePlan permits SkipPlan, HandlerPlan, ArrayPlan, CollectionPlan, MapPlan, OptionalPlan, FuturePlan, CascadePlan, FallbackPlan, ChainPlan {
+}
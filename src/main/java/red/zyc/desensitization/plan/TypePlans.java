@@ -0,0 +1,564 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package red.zyc.desensitization.plan;
+
+import red.zyc.desensitization.annotation.CascadeGroups;
+import red.zyc.desensitization.handler.AbstractCharSequenceHandler;
+import red.zyc.desensitization.handler.AbstractNumberHandler;
+import red.zyc.desensitization.jfr.TypeResolutionEvent;
+import red.zyc.parser.handler.AnnotationHandler;
+import red.zyc.parser.handler.Parse;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+import red.zyc.parser.util.InstanceCreators;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedArrayType;
+import java.lang.reflect.AnnotatedParameterizedType;
+import java.lang.reflect.AnnotatedType;
+import java.lang.reflect.AnnotatedTypeVariable;
+import java.lang.reflect.AnnotatedWildcardType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 解析并缓存{@link TypePlan}和{@link ObjectPlan}
+ *
+ * @author zyc
+ */
+public final class TypePlans {
+
+    /**
+     * 每个{@link AnnotatedTypeToken}子类最近一次解析的脱敏计划，命中时只需要比较{@link AnnotatedType}和脱敏计划缓存的引用，
+     * 避免每次调用都计算{@link AnnotatedType}的哈希值
+     */
+    private static final ClassValue<TokenPlan> TOKEN_PLANS = new ClassValue<>() {
+
+        @Override
+        protected TokenPlan computeValue(Class<?> type) {
+            return new TokenPlan();
+        }
+    };
+
+    private static final Class<?>[] NO_GROUPS = new Class<?>[0];
+
+    private TypePlans() {
+    }
+
+    /**
+     * 获取{@link AnnotatedType}对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @return {@link AnnotatedType}对应的脱敏计划
+     */
+    public static TypePlan resolve(AnnotatedType annotatedType) {
+        return resolve(annotatedType, Groups.ALL);
+    }
+
+    /**
+     * 获取{@link AnnotatedType}在激活的分组下对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param groups        激活的分组
+     * @return {@link AnnotatedType}在激活的分组下对应的脱敏计划
+     */
+    public static TypePlan resolve(AnnotatedType annotatedType, Groups groups) {
+        return resolve(annotatedType, RuleSnapshot.current().cache(groups));
+    }
+
+    /**
+     * 在指定的脱敏计划缓存中获取{@link AnnotatedType}对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param cache         规则快照在激活的分组下的脱敏计划缓存
+     * @return {@link AnnotatedType}对应的脱敏计划
+     */
+    public static TypePlan resolve(AnnotatedType annotatedType, PlanCache cache) {
+        TypePlan plan = cache.typePlans.get(annotatedType);
+        return plan != null ? plan : cache(cache.typePlans, annotatedType, () -> compute(annotatedType, cache), () -> annotatedType + " " + cache);
+    }
+
+    /**
+     * 获取{@link AnnotatedTypeToken}对应的脱敏计划
+     *
+     * @param typeToken {@link AnnotatedTypeToken}
+     * @return {@link AnnotatedTypeToken}对应的脱敏计划
+     */
+    public static TypePlan resolve(AnnotatedTypeToken<?> typeToken) {
+        AnnotatedType annotatedType = typeToken.getAnnotatedType();
+        PlanCache cache = RuleSnapshot.current().cache(Groups.ALL);
+        TokenPlan tokenPlan = TOKEN_PLANS.get(typeToken.getClass());
+        Resolved resolved = tokenPlan.resolved;
+        if (resolved != null && resolved.annotatedType() == annotatedType && resolved.cache() == cache) {
+            return resolved.plan();
+        }
+        TypePlan plan = resolve(annotatedType, cache);
+        tokenPlan.resolved = new Resolved(annotatedType, cache, plan);
+        return plan;
+    }
+
+    /**
+     * 获取{@link AnnotatedTypeToken}在激活的分组下对应的脱敏计划
+     *
+     * @param typeToken {@link AnnotatedTypeToken}
+     * @param groups    激活的分组
+     * @return {@link AnnotatedTypeToken}在激活的分组下对应的脱敏计划
+     */
+    public static TypePlan resolve(AnnotatedTypeToken<?> typeToken, Groups groups) {
+        return groups == Groups.ALL ? resolve(typeToken) : resolve(typeToken.getAnnotatedType(), groups);
+    }
+
+    /**
+     * 获取对象的运行时类型对应的脱敏计划
+     *
+     * @param type      对象的运行时类型
+     * @param inherited 是否需要脱敏从父类继承的域
+     * @return 对象的运行时类型对应的脱敏计划
+     */
+    public static ObjectPlan objectPlan(Class<?> type, boolean inherited) {
+        return objectPlan(type, inherited, RuleSnapshot.current().cache(Groups.ALL));
+    }
+
+    /**
+     * 在指定的脱敏计划缓存中获取对象的运行时类型对应的脱敏计划
+     *
+     * @param type      对象的运行时类型
+     * @param inherited 是否需要脱敏从父类继承的域
+     * @param cache     规则快照在激活的分组下的脱敏计划缓存
+     * @return 对象的运行时类型对应的脱敏计划
+     */
+    public static ObjectPlan objectPlan(Class<?> type, boolean inherited, PlanCache cache) {
+        var plans = cache.objectPlans.get(inherited ? 1 : 0);
+        ObjectPlan plan = plans.get(type);
+        return plan != null ? plan : cache(plans, type, () -> computeObjectPlan(type, inherited, cache), () -> type.getName() + " " + cache);
+    }
+
+    /**
+     * 解析脱敏计划并放入缓存。解析过程中可能会递归解析其它类型，因此不能使用{@link ConcurrentMap#computeIfAbsent}。
+     *
+     * @param cache       缓存
+     * @param key         缓存的键
+     * @param computation 解析过程
+     * @param description 被解析的类型的描述
+     * @param <K>         缓存的键的类型
+     * @param <V>         缓存的值的类型
+     * @return 缓存中的脱敏计划
+     */
+    private static <K, V> V cache(ConcurrentMap<K, V> cache, K key, Supplier<V> computation, Supplier<String> description) {
+        var event = new TypeResolutionEvent();
+        event.begin();
+        V value = computation.get();
+        V previous = cache.putIfAbsent(key, value);
+        if (previous != null) {
+            return previous;
+        }
+        if (event.shouldCommit()) {
+            event.annotatedType = description.get();
+            event.commit();
+        }
+        return value;
+    }
+
+    /**
+     * 解析{@link AnnotatedType}对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param cache         规则快照在激活的分组下的脱敏计划缓存
+     * @return {@link AnnotatedType}对应的脱敏计划
+     */
+    static TypePlan compute(AnnotatedType annotatedType, PlanCache cache) {
+        return compute(annotatedType, cache, new HashSet<>());
+    }
+
+    /**
+     * 解析{@link AnnotatedType}对应的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param cache         规则快照在激活的分组下的脱敏计划缓存，不生效的规则会被跳过，被替换的敏感注解会使用替换后的注解
+     * @param resolving     正在解析的类型变量，避免类似{@code T extends Comparable<T>}这样的类型变量导致无限递归
+     * @return {@link AnnotatedType}对应的脱敏计划
+     */
+    private static TypePlan compute(AnnotatedType annotatedType, PlanCache cache, Set<TypeVariable<?>> resolving) {
+        List<TypePlan> plans = new ArrayList<>();
+        TypePlan structure = switch (annotatedType) {
+            case AnnotatedTypeVariable typeVariable -> bound(typeVariable, cache, resolving);
+            case AnnotatedWildcardType wildcardType -> wildcardType.getAnnotatedUpperBounds().length == 0 ? SkipPlan.INSTANCE : compute(wildcardType.getAnnotatedUpperBounds()[0], cache, resolving);
+            case AnnotatedArrayType arrayType -> array(compute(arrayType.getAnnotatedGenericComponentType(), cache, resolving));
+            case AnnotatedParameterizedType parameterizedType -> parameterized(parameterizedType, cache, resolving);
+            default -> SkipPlan.INSTANCE;
+        };
+        if (structure != SkipPlan.INSTANCE) {
+            plans.add(structure);
+        }
+        for (Annotation annotation : annotatedType.getAnnotations()) {
+            if (annotation instanceof Cascade cascade) {
+                CascadeGroups cascadeGroups = annotatedType.getAnnotation(CascadeGroups.class);
+                if (cascadeGroups == null || cache.groups().active(cascadeGroups.value())) {
+                    plans.add(new CascadePlan(annotatedType, erase(annotatedType.getType()), cascade.inherited(), cache));
+                }
+            } else if (annotation.annotationType().isAnnotationPresent(Parse.class) && cache.groups().active(groups(annotation))) {
+                Annotation rule = cache.snapshot().override(annotation);
+                AnnotationHandler<Object, Annotation, Object> handler = handler(rule);
+                Class<?> type = erase(annotatedType.getType());
+                Object candidate = handler;
+                if (candidate instanceof AbstractNumberHandler<?> && !AbstractNumberHandler.supports(type)) {
+                    throw new IllegalArgumentException(String.format("%s does not support %s", rule.annotationType().getName(), type.getName()));
+                }
+                plans.add(new HandlerPlan(type, rule, handler, bind(handler, rule)));
+            }
+        }
+        return switch (plans.size()) {
+            case 0 -> SkipPlan.INSTANCE;
+            case 1 -> plans.get(0);
+            default -> new ChainPlan(List.copyOf(plans));
+        };
+    }
+
+    /**
+     * 解析对象的运行时类型对应的脱敏计划
+     *
+     * @param type      对象的运行时类型
+     * @param inherited 是否需要脱敏从父类继承的域
+     * @param cache     规则快照在激活的分组下的脱敏计划缓存
+     * @return 对象的运行时类型对应的脱敏计划
+     */
+    private static ObjectPlan computeObjectPlan(Class<?> type, boolean inherited, PlanCache cache) {
+        if (type.isRecord()) {
+            return computeRecordPlan(type, cache);
+        }
+        List<FieldPlan> fields = new ArrayList<>();
+        boolean sensitive = false;
+        boolean copyable = true;
+        for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            Set<String> indexed = TypeIndex.fields(clazz);
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                copyable &= field.trySetAccessible();
+                TypePlan plan = (clazz == type || inherited) && indexed(indexed, field.getName(), field.getAnnotatedType()) ? compute(field.getAnnotatedType(), cache) : SkipPlan.INSTANCE;
+                sensitive |= plan != SkipPlan.INSTANCE;
+                fields.add(new FieldPlan(field, plan));
+            }
+        }
+        return new ObjectPlan(type, List.copyOf(fields), sensitive, copyable, InstanceCreators.find(type), null);
+    }
+
+    /**
+     * 解析记录类型对应的脱敏计划，记录的域无法通过反射赋值，因此需要通过规范构造器重新创建记录。
+     * 域的脱敏计划按照记录组件的顺序排列，与规范构造器的参数一一对应。
+     *
+     * @param type   记录类型
+     * @param cache  规则快照在激活的分组下的脱敏计划缓存
+     * @return 记录类型对应的脱敏计划
+     */
+    private static ObjectPlan computeRecordPlan(Class<?> type, PlanCache cache) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        List<FieldPlan> fields = new ArrayList<>(components.length);
+        boolean sensitive = false;
+        boolean copyable = true;
+        Set<String> indexed = TypeIndex.fields(type);
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            parameterTypes[i] = component.getType();
+            Field field;
+            try {
+                field = type.getDeclaredField(component.getName());
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+            copyable &= field.trySetAccessible();
+            TypePlan plan = indexed(indexed, field.getName(), component.getAnnotatedType()) ? compute(component.getAnnotatedType(), cache) : SkipPlan.INSTANCE;
+            sensitive |= plan != SkipPlan.INSTANCE;
+            fields.add(new FieldPlan(field, plan));
+        }
+        MethodHandle constructor = null;
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            if (canonical.trySetAccessible()) {
+                constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return new ObjectPlan(type, List.copyOf(fields), sensitive, copyable && constructor != null, null, constructor);
+    }
+
+    /**
+     * 判断域是否需要解析脱敏计划。索引只用来跳过对索引中记录的域的检查，索引中没有记录的域仍然会检查其类型上是否存在注解，
+     * 因此过期或者不完整的索引不会导致带有敏感注解的域被遗漏。
+     *
+     * @param indexed       索引中记录的该类型包含敏感注解的域名称，类型不存在于索引中时为{@code null}
+     * @param name          域名称
+     * @param annotatedType 域的{@link AnnotatedType}
+     * @return 域是否需要解析脱敏计划
+     */
+    private static boolean indexed(Set<String> indexed, String name, AnnotatedType annotatedType) {
+        return indexed != null && indexed.contains(name) || annotated(annotatedType, new HashSet<>());
+    }
+
+    /**
+     * 判断{@link AnnotatedType}本身或者其数组元素、类型参数、类型变量的上界上是否存在注解，只检查注解是否存在而不会创建处理器
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param resolving     正在检查的类型变量
+     * @return 是否存在注解
+     */
+    private static boolean annotated(AnnotatedType annotatedType, Set<TypeVariable<?>> resolving) {
+        if (annotatedType.getAnnotations().length > 0) {
+            return true;
+        }
+        return switch (annotatedType) {
+            case AnnotatedTypeVariable typeVariable -> resolving.add((TypeVariable<?>) typeVariable.getType()) && Arrays.stream(typeVariable.getAnnotatedBounds()).anyMatch(bound -> annotated(bound, resolving));
+            case AnnotatedWildcardType wildcardType -> Arrays.stream(wildcardType.getAnnotatedUpperBounds()).anyMatch(bound -> annotated(bound, resolving));
+            case AnnotatedArrayType arrayType -> annotated(arrayType.getAnnotatedGenericComponentType(), resolving);
+            case AnnotatedParameterizedType parameterizedType -> Arrays.stream(parameterizedType.getAnnotatedActualTypeArguments()).anyMatch(argument -> annotated(argument, resolving));
+            default -> false;
+        };
+    }
+
+    /**
+     * 解析类型变量的上界的脱敏计划
+     *
+     * @param typeVariable 类型变量
+     * @param cache        规则快照在激活的分组下的脱敏计划缓存
+     * @param resolving    正在解析的类型变量
+     * @return 类型变量的上界的脱敏计划
+     */
+    private static TypePlan bound(AnnotatedTypeVariable typeVariable, PlanCache cache, Set<TypeVariable<?>> resolving) {
+        TypeVariable<?> variable = (TypeVariable<?>) typeVariable.getType();
+        if (!resolving.add(variable)) {
+            return SkipPlan.INSTANCE;
+        }
+        TypePlan plan = compute(typeVariable.getAnnotatedBounds()[0], cache, resolving);
+        resolving.remove(variable);
+        return plan;
+    }
+
+    /**
+     * 解析数组的脱敏计划
+     *
+     * @param component 数组元素的脱敏计划
+     * @return 数组的脱敏计划
+     */
+    private static TypePlan array(TypePlan component) {
+        return component == SkipPlan.INSTANCE ? SkipPlan.INSTANCE : new ArrayPlan(component);
+    }
+
+    /**
+     * 解析参数化类型的脱敏计划，除了{@link Collection}、{@link Map}、{@link Optional}、{@link CompletableFuture}
+     * 和{@link CompletionStage}以外的参数化类型只要类型参数上存在注解就交由
+     * {@link red.zyc.parser.AnnotationParser}处理
+     *
+     * @param parameterizedType 参数化类型
+     * @param cache             规则快照在激活的分组下的脱敏计划缓存
+     * @param resolving         正在解析的类型变量
+     * @return 参数化类型的脱敏计划
+     */
+    private static TypePlan parameterized(AnnotatedParameterizedType parameterizedType, PlanCache cache, Set<TypeVariable<?>> resolving) {
+        Class<?> rawType = erase(parameterizedType.getType());
+        AnnotatedType[] arguments = parameterizedType.getAnnotatedActualTypeArguments();
+        if (Collection.class.isAssignableFrom(rawType) && arguments.length == 1) {
+            TypePlan element = compute(arguments[0], cache, resolving);
+            return element == SkipPlan.INSTANCE ? SkipPlan.INSTANCE : new CollectionPlan(element);
+        }
+        if (Map.class.isAssignableFrom(rawType) && arguments.length == 2) {
+            TypePlan key = compute(arguments[0], cache, resolving);
+            TypePlan value = compute(arguments[1], cache, resolving);
+            return key == SkipPlan.INSTANCE && value == SkipPlan.INSTANCE ? SkipPlan.INSTANCE : new MapPlan(key, value);
+        }
+        if (rawType == Optional.class) {
+            TypePlan value = compute(arguments[0], cache, resolving);
+            return value == SkipPlan.INSTANCE ? SkipPlan.INSTANCE : new OptionalPlan(value);
+        }
+        if ((rawType == CompletableFuture.class || rawType == CompletionStage.class) && arguments.length == 1) {
+            TypePlan value = compute(arguments[0], cache, resolving);
+            return value == SkipPlan.INSTANCE ? SkipPlan.INSTANCE : new FuturePlan(value);
+        }
+        return Arrays.stream(arguments).anyMatch(argument -> compute(argument, cache, resolving) != SkipPlan.INSTANCE) ? new FallbackPlan(parameterizedType) : SkipPlan.INSTANCE;
+    }
+
+    /**
+     * 创建敏感注解对应的处理器
+     *
+     * @param annotation 敏感注解
+     * @return 敏感注解对应的处理器
+     * @throws IllegalArgumentException 注解不是敏感注解
+     */
+    public static AnnotationHandler<Object, Annotation, Object> handler(Annotation annotation) {
+        Parse parse = annotation.annotationType().getAnnotation(Parse.class);
+        if (parse == null) {
+            throw new IllegalArgumentException(String.format("%s is not a sensitive annotation", annotation.annotationType().getName()));
+        }
+        return handler(parse.handler());
+    }
+
+    /**
+     * 创建敏感注解对应的处理器
+     *
+     * @param handlerClass 处理器的{@link Class}
+     * @return 敏感注解对应的处理器
+     */
+    @SuppressWarnings("unchecked")
+    private static AnnotationHandler<Object, Annotation, Object> handler(Class<?> handlerClass) {
+        return (AnnotationHandler<Object, Annotation, Object>) InstanceCreators.find(handlerClass).create();
+    }
+
+    /**
+     * 将敏感注解绑定到处理器上，{@link AbstractCharSequenceHandler}的子类会在绑定时解析条件和正则表达式
+     *
+     * @param handler    敏感注解对应的处理器
+     * @param annotation 敏感注解
+     * @return 绑定了敏感注解的处理器
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static UnaryOperator<Object> bind(AnnotationHandler<Object, Annotation, Object> handler, Annotation annotation) {
+        Object candidate = handler;
+        if (candidate instanceof AbstractCharSequenceHandler<?, ?> charSequenceHandler) {
+            return (UnaryOperator) ((AbstractCharSequenceHandler<CharSequence, Annotation>) charSequenceHandler).bind(annotation);
+        }
+        return target -> handler.handle(target, annotation);
+    }
+
+    /**
+     * 获取敏感注解的{@code groups}属性
+     *
+     * @param annotation 敏感注解
+     * @return 敏感注解生效的分组，没有{@code groups}属性时为空
+     */
+    private static Class<?>[] groups(Annotation annotation) {
+        try {
+            Method method = annotation.annotationType().getMethod("groups");
+            if (method.getReturnType() == Class[].class && method.trySetAccessible()) {
+                return (Class<?>[]) method.invoke(annotation);
+            }
+        } catch (ReflectiveOperationException ignored) {
+        }
+        return NO_GROUPS;
+    }
+
+    /**
+     * 解析处理器能够处理的值的类型，即处理器实现的{@link AnnotationHandler}的第一个类型参数
+     *
+     * @param handlerClass 处理器的{@link Class}
+     * @return 处理器能够处理的值的类型，无法确定时返回{@link Object}
+     */
+    public static Class<?> valueType(Class<?> handlerClass) {
+        Type type = handlerArgument(handlerClass, Map.of());
+        return type == null ? Object.class : erase(type);
+    }
+
+    /**
+     * 沿着类型的父类和接口查找{@link AnnotationHandler}的第一个类型参数
+     *
+     * @param type     当前类型
+     * @param bindings 子类型中已经确定的类型变量
+     * @return {@link AnnotationHandler}的第一个类型参数，没有实现{@link AnnotationHandler}时返回{@code null}
+     */
+    private static Type handlerArgument(Type type, Map<TypeVariable<?>, Type> bindings) {
+        Class<?> raw = erase(type);
+        Map<TypeVariable<?>, Type> current = bindings;
+        if (type instanceof ParameterizedType parameterizedType) {
+            TypeVariable<?>[] variables = raw.getTypeParameters();
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            current = new HashMap<>();
+            for (int i = 0; i < variables.length; i++) {
+                current.put(variables[i], arguments[i] instanceof TypeVariable<?> variable ? bindings.getOrDefault(variable, variable) : arguments[i]);
+            }
+        }
+        if (raw == AnnotationHandler.class) {
+            return current.getOrDefault(raw.getTypeParameters()[0], Object.class);
+        }
+        List<Type> supertypes = new ArrayList<>(Arrays.asList(raw.getGenericInterfaces()));
+        if (raw.getGenericSuperclass() != null) {
+            supertypes.add(raw.getGenericSuperclass());
+        }
+        for (Type supertype : supertypes) {
+            Type argument = handlerArgument(supertype, current);
+            if (argument != null) {
+                return argument;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取类型擦除后的{@link Class}
+     *
+     * @param type 类型
+     * @return 类型擦除后的{@link Class}
+     */
+    static Class<?> erase(Type type) {
+        return switch (type) {
+            case Class<?> clazz -> clazz;
+            case ParameterizedType parameterizedType -> erase(parameterizedType.getRawType());
+            case GenericArrayType arrayType -> erase(arrayType.getGenericComponentType()).arrayType();
+            case TypeVariable<?> typeVariable -> erase(typeVariable.getBounds()[0]);
+            case WildcardType wildcardType -> erase(wildcardType.getUpperBounds()[0]);
+            default -> Object.class;
+        };
+    }
+
+    /**
+     * {@link AnnotatedTypeToken}子类最近一次解析的脱敏计划
+     */
+    private static final class TokenPlan {
+
+        /**
+         * {@link Resolved}只包含final域，因此不需要volatile也能被其它线程安全地读取，脱敏时只需要读取一次当前规则快照
+         */
+        Resolved resolved;
+    }
+
+    /**
+     * 已经解析的脱敏计划
+     *
+     * @param annotatedType {@link AnnotatedType}
+     * @param cache         解析时使用的脱敏计划缓存
+     * @param plan          {@link AnnotatedType}对应的脱敏计划
+     */
+    private record Resolved(AnnotatedType annotatedType, PlanCache cache, TypePlan plan) {
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.plan;
+
+import java.lang.reflect.AnnotatedType;
+import java.util.AbstractCollection;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 只读的脱敏视图，视图不会复制目标容器，而是在访问元素时才根据已经解析好的元素脱敏计划进行脱敏，
+ * 适合只会访问大容器中一小部分元素的场景，例如分页。视图会反映目标容器之后的修改。
+ *
+ * @author zyc
+ */
+public final class Views {
+
+    private Views() {
+    }
+
+    /**
+     * 创建{@link List}的脱敏视图
+     *
+     * @param target        目标{@link List}
+     * @param annotatedType 目标{@link List}的{@link AnnotatedType}
+     * @param memoize       是否缓存每个索引上的脱敏结果，开启后视图的大小固定为创建时目标{@link List}的大小，
+     *                      已经脱敏过的索引也不会再反映目标{@link List}的修改
+     * @param <E>           元素类型
+     * @return 只读的脱敏视图
+     */
+    public static <E> List<E> list(List<E> target, AnnotatedType annotatedType, boolean memoize) {
+        TypePlan element = element(annotatedType);
+        return target instanceof RandomAccess ? new RandomAccessList<>(target, element, memoize) : new MaskedList<>(target, element, memoize);
+    }
+
+    /**
+     * 创建{@link Collection}的脱敏视图
+     *
+     * @param target        目标{@link Collection}
+     * @param annotatedType 目标{@link Collection}的{@link AnnotatedType}
+     * @param <E>           元素类型
+     * @return 只读的脱敏视图
+     */
+    public static <E> Collection<E> collection(Collection<E> target, AnnotatedType annotatedType) {
+        return new MaskedCollection<>(target, element(annotatedType));
+    }
+
+    /**
+     * 创建{@link Map}的脱敏视图
+     *
+     * @param target        目标{@link Map}
+     * @param annotatedType 目标{@link Map}的{@link AnnotatedType}
+     * @param <K>           键的类型
+     * @param <V>           值的类型
+     * @return 只读的脱敏视图
+     */
+    public static <K, V> Map<K, V> map(Map<K, V> target, AnnotatedType annotatedType) {
+        return switch (TypePlans.resolve(annotatedType)) {
+            case MapPlan plan -> new MaskedMap<>(target, plan.key(), plan.value());
+            case SkipPlan skip -> new MaskedMap<>(target, SkipPlan.INSTANCE, SkipPlan.INSTANCE);
+            default -> throw new IllegalArgumentException(String.format("%s can not be viewed", annotatedType));
+        };
+    }
+
+    /**
+     * 获取集合元素的脱敏计划，只有集合本身不需要脱敏时才能创建视图
+     *
+     * @param annotatedType 集合的{@link AnnotatedType}
+     * @return 集合元素的脱敏计划
+     */
+    private static TypePlan element(AnnotatedType annotatedType) {
+        return switch (TypePlans.resolve(annotatedType)) {
+            case CollectionPlan plan -> plan.element();
+            case SkipPlan skip -> skip;
+            default -> throw new IllegalArgumentException(String.format("%s can not be viewed", annotatedType));
+        };
+    }
+
+    /**
+     * 对元素脱敏
+     *
+     * @param element 元素
+     * @param plan    元素的脱敏计划
+     * @param <E>     元素类型
+     * @return 脱敏后的元素
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E mask(E element, TypePlan plan) {
+        return (E) Desensitizer.desensitize(element, plan);
+    }
+
+    /**
+     * 对迭代的每一个元素脱敏
+     *
+     * @param iterator 目标容器的迭代器
+     * @param plan     元素的脱敏计划
+     * @param <E>      元素类型
+     * @return 脱敏后的迭代器
+     */
+    private static <E> Iterator<E> iterator(Iterator<E> iterator, TypePlan plan) {
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return mask(iterator.next(), plan);
+            }
+        };
+    }
+
+    /**
+     * {@link List}的脱敏视图
+     *
+     * @param <E> 元素类型
+     */
+    private static class MaskedList<E> extends AbstractList<E> {
+
+        /**
+         * 缓存中尚未脱敏的索引
+         */
+        private static final Object ABSENT = new Object();
+
+        private final List<E> target;
+
+        private final TypePlan plan;
+
+        /**
+         * 每个索引上的脱敏结果，不需要缓存时为{@code null}
+         */
+        private final AtomicReferenceArray<Object> memo;
+
+        MaskedList(List<E> target, TypePlan plan, boolean memoize) {
+            this.target = target;
+            this.plan = plan;
+            this.memo = memoize && plan != SkipPlan.INSTANCE ? absent(target.size()) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (memo == null) {
+                return mask(target.get(index), plan);
+            }
+            Object value = memo.get(index);
+            if (value == ABSENT) {
+                value = mask(target.get(index), plan);
+                memo.compareAndSet(index, ABSENT, value);
+                value = memo.get(index);
+            }
+            return (E) value;
+        }
+
+        @Override
+        public int size() {
+            return memo != null ? memo.length() : target.size();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return memo == null ? Views.iterator(target.iterator(), plan) : super.iterator();
+        }
+
+        /**
+         * @param size 目标{@link List}的大小
+         * @return 所有索引都尚未脱敏的缓存
+         */
+        private static AtomicReferenceArray<Object> absent(int size) {
+            var memo = new AtomicReferenceArray<>(size);
+            for (int i = 0; i < size; i++) {
+                memo.setPlain(i, ABSENT);
+            }
+            return memo;
+        }
+    }
+
+    /**
+     * 支持快速随机访问的{@link List}的脱敏视图
+     *
+     * @param <E> 元素类型
+     */
+    private static final class RandomAccessList<E> extends MaskedList<E> implements RandomAccess {
+
+        RandomAccessList(List<E> target, TypePlan plan, boolean memoize) {
+            super(target, plan, memoize);
+        }
+    }
+
+    /**
+     * {@link Collection}的脱敏视图
+     *
+     * @param <E> 元素类型
+     */
+    private static final class MaskedCollection<E> extends AbstractCollection<E> {
+
+        private final Collection<E> target;
+
+        private final TypePlan plan;
+
+        MaskedCollection(Collection<E> target, TypePlan plan) {
+            this.target = target;
+            this.plan = plan;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return Views.iterator(target.iterator(), plan);
+        }
+
+        @Override
+        public int size() {
+            return target.size();
+        }
+    }
+
+    /**
+     * {@link Map}的脱敏视图，键不需要脱敏时{@link #get(Object)}和{@link #containsKey(Object)}直接委托给目标{@link Map}
+     *
+     * @param <K> 键的类型
+     * @param <V> 值的类型
+     */
+    private static final class MaskedMap<K, V> extends AbstractMap<K, V> {
+
+        private final Map<K, V> target;
+
+        private final TypePlan key;
+
+        private final TypePlan value;
+
+        MaskedMap(Map<K, V> target, TypePlan key, TypePlan value) {
+            this.target = target;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public V get(Object k) {
+            return key == SkipPlan.INSTANCE ? mask(target.get(k), value) : super.get(k);
+        }
+
+        @Override
+        public boolean containsKey(Object k) {
+            return key == SkipPlan.INSTANCE ? target.containsKey(k) : super.containsKey(k);
+        }
+
+        @Override
+        public int size() {
+            return target.size();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    Iterator<Entry<K, V>> iterator = target.entrySet().iterator();
+                    return new Iterator<>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            Entry<K, V> entry = iterator.next();
+                            return new SimpleImmutableEntry<>(mask(entry.getKey(), key), mask(entry.getValue(), value));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return target.size();
+                }
+            };
+        }
+    }
+}
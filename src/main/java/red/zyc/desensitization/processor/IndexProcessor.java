@@ -0,0 +1,86 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.processor;
+
+import red.zyc.desensitization.plan.TypeIndex;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 在编译期生成{@link TypeIndex}的注解处理器，需要通过{@code -processor}或者构建工具的{@code annotationProcessorPaths}
+ * 显式开启，开启后运行时解析存在于索引中的类型时会直接解析索引中记录的域，其余的域只做轻量的注解检查。
+ *
+ * @author zyc
+ * @see TypeIndex
+ */
+@SupportedAnnotationTypes("*")
+public class IndexProcessor extends AbstractProcessor {
+
+    /**
+     * 所有编译轮次中收集到的索引记录
+     */
+    private final Set<String> lines = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+            return false;
+        }
+        var scanner = new SensitiveFieldScanner(processingEnv);
+        ElementFilter.typesIn(roundEnv.getRootElements()).stream()
+                .flatMap(type -> scanner.scan(type).stream())
+                .map(field -> new TypeIndex.Entry(scanner.binaryName(field.type()), field.field().getSimpleName().toString(), field.annotation(), field.handler(), field.regexp()))
+                .map(TypeIndex.Entry::format)
+                .forEach(lines::add);
+        return false;
+    }
+
+    /**
+     * 将收集到的索引记录写入{@value TypeIndex#LOCATION}
+     */
+    private void write() {
+        if (lines.isEmpty()) {
+            return;
+        }
+        try (var writer = new PrintWriter(new OutputStreamWriter(processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", TypeIndex.LOCATION).openOutputStream(), StandardCharsets.UTF_8))) {
+            writer.println("# generated by " + getClass().getName());
+            lines.forEach(writer::println);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + TypeIndex.LOCATION + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 在编译期生成GraalVM native-image所需的{@code reflect-config.json}的注解处理器，记录了以下需要反射访问的类型：
+ * <ul>
+ *     <li>包含敏感注解或{@code @Cascade}的类型及其父类：需要反射读写所有域并创建实例</li>
+ *     <li>被{@code @Cascade}标注的域的类型：需要反射读写所有域并创建实例</li>
+ *     <li>记录类型：还需要反射读取记录组件及其访问器，通过规范构造器重新创建记录</li>
+ *     <li>敏感注解：需要反射读取注解的属性</li>
+ *     <li>敏感注解对应的处理器以及条件：需要反射创建实例</li>
+ * </ul>
+ * 内置的敏感注解即使没有被使用也会根据其{@code @Parse}记录对应的处理器。生成的文件位于
+ * {@code META-INF/native-image/<project>/reflect-config.json}，其中{@code <project>}可以通过
+ * {@code -A}{@value #PROJECT_OPTION}指定，默认为{@value #DEFAULT_PROJECT}。
+ * 与{@link IndexProcessor}一样需要显式开启。
+ *
+ * @author zyc
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions(NativeImageProcessor.PROJECT_OPTION)
+public class NativeImageProcessor extends AbstractProcessor {
+
+    /**
+     * 指定生成文件所在目录的选项
+     */
+    public static final String PROJECT_OPTION = "desensitization.nativeImage.project";
+
+    /**
+     * 生成文件所在的默认目录
+     */
+    public static final String DEFAULT_PROJECT = "desensitization";
+
+    /**
+     * 内置的敏感注解所在的包
+     */
+    private static final String BUILT_IN_PACKAGE = "red.zyc.desensitization.annotation";
+
+    /**
+     * 类型的二进制名称与需要的反射访问权限的映射，按名称排序以保证生成的文件是稳定的
+     */
+    private final Map<String, Set<Access>> types = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            write();
+            return false;
+        }
+        var scanner = new SensitiveFieldScanner(processingEnv);
+        if (types.isEmpty()) {
+            builtIn(scanner);
+        }
+        ElementFilter.typesIn(roundEnv.getRootElements()).stream()
+                .flatMap(type -> scanner.scan(type).stream())
+                .forEach(field -> {
+                    hierarchy(field.type(), scanner);
+                    if (field.annotation().equals(SensitiveFieldScanner.CASCADE)) {
+                        cascade(field.target(), scanner);
+                    } else {
+                        register(field.annotation(), Access.METHODS);
+                        register(field.handler(), Access.CONSTRUCTORS);
+                        register(field.condition(), Access.CONSTRUCTORS);
+                    }
+                });
+        return false;
+    }
+
+    /**
+     * 根据内置敏感注解上的{@code @Parse}记录对应的处理器以及默认的条件
+     *
+     * @param scanner {@link SensitiveFieldScanner}
+     */
+    private void builtIn(SensitiveFieldScanner scanner) {
+        var builtIn = processingEnv.getElementUtils().getPackageElement(BUILT_IN_PACKAGE);
+        if (builtIn == null) {
+            return;
+        }
+        ElementFilter.typesIn(builtIn.getEnclosedElements()).stream()
+                .filter(type -> type.getKind() == ElementKind.ANNOTATION_TYPE)
+                .forEach(type -> scanner.parse(type).ifPresent(parse -> {
+                    register(scanner.binaryName(type), Access.METHODS);
+                    register(parse.handler(), Access.CONSTRUCTORS);
+                    register(parse.condition(), Access.CONSTRUCTORS);
+                }));
+    }
+
+    /**
+     * 记录被{@code @Cascade}标注的类型，{@link Object}和接口只有在运行时才能确定实际类型
+     *
+     * @param type    被{@code @Cascade}标注的类型
+     * @param scanner {@link SensitiveFieldScanner}
+     */
+    private void cascade(TypeMirror type, SensitiveFieldScanner scanner) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY || !(erased instanceof DeclaredType declaredType)) {
+            return;
+        }
+        var element = (TypeElement) declaredType.asElement();
+        if (element.getKind().isClass() && !element.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy(element, scanner);
+        }
+    }
+
+    /**
+     * 记录类型及其所有父类，对象的脱敏需要读写从父类继承的域
+     *
+     * @param type    类型
+     * @param scanner {@link SensitiveFieldScanner}
+     */
+    private void hierarchy(TypeElement type, SensitiveFieldScanner scanner) {
+        for (TypeElement current = type; current != null && !current.getQualifiedName().contentEquals(Object.class.getName()); ) {
+            register(scanner.binaryName(current), Access.FIELDS, Access.CONSTRUCTORS);
+            if (current.getKind() == ElementKind.RECORD) {
+                // getRecordComponents()需要记录组件的访问器可以被反射访问
+                register(scanner.binaryName(current), Access.METHODS, Access.PUBLIC_METHODS, Access.RECORD_COMPONENTS);
+            }
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass instanceof DeclaredType declaredType ? (TypeElement) declaredType.asElement() : null;
+        }
+    }
+
+    /**
+     * 记录类型需要的反射访问权限
+     *
+     * @param type   类型的二进制名称，空字符串会被忽略
+     * @param access 需要的反射访问权限
+     */
+    private void register(String type, Access... access) {
+        if (!type.isEmpty()) {
+            types.computeIfAbsent(type, t -> EnumSet.noneOf(Access.class)).addAll(Set.of(access));
+        }
+    }
+
+    /**
+     * 将收集到的类型写入{@code reflect-config.json}
+     */
+    private void write() {
+        if (types.isEmpty()) {
+            return;
+        }
+        String project = processingEnv.getOptions().getOrDefault(PROJECT_OPTION, DEFAULT_PROJECT);
+        String location = "META-INF/native-image/" + project + "/reflect-config.json";
+        try (var writer = new PrintWriter(new OutputStreamWriter(processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", location).openOutputStream(), StandardCharsets.UTF_8))) {
+            writer.println(types.entrySet().stream()
+                    .map(entry -> entry.getValue().stream()
+                            .map(access -> String.format("    \"%s\": true", access.key))
+                            .collect(Collectors.joining(",\n", String.format("  {\n    \"name\": \"%s\",\n", entry.getKey()), "\n  }")))
+                    .collect(Collectors.joining(",\n", "[\n", "\n]")));
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + location + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * {@code reflect-config.json}中的反射访问权限
+     */
+    private enum Access {
+
+        /**
+         * 读写所有声明的域
+         */
+        FIELDS("allDeclaredFields"),
+
+        /**
+         * 调用所有声明的构造器
+         */
+        CONSTRUCTORS("allDeclaredConstructors"),
+
+        /**
+         * 调用所有声明的方法，注解的属性就是注解类型的方法
+         */
+        METHODS("allDeclaredMethods"),
+
+        /**
+         * 调用所有公共的方法，包括记录组件的访问器
+         */
+        PUBLIC_METHODS("allPublicMethods"),
+
+        /**
+         * 读取记录组件
+         */
+        RECORD_COMPONENTS("allRecordComponents");
+
+        private final String key;
+
+        Access(String key) {
+            this.key = key;
+        }
+    }
+}
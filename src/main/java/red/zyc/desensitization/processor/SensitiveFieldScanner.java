@@ -0,0 +1,238 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package red.zyc.desensitization.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 在编译期扫描源码中包含敏感注解或{@code @Cascade}的域，敏感注解是指被{@code @Parse}标注的注解。
+ * 为了不依赖注解的{@link Class}，所有注解都是通过{@link AnnotationMirror}读取的。
+ *
+ * @author zyc
+ */
+public class SensitiveFieldScanner {
+
+    /**
+     * {@code red.zyc.parser.handler.Parse}的全限定名
+     */
+    public static final String PARSE = "red.zyc.parser.handler.Parse";
+
+    /**
+     * {@code red.zyc.parser.type.Cascade}的全限定名
+     */
+    public static final String CASCADE = "red.zyc.parser.type.Cascade";
+
+    private final ProcessingEnvironment processingEnv;
+
+    /**
+     * @param processingEnv 注解处理器的{@link ProcessingEnvironment}
+     */
+    public SensitiveFieldScanner(ProcessingEnvironment processingEnv) {
+        this.processingEnv = processingEnv;
+    }
+
+    /**
+     * 扫描类型以及其内部类型中所有包含敏感注解的实例域
+     *
+     * @param type 类型
+     * @return 类型中所有包含敏感注解的实例域上的注解
+     */
+    public List<SensitiveField> scan(TypeElement type) {
+        List<SensitiveField> result = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            List<Annotated> annotations = new ArrayList<>();
+            field.getAnnotationMirrors().forEach(annotation -> annotations.add(new Annotated(field.asType(), annotation)));
+            collect(field.asType(), annotations, new HashSet<>());
+            annotations.stream()
+                    .map(annotated -> sensitiveField(type, field, annotated))
+                    .filter(sensitiveField -> sensitiveField != null && result.stream().noneMatch(sensitiveField::sameAs))
+                    .forEach(result::add);
+        }
+        ElementFilter.typesIn(type.getEnclosedElements()).forEach(nested -> result.addAll(scan(nested)));
+        return result;
+    }
+
+    /**
+     * 递归收集类型上的所有类型注解
+     *
+     * @param type        类型
+     * @param annotations 收集到的类型注解
+     * @param resolving   正在解析的类型变量，避免类似{@code T extends Comparable<T>}这样的类型变量导致无限递归
+     */
+    private void collect(TypeMirror type, List<Annotated> annotations, Set<Element> resolving) {
+        type.getAnnotationMirrors().forEach(annotation -> annotations.add(new Annotated(type, annotation)));
+        switch (type) {
+            case DeclaredType declaredType -> declaredType.getTypeArguments().forEach(argument -> collect(argument, annotations, resolving));
+            case ArrayType arrayType -> collect(arrayType.getComponentType(), annotations, resolving);
+            case WildcardType wildcardType when wildcardType.getExtendsBound() != null -> collect(wildcardType.getExtendsBound(), annotations, resolving);
+            case TypeVariable typeVariable -> {
+                if (resolving.add(typeVariable.asElement())) {
+                    ((TypeParameterElement) typeVariable.asElement()).getBounds().forEach(bound -> collect(bound, annotations, resolving));
+                    resolving.remove(typeVariable.asElement());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 将敏感注解转换成{@link SensitiveField}
+     *
+     * @param type      域所在的类型
+     * @param field     域
+     * @param annotated 域上的注解以及被注解的类型
+     * @return 注解不是敏感注解或{@code @Cascade}时返回{@code null}
+     */
+    private SensitiveField sensitiveField(TypeElement type, VariableElement field, Annotated annotated) {
+        var annotation = annotated.annotation();
+        var annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+        if (annotationType.getQualifiedName().contentEquals(CASCADE)) {
+            return new SensitiveField(type, field, annotated.type(), binaryName(annotationType), "", "", "");
+        }
+        return parse(annotationType)
+                .map(parse -> {
+                    var values = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+                    return new SensitiveField(type, field, annotated.type(), binaryName(annotationType), parse.handler(), string(value(values, "regexp")), className(value(values, "condition")));
+                })
+                .orElse(null);
+    }
+
+    /**
+     * 读取敏感注解上的{@code @Parse}
+     *
+     * @param annotationType 注解类型
+     * @return 注解类型不是敏感注解时返回{@link Optional#empty()}
+     */
+    public Optional<ParseMapping> parse(TypeElement annotationType) {
+        return annotationType.getAnnotationMirrors().stream()
+                .filter(parse -> ((TypeElement) parse.getAnnotationType().asElement()).getQualifiedName().contentEquals(PARSE))
+                .findFirst()
+                .map(parse -> new ParseMapping(className(value(processingEnv.getElementUtils().getElementValuesWithDefaults(parse), "handler")),
+                        ElementFilter.methodsIn(annotationType.getEnclosedElements()).stream()
+                                .filter(method -> method.getSimpleName().contentEquals("condition") && method.getDefaultValue() != null)
+                                .map(method -> className(method.getDefaultValue().getValue()))
+                                .findFirst()
+                                .orElse("")));
+    }
+
+    /**
+     * 获取注解的属性值
+     *
+     * @param values 注解的所有属性值
+     * @param name   属性名称
+     * @return 属性值，不存在时返回{@code null}
+     */
+    private static Object value(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        return values.entrySet().stream()
+                .filter(entry -> entry.getKey().getSimpleName().contentEquals(name))
+                .map(entry -> entry.getValue().getValue())
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @param value 注解的属性值
+     * @return 字符串类型的属性值，否则返回空字符串
+     */
+    private static String string(Object value) {
+        return value instanceof String s ? s : "";
+    }
+
+    /**
+     * @param value 注解的属性值
+     * @return {@link Class}类型的属性值的二进制名称，否则返回空字符串
+     */
+    private String className(Object value) {
+        return value instanceof DeclaredType declaredType ? binaryName((TypeElement) declaredType.asElement()) : "";
+    }
+
+    /**
+     * @param type 类型
+     * @return 与{@link Class#getName()}一致的类型的二进制名称
+     */
+    public String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    /**
+     * 域上的一个敏感注解或{@code @Cascade}
+     *
+     * @param type       域所在的类型
+     * @param field      域
+     * @param target     被注解的类型，域上的注解为域的类型，类型注解为域的类型中被标注的部分，例如{@code List<@Email String>}中的{@code String}
+     * @param annotation 注解类型的二进制名称
+     * @param handler    注解对应的处理器的二进制名称，{@code @Cascade}为空字符串
+     * @param regexp     注解的正则表达式，没有时为空字符串
+     * @param condition  注解的条件的二进制名称，没有时为空字符串
+     */
+    public record SensitiveField(TypeElement type, VariableElement field, TypeMirror target, String annotation, String handler, String regexp, String condition) {
+
+        /**
+         * 判断两个注解是否是域上的同一个注解，同时标注了{@code FIELD}和{@code TYPE_USE}的注解既是域上的注解也是类型注解
+         *
+         * @param other 另一个注解
+         * @return 是否是域上的同一个注解
+         */
+        boolean sameAs(SensitiveField other) {
+            return type.equals(other.type) && field.equals(other.field) && annotation.equals(other.annotation)
+                    && handler.equals(other.handler) && regexp.equals(other.regexp) && condition.equals(other.condition);
+        }
+    }
+
+    /**
+     * 敏感注解上的{@code @Parse}
+     *
+     * @param handler   注解对应的处理器的二进制名称
+     * @param condition 注解默认的条件的二进制名称，没有时为空字符串
+     */
+    public record ParseMapping(String handler, String condition) {
+    }
+
+    /**
+     * 注解以及被注解的类型
+     *
+     * @param type       被注解的类型
+     * @param annotation 注解
+     */
+    private record Annotated(TypeMirror type, AnnotationMirror annotation) {
+    }
+}
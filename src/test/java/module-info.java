@@ -7,4 +7,8 @@ module desensitization.test {
     requires desensitization;
     requires annotation.parser;
     requires org.junit.jupiter;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.jfr;
+    requires java.compiler;
 }
\ No newline at end of file
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.BankCardNumber;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.IdCardNumber;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.desensitization.test.model.Child;
+import red.zyc.desensitization.test.model.Father;
+import red.zyc.desensitization.test.model.Mother;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 分配预算：使用{@link ThreadMXBean#getThreadAllocatedBytes(long)}度量每次脱敏在当前线程上分配的字节数。
+ * 每个被脱敏的字符串只允许分配一个{@code char[]}缓冲区和一个新的{@link String}，
+ * 级联脱敏额外只允许分配对象的副本以及集合的副本。预算按照开启压缩指针时的对象布局计算。
+ *
+ * @author zyc
+ */
+public class AllocationTest {
+
+    private static final ThreadMXBean THREAD = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * 保存脱敏的结果，避免JIT消除脱敏结果的分配
+     */
+    private static volatile Object SINK;
+
+    /**
+     * 预热的调用次数，足以让C2编译热点代码并完成逃逸分析
+     */
+    private static final int WARMUP_ITERATIONS = 50_000;
+
+    /**
+     * 度量的调用次数
+     */
+    private static final int MEASURE_ITERATIONS = 10_000;
+
+    /**
+     * 每次调用允许的固定开销，例如未被标量替换的迭代器、装箱的条件参数
+     */
+    private static final long OVERHEAD = 64;
+
+    /**
+     * 每个对象副本允许的开销，包含对象本身以及{@link red.zyc.parser.util.InstanceCreator}反射创建对象的开销
+     */
+    private static final long OBJECT = 192;
+
+    /**
+     * 每个被复制的集合允许的开销，包含集合对象、扩容后的数组以及反射查找无参构造器的开销
+     */
+    private static final long COLLECTION = 384;
+
+    private static final AnnotatedTypeToken<@PhoneNumber String> PHONE_NUMBER = new AnnotatedTypeToken<@PhoneNumber String>() {
+    };
+
+    private static final AnnotatedTypeToken<@Email String> EMAIL = new AnnotatedTypeToken<@Email String>() {
+    };
+
+    private static final AnnotatedTypeToken<@Password String> PASSWORD = new AnnotatedTypeToken<@Password String>() {
+    };
+
+    private static final AnnotatedTypeToken<@ChineseName String> CHINESE_NAME = new AnnotatedTypeToken<@ChineseName String>() {
+    };
+
+    private static final AnnotatedTypeToken<@IdCardNumber String> ID_CARD_NUMBER = new AnnotatedTypeToken<@IdCardNumber String>() {
+    };
+
+    private static final AnnotatedTypeToken<@BankCardNumber String> BANK_CARD_NUMBER = new AnnotatedTypeToken<@BankCardNumber String>() {
+    };
+
+    private static final AnnotatedTypeToken<@Strings(regexp = "(?<=^.{2}).*") String> STRINGS = new AnnotatedTypeToken<@Strings(regexp = "(?<=^.{2}).*") String>() {
+    };
+
+    @BeforeAll
+    static void supported() {
+        assumeTrue(THREAD.isThreadAllocatedMemorySupported());
+        var diagnostic = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        assumeTrue(Boolean.parseBoolean(diagnostic.getVMOption("UseCompressedOops").getValue()));
+        assumeTrue(Boolean.parseBoolean(diagnostic.getVMOption("UseCompressedClassPointers").getValue()));
+        THREAD.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void phoneNumber() {
+        assertBudget("phoneNumber", string(11, true), () -> Sensitive.desensitize("19962000001", PHONE_NUMBER));
+    }
+
+    @Test
+    void email() {
+        assertBudget("email", string(13, true), () -> Sensitive.desensitize("123456@qq.com", EMAIL));
+    }
+
+    @Test
+    void password() {
+        assertBudget("password", string(9, true), () -> Sensitive.desensitize("123456789", PASSWORD));
+    }
+
+    @Test
+    void chineseName() {
+        assertBudget("chineseName", string(3, false), () -> Sensitive.desensitize("张三丰", CHINESE_NAME));
+    }
+
+    @Test
+    void idCardNumber() {
+        assertBudget("idCardNumber", string(18, true), () -> Sensitive.desensitize("321181199301096000", ID_CARD_NUMBER));
+    }
+
+    @Test
+    void bankCardNumber() {
+        assertBudget("bankCardNumber", string(19, true), () -> Sensitive.desensitize("6222600260001072440", BANK_CARD_NUMBER));
+    }
+
+    @Test
+    void strings() {
+        assertBudget("strings", string(6, true), () -> Sensitive.desensitize("123456", STRINGS));
+    }
+
+    @Test
+    void father() {
+        var father = new Father();
+        assertBudget("father", OBJECT + parent(false), () -> Sensitive.desensitize(father));
+    }
+
+    @Test
+    void mother() {
+        var mother = new Mother();
+        assertBudget("mother", OBJECT + parent(false), () -> Sensitive.desensitize(mother));
+    }
+
+    @Test
+    void child() {
+        var child = new Child<>();
+        long budget = OBJECT
+                + string(2, false) + string(11, true) + string(18, true) + string(9, true) + string(19, true)
+                + COLLECTION + OBJECT + parent(true) + OBJECT + parent(true)
+                + COLLECTION + 3 * string(13, true);
+        assertBudget("child", budget, () -> Sensitive.desensitize(child));
+    }
+
+    /**
+     * 父母对象中被脱敏的字符串的预算
+     *
+     * @param inherited 是否脱敏从{@link red.zyc.desensitization.test.model.Parent}继承的密码
+     * @return 被脱敏的字符串的预算
+     */
+    private static long parent(boolean inherited) {
+        return string(3, false) + string(11, true) + string(13, true) + string(18, true) + string(19, true)
+                + (inherited ? string(6, true) : 0);
+    }
+
+    /**
+     * 一个被脱敏的字符串的预算：一个{@code char[]}缓冲区和一个新的{@link String}。
+     * 不能以LATIN1编码存储的字符串在构造时会先尝试压缩，因此额外包含一个压缩失败的{@code byte[]}
+     *
+     * @param length 字符串的长度
+     * @param latin1 字符串是否能以LATIN1编码存储
+     * @return 一个被脱敏的字符串的预算
+     */
+    private static long string(int length, boolean latin1) {
+        long value = latin1 ? align(16 + length) : align(16 + 2L * length) + align(16 + length);
+        return align(16 + 2L * length) + 24 + value;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7;
+    }
+
+    /**
+     * 预热后断言每次调用平均分配的字节数不超过预算
+     *
+     * @param name     度量的名称
+     * @param budget   每次调用的预算
+     * @param supplier 脱敏操作
+     */
+    private static void assertBudget(String name, long budget, Supplier<?> supplier) {
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            SINK = supplier.get();
+        }
+        long before = THREAD.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            SINK = supplier.get();
+        }
+        long allocated = (THREAD.getThreadAllocatedBytes(threadId) - before) / MEASURE_ITERATIONS;
+        assertTrue(allocated <= budget + OVERHEAD,
+                () -> String.format("%s allocated %d bytes per call, budget is %d", name, allocated, budget + OVERHEAD));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link Optional}、{@link CompletableFuture}脱敏以及异步脱敏
+ *
+ * @author zyc
+ */
+public class AsyncTest {
+
+    private static final AnnotatedTypeToken<List<@Email String>> EMAILS = new AnnotatedTypeToken<List<@Email String>>() {
+    };
+
+    @Test
+    void optional() {
+
+        var after = Sensitive.desensitize(new Account());
+
+        assertEquals(Optional.of("1*****@qq.com"), after.email);
+        assertEquals(Optional.empty(), after.empty);
+        assertEquals(Optional.of("199****0001"), Sensitive.desensitize(Optional.of("19962000001"), new AnnotatedTypeToken<Optional<@PhoneNumber String>>() {
+        }));
+    }
+
+    @Test
+    void future() throws Exception {
+
+        var account = new Account();
+        var after = Sensitive.desensitize(account);
+
+        // 值在完成之后才会被脱敏
+        assertFalse(after.phoneNumber.isDone());
+        account.phoneNumber.complete("19962000001");
+        assertEquals("199****0001", after.phoneNumber.get(1, TimeUnit.MINUTES));
+        assertEquals("1*****@qq.com", after.stage.toCompletableFuture().get(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    void inline() throws Exception {
+
+        var executor = new CountingExecutor();
+        var future = new CompletableFuture<List<String>>();
+        var after = Sensitive.desensitizeAsync(future, EMAILS, executor);
+        future.complete(List.of("123456@qq.com"));
+
+        // 工作量小于内联阈值时直接在完成的线程中脱敏
+        assertEquals(List.of("1*****@qq.com"), after.getNow(null));
+        assertEquals(0, executor.count.get());
+    }
+
+    @Test
+    void offload() throws Exception {
+
+        var executor = new CountingExecutor();
+        var emails = Collections.nCopies(2048, "123456@qq.com");
+        var after = Sensitive.desensitizeAsync(CompletableFuture.completedFuture(emails), EMAILS, executor).get(1, TimeUnit.MINUTES);
+
+        assertEquals(2048, after.size());
+        assertEquals("1*****@qq.com", after.get(2047));
+        assertEquals(1, executor.count.get());
+
+        // 内联阈值为0时总是交由executor脱敏
+        Sensitive.desensitizeAsync(CompletableFuture.completedFuture(List.of("123456@qq.com")), EMAILS, executor, 0).get(1, TimeUnit.MINUTES);
+        assertEquals(2, executor.count.get());
+    }
+
+    @Test
+    void cascadeAsync() throws Exception {
+
+        var executor = new CountingExecutor();
+        var account = new Account();
+        var after = Sensitive.desensitizeAsync(CompletableFuture.completedFuture(account), executor).get(1, TimeUnit.MINUTES);
+
+        assertEquals(Optional.of("1*****@qq.com"), after.email);
+        assertSame(account.empty, after.empty);
+        assertEquals(0, executor.count.get());
+    }
+
+    static class CountingExecutor implements Executor {
+
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command) {
+            count.incrementAndGet();
+            command.run();
+        }
+    }
+
+    static class Account {
+
+        Optional<@Email String> email = Optional.of("123456@qq.com");
+
+        Optional<@Email String> empty = Optional.empty();
+
+        CompletableFuture<@PhoneNumber String> phoneNumber = new CompletableFuture<>();
+
+        CompletionStage<@Email String> stage = CompletableFuture.completedFuture("123456@qq.com");
+    }
+}
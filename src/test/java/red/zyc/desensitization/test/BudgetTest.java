@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.desensitization.budget.Budget;
+import red.zyc.desensitization.budget.BudgetExceededException;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 脱敏预算
+ *
+ * @author zyc
+ */
+public class BudgetTest {
+
+    /**
+     * 对于正则表达式(.*a){30}会产生灾难性回溯的输入
+     */
+    private static final String CATASTROPHIC = "a".repeat(25) + "!";
+
+    @Test
+    void maxDepth() {
+
+        var nested = List.of(List.of(List.of("123456@qq.com")));
+        var typeToken = new AnnotatedTypeToken<List<List<List<@Email String>>>>() {
+        };
+
+        var e = Assertions.assertThrows(BudgetExceededException.class, () -> Sensitive.desensitize(nested, typeToken, Budget.UNLIMITED.withMaxDepth(2, Budget.Policy.FAIL)));
+        Assertions.assertEquals(Budget.Kind.DEPTH, e.getKind());
+
+        // 只有超出深度的部分会被完全脱敏
+        var after = Sensitive.desensitize(nested, typeToken, Budget.UNLIMITED.withMaxDepth(2, Budget.Policy.MASK));
+        Assertions.assertEquals(List.of(), after.get(0).get(0));
+        Assertions.assertEquals(List.of(List.of(List.of("1*****@qq.com"))), Sensitive.desensitize(nested, typeToken, Budget.UNLIMITED.withMaxDepth(3, Budget.Policy.FAIL)));
+    }
+
+    @Test
+    void maxElements() {
+
+        var emails = List.of("123456@qq.com", "123456@qq.com", "123456@qq.com", "123456@qq.com");
+        var typeToken = new AnnotatedTypeToken<List<@Email String>>() {
+        };
+
+        // 集合本身不会计入需要脱敏的值的数量
+        var after = Sensitive.desensitize(emails, typeToken, Budget.UNLIMITED.withMaxElements(3, Budget.Policy.MASK));
+        Assertions.assertEquals(List.of("1*****@qq.com", "1*****@qq.com", "1*****@qq.com", "*************"), after);
+
+        var e = Assertions.assertThrows(BudgetExceededException.class, () -> Sensitive.desensitize(emails, typeToken, Budget.UNLIMITED.withMaxElements(3, Budget.Policy.FAIL)));
+        Assertions.assertEquals(Budget.Kind.ELEMENTS, e.getKind());
+    }
+
+    @Test
+    void maxElementsInCascade() {
+
+        var after = Sensitive.desensitize(new Account(), Budget.UNLIMITED.withMaxElements(1, Budget.Policy.MASK));
+
+        Assertions.assertEquals("******", after.password);
+        Assertions.assertEquals(0L, after.card);
+        Assertions.assertEquals(List.of(), after.cards);
+    }
+
+    @Test
+    void maxRegexChars() {
+
+        var typeToken = new AnnotatedTypeToken<@Strings(regexp = "(.*a){30}") String>() {
+        };
+
+        var e = Assertions.assertThrows(BudgetExceededException.class, () -> Sensitive.desensitize(CATASTROPHIC, typeToken, Budget.UNLIMITED.withMaxRegexChars(100_000, Budget.Policy.FAIL)));
+        Assertions.assertEquals(Budget.Kind.REGEX_CHARS, e.getKind());
+
+        var after = Sensitive.desensitize(CATASTROPHIC, typeToken, Budget.UNLIMITED.withMaxRegexChars(100_000, Budget.Policy.MASK));
+        Assertions.assertEquals("*".repeat(CATASTROPHIC.length()), after);
+
+        // 正常的输入不会超出预算
+        Assertions.assertEquals("1*****@qq.com", Sensitive.desensitize("123456@qq.com", new AnnotatedTypeToken<@Email String>() {
+        }, Budget.UNLIMITED.withMaxRegexChars(1000, Budget.Policy.FAIL)));
+    }
+
+    @Test
+    void deadline() {
+
+        var typeToken = new AnnotatedTypeToken<@Strings(regexp = "(.*a){30}") String>() {
+        };
+
+        // 灾难性回溯在截止时间之后会被中断
+        var e = Assertions.assertThrows(BudgetExceededException.class, () -> Sensitive.desensitize(CATASTROPHIC, typeToken, Budget.UNLIMITED.withDeadline(Duration.ofMillis(50), Budget.Policy.FAIL)));
+        Assertions.assertEquals(Budget.Kind.DEADLINE, e.getKind());
+
+        var values = new String[]{CATASTROPHIC, "123456"};
+        var after = Sensitive.desensitize(values, new AnnotatedTypeToken<@Strings(regexp = "(.*a){30}") String[]>() {
+        }, Budget.UNLIMITED.withDeadline(Duration.ofMillis(50), Budget.Policy.MASK));
+        Assertions.assertEquals(Arrays.asList("*".repeat(CATASTROPHIC.length()), "******"), Arrays.asList(after));
+    }
+
+    static class Account {
+
+        @Strings
+        String password = "123456";
+
+        @MaskDigits
+        long card = 6222021234567890L;
+
+        List<@Cascade Account> cards = List.of();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.Arrays;
+
+/**
+ * 按列批量脱敏
+ *
+ * @author zyc
+ */
+public class ColumnTest {
+
+    @Test
+    void desensitizeColumn() {
+
+        var rule = new AnnotatedTypeToken<@PhoneNumber String>() {
+        }.getAnnotatedType().getAnnotation(PhoneNumber.class);
+        var in = new String[]{"19962000001", null, "19962000002"};
+        var out = new String[in.length];
+        Sensitive.desensitizeColumn(in, out, rule);
+
+        Assertions.assertArrayEquals(new String[]{"199****0001", null, "199****0002"}, out);
+        Assertions.assertEquals("19962000001", in[0]);
+    }
+
+    @Test
+    void desensitizeColumnInParallel() {
+
+        var rule = new AnnotatedTypeToken<@Email String>() {
+        }.getAnnotatedType().getAnnotation(Email.class);
+        var column = new String[100_000];
+        Arrays.fill(column, "123456@qq.com");
+        Sensitive.desensitizeColumn(column, column, rule, true);
+
+        Arrays.stream(column).forEach(s -> Assertions.assertEquals("1*****@qq.com", s));
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.budget.Budget;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 重新构建脱敏后的集合与Map
+ *
+ * @author zyc
+ */
+public class ContainerTest {
+
+    private static final AnnotatedTypeToken<List<@Email String>> EMAILS = new AnnotatedTypeToken<List<@Email String>>() {
+    };
+
+    private static final AnnotatedTypeToken<Set<@Email String>> EMAIL_SET = new AnnotatedTypeToken<Set<@Email String>>() {
+    };
+
+    private static final AnnotatedTypeToken<Map<Integer, @Email String>> EMAIL_VALUES = new AnnotatedTypeToken<Map<Integer, @Email String>>() {
+    };
+
+    private static final AnnotatedTypeToken<Map<@Email String, String>> EMAIL_KEYS = new AnnotatedTypeToken<Map<@Email String, String>>() {
+    };
+
+    private static final AnnotatedTypeToken<Map<TimeUnit, @Email String>> UNIT_EMAILS = new AnnotatedTypeToken<Map<TimeUnit, @Email String>>() {
+    };
+
+    @Test
+    void preserveType() {
+
+        assertSame(ArrayList.class, Sensitive.desensitize(new ArrayList<>(List.of("123456@qq.com")), EMAILS).getClass());
+        assertSame(CopyOnWriteArrayList.class, Sensitive.desensitize(new CopyOnWriteArrayList<>(List.of("123456@qq.com")), EMAILS).getClass());
+
+        var linked = new LinkedHashMap<Integer, String>();
+        linked.put(3, "333333@qq.com");
+        linked.put(1, "111111@qq.com");
+        linked.put(2, "222222@qq.com");
+        var after = Sensitive.desensitize(linked, EMAIL_VALUES);
+        assertSame(LinkedHashMap.class, after.getClass());
+        assertEquals(List.of(3, 1, 2), List.copyOf(after.keySet()));
+        assertEquals("3*****@qq.com", after.get(3));
+    }
+
+    @Test
+    void preserveComparator() {
+
+        var set = new TreeSet<String>(Comparator.reverseOrder());
+        set.addAll(List.of("111111@qq.com", "222222@qq.com"));
+        var after = (TreeSet<String>) Sensitive.desensitize(set, EMAIL_SET);
+        assertEquals(List.of("2*****@qq.com", "1*****@qq.com"), List.copyOf(after));
+        assertSame(set.comparator(), after.comparator());
+
+        var map = new TreeMap<Integer, String>(Comparator.reverseOrder());
+        map.put(1, "111111@qq.com");
+        map.put(2, "222222@qq.com");
+        var afterMap = (TreeMap<Integer, String>) Sensitive.desensitize(map, EMAIL_VALUES);
+        assertEquals(List.of(2, 1), List.copyOf(afterMap.keySet()));
+        assertSame(map.comparator(), afterMap.comparator());
+    }
+
+    @Test
+    void preserveEnumMap() {
+
+        var map = new EnumMap<TimeUnit, String>(TimeUnit.class);
+        map.put(TimeUnit.SECONDS, "123456@qq.com");
+        var after = Sensitive.desensitize(map, UNIT_EMAILS);
+
+        assertSame(EnumMap.class, after.getClass());
+        assertEquals("1*****@qq.com", after.get(TimeUnit.SECONDS));
+        assertEquals("123456@qq.com", map.get(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void immutable() {
+
+        var list = Sensitive.desensitize(List.of("111111@qq.com", "222222@qq.com", "333333@qq.com"), EMAILS);
+        assertEquals(List.of("1*****@qq.com", "2*****@qq.com", "3*****@qq.com"), list);
+        assertSame(List.of(1, 2, 3).getClass(), list.getClass());
+
+        // 不同的元素脱敏后相同时会被去重
+        var set = Sensitive.desensitize(Set.of("111111@qq.com", "122222@qq.com"), EMAIL_SET);
+        assertEquals(Set.of("1*****@qq.com"), set);
+        assertSame(Set.of(1).getClass(), set.getClass());
+
+        var map = Sensitive.desensitize(Map.of(1, "111111@qq.com"), EMAIL_VALUES);
+        assertEquals(Map.of(1, "1*****@qq.com"), map);
+        assertSame(Map.of(1, 1).getClass(), map.getClass());
+
+        var keys = Sensitive.desensitize(Map.of("111111@qq.com", "a", "122222@qq.com", "a"), EMAIL_KEYS);
+        assertEquals(Map.of("1*****@qq.com", "a"), keys);
+        assertThrows(UnsupportedOperationException.class, () -> keys.put("b", "b"));
+    }
+
+    @Test
+    void unmodifiable() {
+
+        var list = Sensitive.desensitize(Collections.unmodifiableList(new ArrayList<>(List.of("111111@qq.com", "222222@qq.com"))), EMAILS);
+        assertEquals(List.of("1*****@qq.com", "2*****@qq.com"), list);
+        assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+
+        var source = new LinkedHashMap<Integer, String>();
+        source.put(2, "222222@qq.com");
+        source.put(1, "111111@qq.com");
+        var map = Sensitive.desensitize(Collections.unmodifiableMap(source), EMAIL_VALUES);
+        assertEquals(List.of(2, 1), List.copyOf(map.keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(3, "333333@qq.com"));
+    }
+
+    @Test
+    void preserveSortedType() {
+
+        var set = new ConcurrentSkipListSet<String>(Comparator.reverseOrder());
+        set.addAll(List.of("111111@qq.com", "222222@qq.com"));
+        var after = Sensitive.desensitize(set, new AnnotatedTypeToken<ConcurrentSkipListSet<@Email String>>() {
+        });
+        assertSame(ConcurrentSkipListSet.class, after.getClass());
+        assertEquals(List.of("2*****@qq.com", "1*****@qq.com"), List.copyOf(after));
+        assertSame(set.comparator(), after.comparator());
+
+        var map = new ConcurrentSkipListMap<Integer, String>(Map.of(1, "111111@qq.com"));
+        var afterMap = Sensitive.desensitize(map, new AnnotatedTypeToken<ConcurrentSkipListMap<Integer, @Email String>>() {
+        });
+        assertSame(ConcurrentSkipListMap.class, afterMap.getClass());
+        assertEquals(Map.of(1, "1*****@qq.com"), afterMap);
+
+        var holder = Sensitive.desensitize(new Sorted());
+        assertEquals(List.of("1*****@qq.com"), List.copyOf(holder.emails));
+    }
+
+    @Test
+    void sortedViews() {
+
+        var source = new TreeSet<String>(Comparator.reverseOrder());
+        source.addAll(List.of("111111@qq.com", "222222@qq.com"));
+        var sorted = Sensitive.desensitize(Collections.unmodifiableSortedSet(source), new AnnotatedTypeToken<SortedSet<@Email String>>() {
+        });
+        assertSame(Collections.unmodifiableSortedSet(source).getClass(), sorted.getClass());
+        assertEquals(List.of("2*****@qq.com", "1*****@qq.com"), List.copyOf(sorted));
+        assertThrows(UnsupportedOperationException.class, () -> sorted.add("b"));
+        var navigable = Sensitive.desensitize(Collections.unmodifiableNavigableSet(source), new AnnotatedTypeToken<NavigableSet<@Email String>>() {
+        });
+        assertSame(Collections.unmodifiableNavigableSet(source).getClass(), navigable.getClass());
+        assertSame(source.comparator(), navigable.comparator());
+
+        var sourceMap = new TreeMap<Integer, String>(Map.of(1, "111111@qq.com"));
+        var sortedMap = Sensitive.desensitize(Collections.unmodifiableSortedMap(sourceMap), new AnnotatedTypeToken<SortedMap<Integer, @Email String>>() {
+        });
+        assertSame(Collections.unmodifiableSortedMap(sourceMap).getClass(), sortedMap.getClass());
+        assertEquals(Map.of(1, "1*****@qq.com"), sortedMap);
+        assertThrows(UnsupportedOperationException.class, () -> sortedMap.put(2, "b"));
+        var navigableMap = Sensitive.desensitize(Collections.unmodifiableNavigableMap(sourceMap), new AnnotatedTypeToken<NavigableMap<Integer, @Email String>>() {
+        });
+        assertSame(Collections.unmodifiableNavigableMap(sourceMap).getClass(), navigableMap.getClass());
+    }
+
+    @Test
+    void synchronizedViews() {
+
+        var list = Collections.synchronizedList(new ArrayList<>(List.of("111111@qq.com")));
+        assertSame(list.getClass(), Sensitive.desensitize(list, EMAILS).getClass());
+        var set = Collections.synchronizedSet(new HashSet<>(Set.of("111111@qq.com")));
+        assertSame(set.getClass(), Sensitive.desensitize(set, EMAIL_SET).getClass());
+        var collection = Collections.synchronizedCollection(new ArrayList<>(List.of("111111@qq.com")));
+        var afterCollection = Sensitive.desensitize(collection, new AnnotatedTypeToken<Collection<@Email String>>() {
+        });
+        assertSame(collection.getClass(), afterCollection.getClass());
+        assertEquals(List.of("1*****@qq.com"), List.copyOf(afterCollection));
+
+        var sortedSet = Collections.synchronizedSortedSet(new TreeSet<>(Set.of("111111@qq.com")));
+        assertSame(sortedSet.getClass(), Sensitive.desensitize(sortedSet, EMAIL_SET).getClass());
+        var navigableSet = Collections.synchronizedNavigableSet(new TreeSet<>(Set.of("111111@qq.com")));
+        assertSame(navigableSet.getClass(), Sensitive.desensitize(navigableSet, EMAIL_SET).getClass());
+
+        var map = Collections.synchronizedMap(new HashMap<>(Map.of(1, "111111@qq.com")));
+        var afterMap = Sensitive.desensitize(map, EMAIL_VALUES);
+        assertSame(map.getClass(), afterMap.getClass());
+        assertEquals(Map.of(1, "1*****@qq.com"), afterMap);
+        var sortedMap = Collections.synchronizedSortedMap(new TreeMap<>(Map.of(1, "111111@qq.com")));
+        assertSame(sortedMap.getClass(), Sensitive.desensitize(sortedMap, EMAIL_VALUES).getClass());
+        var navigableMap = Collections.synchronizedNavigableMap(new TreeMap<>(Map.of(1, "111111@qq.com")));
+        assertSame(navigableMap.getClass(), Sensitive.desensitize(navigableMap, EMAIL_VALUES).getClass());
+    }
+
+    @Test
+    void large() {
+
+        var map = HashMap.<Integer, String>newHashMap(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            map.put(i, i + "@qq.com");
+        }
+        var after = Sensitive.desensitize(map, EMAIL_VALUES);
+
+        assertSame(HashMap.class, after.getClass());
+        assertEquals(100_000, after.size());
+        assertEquals("9****@qq.com", after.get(99_999));
+    }
+
+    @Test
+    void nullRejecting() {
+
+        var budget = Budget.UNLIMITED.withMaxDepth(1, Budget.Policy.MASK);
+
+        var lists = new ConcurrentHashMap<String, List<String>>(Map.of("a", List.of("123456@qq.com")));
+        var afterLists = Sensitive.desensitize(lists, new AnnotatedTypeToken<ConcurrentHashMap<String, List<@Email String>>>() {
+        }, budget);
+        assertSame(ConcurrentHashMap.class, afterLists.getClass());
+        assertEquals(Map.of("a", List.of()), afterLists);
+
+        // 完全脱敏后的null无法放入ConcurrentHashMap和ArrayDeque
+        var users = new ConcurrentHashMap<String, User>(Map.of("a", new User()));
+        Map<String, User> afterUsers = Sensitive.desensitize(users, new AnnotatedTypeToken<Map<String, @Cascade User>>() {
+        }, budget);
+        assertSame(LinkedHashMap.class, afterUsers.getClass());
+        assertNull(afterUsers.get("a"));
+
+        var deque = new ArrayDeque<>(List.of(new User()));
+        Collection<User> afterDeque = Sensitive.desensitize(deque, new AnnotatedTypeToken<Collection<@Cascade User>>() {
+        }, budget);
+        assertSame(LinkedList.class, afterDeque.getClass());
+        assertNull(afterDeque.iterator().next());
+    }
+
+    static class Sorted {
+
+        ConcurrentSkipListSet<@Email String> emails = new ConcurrentSkipListSet<>(Set.of("123456@qq.com"));
+    }
+
+    static class User {
+
+        @Email
+        String email = "123456@qq.com";
+    }
+}
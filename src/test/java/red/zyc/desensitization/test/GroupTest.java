@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.CascadeGroups;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 分组脱敏
+ *
+ * @author zyc
+ */
+public class GroupTest {
+
+    @Test
+    void allGroups() {
+
+        // 没有激活分组时所有规则都会生效
+        var after = Sensitive.desensitize(new Account());
+
+        assertEquals("1*****@qq.com", after.email);
+        assertEquals("199****0001", after.phoneNumber);
+        assertEquals("6*****@qq.com", after.contact.email);
+    }
+
+    @Test
+    void activeGroup() {
+
+        var external = Sensitive.desensitize(new Account(), External.class);
+        assertEquals("1*****@qq.com", external.email);
+        assertEquals("199****0001", external.phoneNumber);
+        assertEquals("6*****@qq.com", external.contact.email);
+
+        // 内部视图只有没有指定分组的规则生效
+        var internal = Sensitive.desensitize(new Account(), Internal.class);
+        assertEquals("1*****@qq.com", internal.email);
+        assertEquals("19962000001", internal.phoneNumber);
+        assertEquals("654321@qq.com", internal.contact.email);
+    }
+
+    @Test
+    void inheritedGroup() {
+
+        // 激活的分组是规则分组的子类型时规则生效
+        var after = Sensitive.desensitize(new Account(), Partner.class);
+
+        assertEquals("199****0001", after.phoneNumber);
+    }
+
+    @Test
+    void skipInactiveSubtree() {
+
+        var emails = List.of("123456@qq.com");
+        var typeToken = new AnnotatedTypeToken<List<@Email(groups = External.class) String>>() {
+        };
+
+        // 没有生效规则的集合直接返回原对象，不会被遍历
+        assertSame(emails, Sensitive.desensitize(emails, typeToken, Internal.class));
+        assertEquals(List.of("1*****@qq.com"), Sensitive.desensitize(emails, typeToken, Internal.class, External.class));
+        assertEquals(List.of("1*****@qq.com"), Sensitive.desensitize(emails, typeToken));
+    }
+
+    interface Internal {
+    }
+
+    interface External {
+    }
+
+    interface Partner extends External {
+    }
+
+    static class Account {
+
+        @Email
+        String email = "123456@qq.com";
+
+        @PhoneNumber(groups = External.class)
+        String phoneNumber = "19962000001";
+
+        @CascadeGroups(External.class)
+        @Cascade
+        Contact contact = new Contact();
+    }
+
+    static class Contact {
+
+        @Email
+        String email = "654321@qq.com";
+    }
+}
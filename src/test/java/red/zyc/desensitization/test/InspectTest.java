@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.SensitiveVisitor;
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 只读地检查需要脱敏的值
+ *
+ * @author zyc
+ */
+public class InspectTest {
+
+    @Test
+    void inspect() {
+
+        var customer = new Customer();
+        customer.friend = new Customer();
+        // 循环引用不会导致无限递归
+        customer.friend.friend = customer;
+        List<String> found = new ArrayList<>();
+
+        long count = Sensitive.inspect(customer, (path, annotationType, length) -> found.add(path + " " + annotationType.getSimpleName() + " " + length));
+
+        assertEquals(List.of(
+                "$.name ChineseName 3",
+                "$.emails[0] Email 13",
+                "$.emails[1] Email 9",
+                "$.phones[home] PhoneNumber 11",
+                "$.accounts[0] MaskDigits 6",
+                "$.friend.name ChineseName 3",
+                "$.friend.emails[0] Email 13",
+                "$.friend.emails[1] Email 9",
+                "$.friend.phones[home] PhoneNumber 11",
+                "$.friend.accounts[0] MaskDigits 6"), found);
+        assertEquals(10, count);
+        // 目标对象不会被修改
+        assertEquals("张三丰", customer.name);
+    }
+
+    @Test
+    void inspectTypeToken() {
+
+        Map<String, List<String>> target = new LinkedHashMap<>();
+        target.put("13800000000", List.of("19962000001", "19962000002"));
+        List<String> found = new ArrayList<>();
+
+        long count = Sensitive.inspect(target, new AnnotatedTypeToken<Map<@PhoneNumber String, List<@PhoneNumber String>>>() {
+        }, (path, annotationType, length) -> found.add(path.toString()));
+
+        // 键需要脱敏时值的路径使用条目的序号
+        assertEquals(List.of("${0}", "$[0][0]", "$[0][1]"), found);
+        assertEquals(3, count);
+    }
+
+    @Test
+    void inspectCondition() {
+
+        List<String> found = new ArrayList<>();
+
+        long count = Sensitive.inspect(List.of("", "123456"), new AnnotatedTypeToken<List<@Strings(condition = NonEmpty.class) String>>() {
+        }, (path, annotationType, length) -> found.add(path.toString()));
+
+        // 与脱敏一样，条件不满足的值不会被报告
+        assertEquals(List.of("$[1]"), found);
+        assertEquals(1, count);
+    }
+
+    @Test
+    void inspectUninspectable() {
+
+        var target = new Holder();
+        target.box.value = "123456@qq.com";
+        List<String> uninspectable = new ArrayList<>();
+
+        long count = Sensitive.inspect(target, new SensitiveVisitor() {
+
+            @Override
+            public void visit(CharSequence path, Class<? extends Annotation> annotationType, int length) {
+            }
+
+            @Override
+            public void uninspectable(CharSequence path, Class<?> type) {
+                uninspectable.add(path + " " + type.getSimpleName());
+            }
+        });
+
+        // 交由annotation-parser处理的值以及尚未完成的Future无法只读遍历，但不会被静默忽略
+        assertEquals(List.of("$.box Box", "$.email CompletableFuture"), uninspectable);
+        assertEquals(0, count);
+    }
+
+    static class Holder {
+
+        Box<@Email String> box = new Box<>();
+
+        CompletableFuture<@Email String> email = new CompletableFuture<>();
+    }
+
+    static class Box<T> {
+
+        T value;
+    }
+
+    static class NonEmpty implements Condition<String> {
+
+        @Override
+        public boolean required(String target) {
+            return !target.isEmpty();
+        }
+    }
+
+    static class Customer {
+
+        @ChineseName
+        String name = "张三丰";
+
+        List<@Email String> emails = List.of("123456@qq.com", "a@163.com");
+
+        Map<String, @PhoneNumber String> phones = Map.of("home", "19962000001");
+
+        @MaskDigits
+        long[] accounts = {123456};
+
+        String remark = "remark";
+
+        @Cascade
+        Customer friend;
+    }
+}
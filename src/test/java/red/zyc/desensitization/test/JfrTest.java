@@ -0,0 +1,74 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.desensitization.jfr.DesensitizeEvent;
+import red.zyc.desensitization.jfr.PatternCompilationEvent;
+import red.zyc.desensitization.jfr.TypeResolutionEvent;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 脱敏JFR事件
+ *
+ * @author zyc
+ */
+public class JfrTest {
+
+    @Test
+    void desensitize() throws Exception {
+
+        List<RecordedEvent> events;
+        try (var recording = new Recording()) {
+            recording.enable(DesensitizeEvent.NAME).withoutThreshold();
+            recording.enable(TypeResolutionEvent.NAME).withoutThreshold();
+            recording.enable(PatternCompilationEvent.NAME).withoutThreshold();
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                Sensitive.desensitize(new String[]{"123", "456"}, new AnnotatedTypeToken<@Strings(regexp = "[2-5]+") String[]>() {
+                });
+            }
+
+            recording.stop();
+            var file = Files.createTempFile("desensitization", ".jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+        }
+
+        var desensitizeEvents = events.stream().filter(e -> e.getEventType().getName().equals(DesensitizeEvent.NAME)).toList();
+        assertEquals(3, desensitizeEvents.size());
+        assertEquals(2, desensitizeEvents.get(0).getInt("elementCount"));
+        assertEquals(String[].class.getName(), desensitizeEvents.get(0).getClass("targetType").getName());
+
+        assertEquals(1, events.stream().filter(e -> e.getEventType().getName().equals(TypeResolutionEvent.NAME)).count());
+
+        var compilationEvents = events.stream().filter(e -> e.getEventType().getName().equals(PatternCompilationEvent.NAME)).toList();
+        assertEquals(1, compilationEvents.size());
+        assertEquals("[2-5]+", compilationEvents.get(0).getString("regexp"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.test.model.Child;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 脱敏后直接写入JSON
+ *
+ * @author zyc
+ */
+public class JsonTest {
+
+    @Test
+    void writeJson() throws IOException {
+
+        var out = new StringBuilder();
+        Sensitive.writeJson(new Child<>(), out);
+
+        assertEquals("{\"name\":\"小x\",\"phoneNumber\":\"199****0001\",\"idCardNumber\":\"321181********6000\",\"password\":\"*********\",\"bankCardNumber\":\"***************2440\","
+                + "\"parents\":[{\"name\":\"明明*\",\"phoneNumber\":\"199****0002\",\"email\":\"4*****@qq.com\",\"idCardNumber\":\"321181********6001\",\"bankCardNumber\":\"***************2441\",\"password\":\"******\"},"
+                + "{\"name\":\"明明*\",\"phoneNumber\":\"199****0003\",\"email\":\"5*****@qq.com\",\"idCardNumber\":\"321181********6002\",\"bankCardNumber\":\"***************2442\",\"password\":\"******\"}],"
+                + "\"emails\":[\"1*****@qq.com\",\"2*****@qq.com\",\"3*****@qq.com\"]}", out.toString());
+    }
+
+    @Test
+    void writeJsonWithTypeToken() throws IOException {
+
+        var out = new StringBuilder();
+        Sensitive.writeJson(Map.of("a\"b", List.of("123456@qq.com")), new AnnotatedTypeToken<Map<String, List<@Email String>>>() {
+        }, out);
+
+        assertEquals("{\"a\\\"b\":[\"1*****@qq.com\"]}", out.toString());
+    }
+
+    @Test
+    void writeJsonWithFuture() throws IOException {
+
+        var typeToken = new AnnotatedTypeToken<List<CompletableFuture<@Email String>>>() {
+        };
+        var out = new StringBuilder();
+        Sensitive.writeJson(List.of(CompletableFuture.completedFuture("123456@qq.com"), new CompletableFuture<>(), CompletableFuture.failedFuture(new IllegalStateException())), typeToken, out);
+
+        // 尚未完成或者异常完成的异步结果写成null
+        assertEquals("[\"1*****@qq.com\",null,null]", out.toString());
+    }
+
+    @Test
+    void writeJsonToOutputStream() throws IOException {
+
+        var out = new ByteArrayOutputStream();
+        Sensitive.writeJson(new Account(), out);
+
+        assertEquals("{\"accounts\":[6220000000007890,-9220000000000005808],\"remark\":\"line\\n\",\"active\":true,\"score\":1.5,\"tags\":null}", out.toString(StandardCharsets.UTF_8));
+    }
+
+    static class Account {
+
+        @MaskDigits
+        long[] accounts = {6222021234567890L, Long.MIN_VALUE};
+
+        String remark = "line\n";
+
+        boolean active = true;
+
+        double score = 1.5;
+
+        List<String> tags;
+    }
+}
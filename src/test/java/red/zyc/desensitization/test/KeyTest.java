@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.KeyRules;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Mask;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 根据键名脱敏
+ *
+ * @author zyc
+ */
+public class KeyTest {
+
+    @Test
+    void defaults() {
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", 1);
+        payload.put("PHONE_NUMBER", "19962000001");
+        payload.put("password", "123456");
+        payload.put("contact", Map.of("e-mail", "654321@qq.com", "Email", "123456@qq.com"));
+        payload.put("children", List.of(Map.of("mobile", 19962000001L), Map.of("name", "alice")));
+        var after = Sensitive.desensitizeKeys(payload, KeyRules.defaults());
+
+        assertEquals(List.of("id", "PHONE_NUMBER", "password", "contact", "children"), List.copyOf(after.keySet()));
+        assertEquals(1, after.get("id"));
+        assertEquals("199****0001", after.get("PHONE_NUMBER"));
+        assertEquals("******", after.get("password"));
+        assertEquals(Map.of("e-mail", "6*****@qq.com", "Email", "1*****@qq.com"), after.get("contact"));
+        assertEquals(List.of(Map.of("mobile", "199****0001"), Map.of("name", "alice")), after.get("children"));
+        // 原Map不会被修改
+        assertEquals("19962000001", payload.get("PHONE_NUMBER"));
+    }
+
+    @Test
+    void container() {
+
+        // 键名匹配的规则作用于容器中的所有值
+        Map<String, Object> payload = Map.of("phones", "ignored", "phone", List.of("19962000001", new Object[]{"19962000002"}));
+        var after = Sensitive.desensitizeKeys(payload, KeyRules.defaults());
+        var phones = (List<?>) after.get("phone");
+
+        assertEquals("199****0001", phones.get(0));
+        assertEquals("199****0002", ((Object[]) phones.get(1))[0]);
+        assertEquals("ignored", after.get("phones"));
+    }
+
+    @Test
+    void unchanged() {
+
+        Map<String, Object> payload = Map.of("id", 1, "items", List.of(Map.of("sku", "a")));
+
+        assertSame(payload, Sensitive.desensitizeKeys(payload, KeyRules.defaults()));
+    }
+
+    @Test
+    void customRule() {
+
+        var rule = new AnnotatedTypeToken<@Mask(keepFirst = 2) String>() {
+        }.getAnnotatedType().getAnnotation(Mask.class);
+        var rules = KeyRules.builder().defaults().rule(rule, "orderNo", "password").build();
+        var after = Sensitive.desensitizeKeys(Map.of("ORDER_NO", "20230101", "password", "123456"), rules);
+
+        assertEquals("20******", after.get("ORDER_NO"));
+        assertEquals("12****", after.get("password"));
+    }
+
+    @Test
+    void numberRule() {
+
+        var rule = new AnnotatedTypeToken<@MaskDigits(keepFirst = 1, keepLast = 0) Long>() {
+        }.getAnnotatedType().getAnnotation(MaskDigits.class);
+        var rules = KeyRules.builder().rule(rule, "amount").build();
+        var after = Sensitive.desensitizeKeys(Map.of("amount", List.of(12345L, 678, "text")), rules);
+
+        // 数字处理器只处理数字并保持原来的类型
+        assertEquals(List.of(10000L, 600, "text"), after.get("amount"));
+    }
+
+    @Test
+    void manyRules() {
+
+        var rule = new AnnotatedTypeToken<@Mask String>() {
+        }.getAnnotatedType().getAnnotation(Mask.class);
+        var builder = KeyRules.builder();
+        for (int i = 0; i < 500; i++) {
+            builder.rule(rule, "key" + i);
+        }
+        var rules = builder.build();
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(Map.of("KEY_" + i, "**"), Sensitive.desensitizeKeys(Map.of("KEY_" + i, "ab"), rules));
+        }
+        assertEquals(Map.of("key500", "ab"), Sensitive.desensitizeKeys(Map.of("key500", "ab"), rules));
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.logging.MaskingHandler;
+import red.zyc.desensitization.logging.MaskingPipeline;
+import red.zyc.desensitization.logging.OverflowPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 日志脱敏管道
+ *
+ * @author zyc
+ */
+public class LoggingTest {
+
+    @Test
+    void maskText() throws Exception {
+
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(received::addAll).capacity(16).consumers(2).build();
+             var producers = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 4; i++) {
+                producers.submit(() -> {
+                    for (int j = 0; j < 250; j++) {
+                        pipeline.publish("用户19962000001登录，邮箱123456@qq.com");
+                    }
+                });
+            }
+            producers.shutdown();
+            assertTrue(producers.awaitTermination(1, TimeUnit.MINUTES));
+        }
+
+        assertEquals(1000, received.size());
+        assertTrue(received.stream().allMatch("用户199****0001登录，邮箱1*****@qq.com"::equals));
+    }
+
+    @Test
+    void maskCardNumbers() {
+
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(received::addAll).build()) {
+            pipeline.publish("身份证321181199301096000，银行卡6222021234567890123，订单20230101");
+        }
+
+        assertEquals(List.of("身份证321181********6000，银行卡***************0123，订单20230101"), received);
+    }
+
+    @Test
+    void maskLargeText() {
+
+        var line = "2023-01-01 12:00:00.000 INFO 用户19962000001登录，邮箱123456@qq.com，订单20230101000001\n";
+        var masked = "2023-01-01 12:00:00.000 INFO 用户199****0001登录，邮箱1*****@qq.com，订单20230101000001\n";
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(received::addAll).build()) {
+            pipeline.publish(line.repeat(20_000));
+        }
+
+        assertEquals(List.of(masked.repeat(20_000)), received);
+    }
+
+    /**
+     * 较短的文本逐个字符查找数字或者{@code @}，较长的文本使用当前运行时可用的扫描实现，两者的结果必须一致。
+     * 构建时会分别在启用和不启用Vector API的情况下运行该测试
+     */
+    @Test
+    void scanners() {
+
+        var random = new Random(0);
+        String[] words = {"19962000001", "123456@qq.com", "321181199301096000", "6222021234567890123", "20230101", "订单", "user", "@", "-", "9"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            var line = new StringBuilder();
+            while (line.length() < 128) {
+                line.append("空".repeat(random.nextInt(40))).append(words[random.nextInt(words.length)]).append(' ');
+            }
+            lines.add(line.toString());
+        }
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(received::addAll).build()) {
+            lines.forEach(pipeline::publish);
+            pipeline.publish(String.join("\n", lines));
+        }
+
+        assertEquals(String.join("\n", received.subList(0, lines.size())), received.get(lines.size()));
+    }
+
+    @Test
+    void drop() throws InterruptedException {
+
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(batch -> {
+            blocked.countDown();
+            await(release);
+            received.addAll(batch);
+        }).capacity(4).batchSize(1).overflow(OverflowPolicy.DROP).build()) {
+            pipeline.publish("19962000001");
+            assertTrue(blocked.await(1, TimeUnit.MINUTES));
+            for (int i = 0; i < 4; i++) {
+                assertTrue(pipeline.publish("19962000001"));
+            }
+            assertFalse(pipeline.publish("19962000001"));
+            assertEquals(1, pipeline.dropped());
+            release.countDown();
+        }
+
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    void maskInline() throws InterruptedException {
+
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        List<String> inline = Collections.synchronizedList(new ArrayList<>());
+        var producer = Thread.currentThread();
+        try (var pipeline = MaskingPipeline.builder(batch -> {
+            if (Thread.currentThread() == producer) {
+                inline.addAll(batch);
+                return;
+            }
+            blocked.countDown();
+            await(release);
+        }).capacity(2).batchSize(1).overflow(OverflowPolicy.MASK_INLINE).build()) {
+            pipeline.publish("a");
+            assertTrue(blocked.await(1, TimeUnit.MINUTES));
+            pipeline.publish("b");
+            pipeline.publish("c");
+            pipeline.publish("19962000001");
+            release.countDown();
+        }
+
+        assertEquals(List.of("199****0001"), inline);
+    }
+
+    @Test
+    void handler() {
+
+        List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+        var handler = new MaskingHandler(new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        var logger = Logger.getLogger(LoggingTest.class.getName());
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        try {
+            logger.log(Level.INFO, "手机号{0}，邮箱{1}", new Object[]{"19962000001", "123456@qq.com"});
+        } finally {
+            logger.removeHandler(handler);
+            handler.close();
+        }
+
+        assertEquals(1, records.size());
+        assertEquals("手机号199****0001，邮箱1*****@qq.com", records.get(0).getMessage());
+        assertEquals(LoggingTest.class.getName(), records.get(0).getSourceClassName());
+        assertEquals("handler", records.get(0).getSourceMethodName());
+    }
+
+    @Test
+    void handlerMasksThrown() {
+
+        List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+        var handler = new MaskingHandler(collect(records, new CountDownLatch(0)));
+        var thrown = new IllegalStateException("手机号19962000001", new RuntimeException("邮箱123456@qq.com"));
+        try {
+            handler.publish(record("登录失败", null, thrown));
+        } finally {
+            handler.close();
+        }
+
+        Throwable masked = records.get(0).getThrown();
+        assertEquals("java.lang.IllegalStateException: 手机号199****0001", masked.toString());
+        assertEquals("手机号199****0001", masked.getMessage());
+        assertEquals("java.lang.RuntimeException: 邮箱1*****@qq.com", masked.getCause().toString());
+        assertArrayEquals(thrown.getStackTrace(), masked.getStackTrace());
+    }
+
+    @Test
+    void handlerFormatsOnProducer() throws InterruptedException {
+
+        var release = new CountDownLatch(1);
+        List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+        var handler = new MaskingHandler(collect(records, release));
+        var phone = new StringBuilder("19962000001");
+        try {
+            handler.publish(record("等待", null, null));
+            handler.publish(record("手机号{0}", phone, null));
+            phone.replace(0, phone.length(), "已修改");
+            release.countDown();
+        } finally {
+            handler.close();
+        }
+
+        assertEquals("手机号199****0001", records.get(1).getMessage());
+    }
+
+    @Test
+    void flush() {
+
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.builder(batch -> {
+            sleep();
+            received.addAll(batch);
+        }).capacity(64).consumers(2).batchSize(4).build()) {
+            for (int i = 0; i < 50; i++) {
+                pipeline.publish("19962000001");
+            }
+            pipeline.flush();
+            assertEquals(50, received.size());
+        }
+    }
+
+    @Test
+    void handlerFlush() {
+
+        List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> flushed = new ArrayList<>();
+        var handler = new MaskingHandler(new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                sleep();
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+                flushed.add(records.size());
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        try {
+            for (int i = 0; i < 20; i++) {
+                handler.publish(record("手机号19962000001", null, null));
+            }
+            handler.flush();
+        } finally {
+            handler.close();
+        }
+
+        // 被包装的Handler刷新时缓冲区中的日志记录都已经输出
+        assertEquals(List.of(20), flushed);
+    }
+
+    @Test
+    void consumerSurvivesError() {
+
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        try (var pipeline = MaskingPipeline.<String>builder(batch -> {
+            if (batch.contains("error")) {
+                throw new AssertionError("error");
+            }
+            received.addAll(batch);
+        }).batchSize(1).onError(errors::add).build()) {
+            pipeline.publish("error");
+            pipeline.publish("19962000001");
+        }
+
+        assertEquals(List.of("199****0001"), received);
+        assertEquals(1, errors.size());
+        assertInstanceOf(AssertionError.class, errors.get(0));
+    }
+
+    @Test
+    void failWhenConsumersTerminated() throws InterruptedException {
+
+        var terminated = new CountDownLatch(1);
+        try (var pipeline = MaskingPipeline.<String>builder(batch -> {
+            throw new AssertionError("sink");
+        }).threadFactory(runnable -> {
+            var thread = new Thread(() -> {
+                try {
+                    runnable.run();
+                } finally {
+                    terminated.countDown();
+                }
+            });
+            thread.setUncaughtExceptionHandler((t, e) -> {
+            });
+            return thread;
+        }).onError(e -> {
+            throw new IllegalStateException("onError", e);
+        }).build()) {
+            pipeline.publish("19962000001");
+            assertTrue(terminated.await(1, TimeUnit.MINUTES));
+            assertThrows(IllegalStateException.class, () -> pipeline.publish("19962000001"));
+        }
+    }
+
+    private static LogRecord record(String message, Object parameter, Throwable thrown) {
+        var record = new LogRecord(Level.INFO, message);
+        record.setParameters(parameter == null ? null : new Object[]{parameter});
+        record.setThrown(thrown);
+        return record;
+    }
+
+    private static Handler collect(List<LogRecord> records, CountDownLatch release) {
+        return new Handler() {
+
+            @Override
+            public void publish(LogRecord record) {
+                await(release);
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static void sleep() {
+        try {
+            TimeUnit.MILLISECONDS.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
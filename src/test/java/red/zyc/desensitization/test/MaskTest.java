@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Mask;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.handler.MaskHandler;
+import red.zyc.parser.handler.Parse;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+
+/**
+ * 通用的{@link Mask}注解以及预设注解
+ *
+ * @author zyc
+ */
+public class MaskTest {
+
+    @Test
+    void desensitize() {
+
+        var after = Sensitive.desensitize(new Order());
+
+        Assertions.assertEquals("199****0001", after.phoneNumber);
+        Assertions.assertEquals("1*****@qq.com", after.email);
+        Assertions.assertEquals("*", after.shortCode);
+        Assertions.assertEquals("1****", after.verifyCode);
+        Assertions.assertEquals("20##########89", after.orderNumber);
+        Assertions.assertEquals("20@@@@@@@@@@89", after.customOrderNumber);
+        Assertions.assertEquals("123****", after.legacy);
+    }
+
+    @Test
+    void handle() throws NoSuchFieldException {
+
+        // 不经过绑定直接调用处理器时每次都会解析预设注解
+        var annotation = Order.class.getDeclaredField("customOrderNumber").getAnnotation(OrderNumber.class);
+
+        Assertions.assertEquals("20@@@@@@@@@@89", new MaskHandler().handle("20230101123489", annotation));
+        Assertions.assertEquals(List.of("20##########89"), Sensitive.desensitize(List.of("20230101123489"), new AnnotatedTypeToken<List<@OrderNumber String>>() {
+        }));
+    }
+
+    @Test
+    void illegalOffset() {
+
+        // 没有指定minMasked时保留的字符数超过字符序列的长度会抛出异常
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Sensitive.desensitize("123", new AnnotatedTypeToken<@Mask(keepFirst = 3, keepLast = 4) String>() {
+        }));
+    }
+
+    static class Order {
+
+        @Mask(keepFirst = 3, keepLast = 4)
+        String phoneNumber = "19962000001";
+
+        @Mask(regexp = "(?<=.).*(?=@)")
+        String email = "123456@qq.com";
+
+        @Mask(keepFirst = 3, keepLast = 4, minMasked = 1)
+        String shortCode = "8";
+
+        @Mask(keepFirst = 3, keepLast = 4, minMasked = 4)
+        String verifyCode = "12345";
+
+        @OrderNumber
+        String orderNumber = "20230101123489";
+
+        @OrderNumber(placeholder = '@')
+        String customOrderNumber = "20230101123489";
+
+        @PhoneNumber(endOffset = 0)
+        String legacy = "1234567";
+    }
+
+    /**
+     * 自定义的预设注解
+     */
+    @Target({ElementType.FIELD, ElementType.TYPE_USE})
+    @Retention(RetentionPolicy.RUNTIME)
+    @Mask(keepFirst = 2, keepLast = 2, placeholder = '#')
+    @Parse(handler = MaskHandler.class, annotation = OrderNumber.class)
+    public @interface OrderNumber {
+
+        char placeholder() default '#';
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.desensitization.handler.MaskHandler;
+import red.zyc.desensitization.metrics.JmxMetrics;
+import red.zyc.desensitization.metrics.Metrics;
+import red.zyc.desensitization.metrics.NoopMetrics;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 脱敏指标收集
+ *
+ * @author zyc
+ */
+public class MetricsTest {
+
+    @AfterEach
+    void uninstall() {
+        JmxMetrics.uninstall();
+    }
+
+    @Test
+    void desensitize() throws Exception {
+
+        var metrics = JmxMetrics.install();
+
+        Sensitive.desensitize("123456", new AnnotatedTypeToken<@Strings String>() {
+        });
+        Sensitive.desensitize("123456@qq.com", new AnnotatedTypeToken<@Email String>() {
+        });
+        Sensitive.desensitize("654321@qq.com", new AnnotatedTypeToken<@Email String>() {
+        });
+
+        assertEquals(3, metrics.getDesensitizeCount());
+        // 内置的字符序列敏感注解都是Mask的预设
+        assertEquals(3L, metrics.getHandledCounts().get(MaskHandler.class.getName()));
+        assertEquals(1, metrics.getOffsetCount());
+        assertEquals(2, metrics.getRegexpCount());
+        assertEquals(6 + 13 + 13, metrics.getProcessedChars());
+        assertEquals(6 + 5 + 5, metrics.getMaskedChars());
+        assertTrue(metrics.getPatternCacheHitRate() >= 0.5);
+
+        var server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(3L, server.getAttribute(new ObjectName(JmxMetrics.OBJECT_NAME), "DesensitizeCount"));
+    }
+
+    @Test
+    void noop() {
+
+        JmxMetrics.uninstall();
+
+        assertSame(NoopMetrics.INSTANCE, Metrics.current());
+        assertEquals("******", Sensitive.desensitize("123456", new AnnotatedTypeToken<@Strings String>() {
+        }));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Bucket;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.annotation.Rounding;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Number}以及基本类型脱敏
+ *
+ * @author zyc
+ */
+public class NumberTest {
+
+    @Test
+    void desensitize() {
+
+        var after = Sensitive.desensitize(new Ledger());
+
+        Assertions.assertEquals(6220000000007890L, after.account);
+        Assertions.assertEquals(-1230007, after.code);
+        Assertions.assertEquals(1235.0, after.amount);
+        Assertions.assertEquals(new BigDecimal("1235000"), after.total);
+        Assertions.assertEquals(12000, after.age);
+        Assertions.assertArrayEquals(new long[]{6220000000007890L, 123456L}, after.accounts);
+        Assertions.assertArrayEquals(new double[]{10.0, -10.0}, after.ratios);
+        Assertions.assertEquals(7, after.plain);
+    }
+
+    @Test
+    void desensitizeBoxed() {
+
+        var after = Sensitive.desensitize(12345.678, new AnnotatedTypeToken<@Rounding(scale = 2, mode = RoundingMode.DOWN) Double>() {
+        });
+
+        Assertions.assertEquals(12345.67, after);
+    }
+
+    @Test
+    void saturate() {
+
+        Assertions.assertEquals(Integer.MAX_VALUE, Sensitive.desensitize(Integer.MAX_VALUE, new AnnotatedTypeToken<@MaskDigits(placeholder = 9) Integer>() {
+        }));
+        Assertions.assertEquals(Long.MAX_VALUE, Sensitive.desensitize(Long.MAX_VALUE, new AnnotatedTypeToken<@MaskDigits(keepFirst = 0, keepLast = 0, placeholder = 9) Long>() {
+        }));
+        Assertions.assertEquals(Integer.MAX_VALUE, Sensitive.desensitize(Integer.MAX_VALUE - 1, new AnnotatedTypeToken<@Rounding(scale = -1, mode = RoundingMode.UP) Integer>() {
+        }));
+        Assertions.assertEquals(Long.MIN_VALUE, Sensitive.desensitize(Long.MIN_VALUE, new AnnotatedTypeToken<@Bucket(size = 3) Long>() {
+        }));
+        // 超出long范围的舍入单位
+        Assertions.assertEquals(0L, Sensitive.desensitize(Long.MAX_VALUE, new AnnotatedTypeToken<@Rounding(scale = -20) Long>() {
+        }));
+        Assertions.assertEquals(Long.MAX_VALUE, Sensitive.desensitize(Long.MAX_VALUE, new AnnotatedTypeToken<@Rounding(scale = -19) Long>() {
+        }));
+        Assertions.assertEquals(0L, Sensitive.desensitize(4_000_000_000_000_000_000L, new AnnotatedTypeToken<@Rounding(scale = -19) Long>() {
+        }));
+        Assertions.assertEquals(new BigDecimal("9999999999999999999"), Sensitive.desensitize(new BigDecimal("9223372036854775807"), new AnnotatedTypeToken<@MaskDigits(keepFirst = 0, keepLast = 0, placeholder = 9) BigDecimal>() {
+        }));
+    }
+
+    @Test
+    void desensitizeShortAndByte() {
+
+        Assertions.assertEquals((short) 12000, Sensitive.desensitize((short) 12345, new AnnotatedTypeToken<@Bucket(size = 1000) Short>() {
+        }));
+        Assertions.assertEquals(Byte.MAX_VALUE, Sensitive.desensitize((byte) 127, new AnnotatedTypeToken<@MaskDigits(keepFirst = 0, keepLast = 0, placeholder = 9) Byte>() {
+        }));
+        var after = Sensitive.desensitize(new Small());
+        Assertions.assertEquals((short) 1000, after.code);
+        Assertions.assertEquals((byte) 100, after.level);
+        Assertions.assertArrayEquals(new short[]{1000, 5000}, after.codes);
+        Assertions.assertArrayEquals(new byte[]{100, 100}, after.levels);
+    }
+
+    @Test
+    void rejectUnsupportedType() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Sensitive.desensitize(new AtomicLong(1), new AnnotatedTypeToken<@MaskDigits AtomicLong>() {
+        }));
+    }
+
+    static class Small {
+
+        @MaskDigits(keepFirst = 1, keepLast = 0)
+        short code = 1234;
+
+        @Rounding(scale = -2)
+        byte level = 123;
+
+        @MaskDigits(keepFirst = 1, keepLast = 0)
+        short[] codes = {1234, 5678};
+
+        @Rounding(scale = -2)
+        byte[] levels = {123, 99};
+    }
+
+    static class Ledger {
+
+        @MaskDigits
+        long account = 6222021234567890L;
+
+        @MaskDigits(keepLast = 1)
+        int code = -1234567;
+
+        @Rounding
+        double amount = 1234.56;
+
+        @Rounding(scale = -3)
+        BigDecimal total = new BigDecimal("1234567.89");
+
+        @Bucket(size = 1000)
+        int age = 12345;
+
+        @MaskDigits
+        long[] accounts = {6222021234567890L, 123456L};
+
+        @Bucket
+        double[] ratios = {12.5, -0.5};
+
+        int plain = 7;
+    }
+}
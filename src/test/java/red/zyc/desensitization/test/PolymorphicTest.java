@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 多态的级联脱敏
+ *
+ * @author zyc
+ */
+public class PolymorphicTest {
+
+    @Test
+    void desensitizeSealed() {
+
+        Sensitive.prepare(new AnnotatedTypeToken<List<@Cascade(inherited = true) Contact>>() {
+        });
+
+        var after = Sensitive.desensitize(List.of(new PhoneContact(), new EmailContact(), new WorkEmailContact()), new AnnotatedTypeToken<List<@Cascade(inherited = true) Contact>>() {
+        });
+
+        Assertions.assertEquals("199****0001", ((PhoneContact) after.get(0)).phoneNumber);
+        Assertions.assertEquals("1*****@qq.com", ((EmailContact) after.get(1)).email);
+        Assertions.assertEquals("1*****@qq.com", ((WorkEmailContact) after.get(2)).email);
+        Assertions.assertEquals("******", ((WorkEmailContact) after.get(2)).password);
+    }
+
+    @Test
+    void desensitizeMegamorphic() {
+
+        // 运行时类型的数量超过内联缓存的容量时退化为查询全局缓存
+        List<Account> accounts = List.of(new Account(), new Savings(), new Checking(), new Credit(), new Loan(), new Deposit());
+
+        IntStream.range(0, 3).forEach(i -> {
+            var after = Sensitive.desensitize(accounts, new AnnotatedTypeToken<List<@Cascade(inherited = true) Account>>() {
+            });
+            for (int j = 0; j < accounts.size(); j++) {
+                Assertions.assertSame(accounts.get(j).getClass(), after.get(j).getClass());
+                Assertions.assertEquals("******", after.get(j).password);
+            }
+        });
+    }
+
+    sealed interface Contact permits PhoneContact, EmailContact {
+    }
+
+    static final class PhoneContact implements Contact {
+
+        @PhoneNumber
+        String phoneNumber = "19962000001";
+    }
+
+    static sealed class EmailContact implements Contact permits WorkEmailContact {
+
+        @Email
+        String email = "123456@qq.com";
+    }
+
+    static final class WorkEmailContact extends EmailContact {
+
+        @Password
+        String password = "123456";
+    }
+
+    static class Account {
+
+        @Password
+        String password = "123456";
+    }
+
+    static class Savings extends Account {
+    }
+
+    static class Checking extends Account {
+    }
+
+    static class Credit extends Account {
+    }
+
+    static class Loan extends Account {
+    }
+
+    static class Deposit extends Account {
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.Strings;
+import red.zyc.desensitization.metrics.JmxMetrics;
+import red.zyc.desensitization.test.model.Child;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 预先解析类型
+ *
+ * @author zyc
+ */
+public class PrepareTest {
+
+    @AfterEach
+    void uninstall() {
+        JmxMetrics.uninstall();
+    }
+
+    @Test
+    void prepare() {
+
+        Sensitive.prepare(Account.class);
+
+        var metrics = JmxMetrics.install();
+        var after = Sensitive.desensitize(new Account());
+
+        assertEquals("12****@qq.com", after.email);
+        assertEquals("ab***", after.detail.remark);
+        assertEquals(1.0, metrics.getPatternCacheHitRate());
+    }
+
+    @Test
+    void prepareTypeToken() {
+
+        var typeToken = new AnnotatedTypeToken<List<@Strings(regexp = "(?<=^.{3}).*") String>>() {
+        };
+        Sensitive.prepare(typeToken);
+
+        var metrics = JmxMetrics.install();
+        var after = Sensitive.desensitize(List.of("123456"), typeToken);
+
+        assertEquals("123***", after.get(0));
+        assertEquals(1.0, metrics.getPatternCacheHitRate());
+    }
+
+    @Test
+    void prepareInParallel() throws Exception {
+
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            Sensitive.prepare(executor, Child.class, Account.class).get(1, TimeUnit.MINUTES);
+        }
+
+        assertEquals("小x", Sensitive.desensitize(new Child<>()).name);
+    }
+
+    static class Account {
+
+        @Email(regexp = "(?<=^.{2}).*(?=@)")
+        String email = "123456@qq.com";
+
+        @Cascade
+        Detail detail = new Detail();
+    }
+
+    static class Detail {
+
+        @Strings(regexp = "(?<=^.{2}).*")
+        String remark = "abcde";
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.processor.IndexProcessor;
+import red.zyc.desensitization.processor.NativeImageProcessor;
+
+import javax.annotation.processing.Processor;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 编译期注解处理器
+ *
+ * @author zyc
+ */
+public class ProcessorTest {
+
+    private static final String SOURCE = """
+            package demo;
+
+            import red.zyc.desensitization.annotation.ChineseName;
+            import red.zyc.desensitization.annotation.Email;
+            import red.zyc.desensitization.annotation.Password;
+            import red.zyc.desensitization.annotation.PhoneNumber;
+            import red.zyc.parser.type.Cascade;
+
+            import java.util.ArrayList;
+import java.util.List;
+
+            public class Account<T extends List<@Email String>> {
+
+                @PhoneNumber
+                String phoneNumber;
+
+                @ChineseName(regexp = "\\t")
+                String name;
+
+                List<@Cascade(inherited = true) Object> children;
+
+                T emails;
+
+                String plain;
+
+                static String constant;
+
+                static class Nested {
+
+                    @Password
+                    String password;
+                }
+
+                record Card(@Email String email) {
+                }
+            }
+            """;
+
+    @Test
+    void index(@TempDir Path dir) throws IOException {
+
+        var lines = Files.readAllLines(compile(dir, new IndexProcessor()).resolve("META-INF/desensitization/index"), StandardCharsets.UTF_8)
+                .stream()
+                .filter(line -> !line.startsWith("#"))
+                .toList();
+
+        assertEquals(List.of(
+                "demo.Account\tphoneNumber\tred.zyc.desensitization.annotation.PhoneNumber\tred.zyc.desensitization.handler.MaskHandler\t",
+                "demo.Account\tname\tred.zyc.desensitization.annotation.ChineseName\tred.zyc.desensitization.handler.MaskHandler\t\\t",
+                "demo.Account\tchildren\tred.zyc.parser.type.Cascade\t\t",
+                "demo.Account\temails\tred.zyc.desensitization.annotation.Email\tred.zyc.desensitization.handler.MaskHandler\t(?<=.).*(?=@)",
+                "demo.Account$Nested\tpassword\tred.zyc.desensitization.annotation.Password\tred.zyc.desensitization.handler.MaskHandler\t",
+                "demo.Account$Card\temail\tred.zyc.desensitization.annotation.Email\tred.zyc.desensitization.handler.MaskHandler\t(?<=.).*(?=@)"), lines);
+    }
+
+    @Test
+    void indexedType() {
+
+        // 索引中只记录了email，过期的索引不会导致带有注解的password被遗漏
+        var after = Sensitive.desensitize(new Indexed());
+
+        assertEquals("1*****@qq.com", after.email);
+        assertEquals("******", after.password);
+    }
+
+    @Test
+    void reflectConfig(@TempDir Path dir) throws IOException {
+
+        var config = Files.readString(compile(dir, new NativeImageProcessor(), "-A" + NativeImageProcessor.PROJECT_OPTION + "=demo/account").resolve("META-INF/native-image/demo/account/reflect-config.json"), StandardCharsets.UTF_8)
+                .replaceAll("\\s", "");
+
+        assertTrue(config.startsWith("[{") && config.endsWith("}]"));
+        assertTrue(config.contains("{\"name\":\"demo.Account\",\"allDeclaredFields\":true,\"allDeclaredConstructors\":true}"));
+        assertTrue(config.contains("{\"name\":\"demo.Account$Nested\",\"allDeclaredFields\":true,\"allDeclaredConstructors\":true}"));
+        // 记录类型需要记录组件及其访问器
+        assertTrue(config.contains("{\"name\":\"demo.Account$Card\",\"allDeclaredFields\":true,\"allDeclaredConstructors\":true,\"allDeclaredMethods\":true,\"allPublicMethods\":true,\"allRecordComponents\":true}"));
+        assertTrue(config.contains("{\"name\":\"red.zyc.desensitization.annotation.Email\",\"allDeclaredMethods\":true}"));
+        assertTrue(config.contains("{\"name\":\"red.zyc.desensitization.handler.MaskHandler\",\"allDeclaredConstructors\":true}"));
+        assertTrue(config.contains("{\"name\":\"red.zyc.desensitization.annotation.AlwaysTrue\",\"allDeclaredConstructors\":true}"));
+        // 内置注解即使没有被使用也会记录对应的处理器
+        assertTrue(config.contains("{\"name\":\"red.zyc.desensitization.handler.MaskDigitsHandler\",\"allDeclaredConstructors\":true}"));
+        // Object只有在运行时才能确定实际类型
+        assertFalse(config.contains("\"java.lang.Object\""));
+    }
+
+    /**
+     * 使用注解处理器编译{@link #SOURCE}
+     *
+     * @param dir       编译的根目录
+     * @param processor 注解处理器
+     * @param options   额外的编译选项
+     * @return 编译输出目录
+     */
+    static Path compile(Path dir, Processor processor, String... options) throws IOException {
+        var source = Files.createDirectories(dir.resolve("src/demo")).resolve("Account.java");
+        Files.writeString(source, SOURCE);
+        var output = Files.createDirectories(dir.resolve("classes"));
+        var classPath = Stream.of(System.getProperty("jdk.module.path"), System.getProperty("java.class.path"))
+                .filter(path -> path != null && !path.isEmpty())
+                .collect(Collectors.joining(File.pathSeparator));
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        try (var fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            var arguments = new ArrayList<>(List.of("-proc:only", "-classpath", classPath, "-d", output.toString()));
+            arguments.addAll(List.of(options));
+            var task = compiler.getTask(null, fileManager, null, arguments, null, fileManager.getJavaFileObjects(source));
+            task.setProcessors(List.of(processor));
+            assertTrue(task.call());
+        }
+        return output;
+    }
+
+    static class Indexed {
+
+        @Email
+        String email = "123456@qq.com";
+
+        @Password
+        String password = "123456";
+    }
+}
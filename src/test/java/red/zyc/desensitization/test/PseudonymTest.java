@@ -0,0 +1,156 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskStrategy;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.handler.Pseudonymizer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 保留格式的假名
+ *
+ * @author zyc
+ */
+public class PseudonymTest {
+
+    private static final byte[] KEY = "0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    @AfterEach
+    void unregister() {
+        Pseudonymizer.register(null);
+    }
+
+    @Test
+    void pseudonymize() {
+
+        Pseudonymizer.register(Pseudonymizer.of(KEY, 16));
+        var first = Sensitive.desensitize(new Account());
+        var second = Sensitive.desensitize(new Account());
+
+        assertTrue(first.phoneNumber.matches("199\\d{4}0001"));
+        assertNotEquals("19962000001", first.phoneNumber);
+        assertTrue(first.email.matches("1[0-9]{5}@qq\\.com"));
+        assertEquals(3, first.name.length());
+        assertTrue(first.name.startsWith("张"));
+        // 没有指定策略的域仍然使用占位符
+        assertEquals("199****0001", first.masked);
+        // 相同的原始值总是得到相同的假名
+        assertEquals(first.phoneNumber, second.phoneNumber);
+        assertEquals(first.email, second.email);
+        assertEquals(first.name, second.name);
+    }
+
+    @Test
+    void keyed() {
+
+        var pseudonymizer = Pseudonymizer.of(KEY);
+        var cached = Pseudonymizer.of(KEY, 4);
+        var other = Pseudonymizer.of("fedcba9876543210".getBytes(StandardCharsets.UTF_8));
+        var value = "6222021234567890123456789012345678901234";
+
+        // 超过一块密钥流的长度时继续计算后续的密钥流
+        var pseudonym = pseudonymizer.pseudonymize(value, 0, value.length());
+        assertTrue(pseudonym.matches("\\d{40}"));
+        assertEquals(pseudonym, cached.pseudonymize(value, 0, value.length()));
+        assertEquals(pseudonym, cached.pseudonymize(value, 0, value.length()));
+        assertNotEquals(pseudonym, other.pseudonymize(value, 0, value.length()));
+        assertEquals("Ab-", pseudonymizer.pseudonymize("Ab-", 0, 0));
+        assertTrue(pseudonymizer.pseudonymize("Ab-", 0, 3).matches("[A-Z][a-z]-"));
+    }
+
+    @Test
+    void uniform() {
+
+        var pseudonymizer = Pseudonymizer.of(KEY);
+        int[] counts = new int[10];
+        for (int i = 0; i < 100_000; i++) {
+            for (char c : pseudonymizer.pseudonymize("%010d".formatted(i), 0, 10).toCharArray()) {
+                counts[c - '0']++;
+            }
+        }
+
+        // 直接对字节取模时0到5出现的概率比6到9高约4%
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 100_000) < 1000, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void virtualThreads() {
+
+        var pseudonymizer = Pseudonymizer.of(KEY);
+        var value = "19962000001";
+        var expected = pseudonymizer.pseudonymize(value, 0, value.length());
+        Set<String> pseudonyms = ConcurrentHashMap.newKeySet();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10_000; i++) {
+                executor.submit(() -> pseudonyms.add(pseudonymizer.pseudonymize(value, 0, value.length())));
+            }
+        }
+
+        // 池中的Session不会被多个线程同时使用
+        assertEquals(Set.of(expected), pseudonyms);
+    }
+
+    @Test
+    void writeJson() throws IOException {
+
+        Pseudonymizer.register(Pseudonymizer.of(KEY));
+        var after = Sensitive.desensitize(new Account());
+        var json = new StringBuilder();
+        Sensitive.writeJson(new Account(), json);
+
+        assertTrue(json.toString().contains("\"phoneNumber\":\"" + after.phoneNumber + "\""));
+    }
+
+    @Test
+    void unregistered() {
+
+        assertThrows(IllegalStateException.class, () -> Sensitive.desensitize(new Account()));
+    }
+
+    static class Account {
+
+        @PhoneNumber(strategy = MaskStrategy.PSEUDONYMIZE)
+        String phoneNumber = "19962000001";
+
+        @Email(strategy = MaskStrategy.PSEUDONYMIZE)
+        String email = "123456@qq.com";
+
+        @ChineseName(strategy = MaskStrategy.PSEUDONYMIZE)
+        String name = "张三丰";
+
+        @PhoneNumber
+        String masked = "19962000001";
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.parser.type.AnnotatedTypeToken;
+import red.zyc.parser.type.Cascade;
+
+import java.util.List;
+
+/**
+ * 记录类型脱敏
+ *
+ * @author zyc
+ */
+public class RecordTest {
+
+    @Test
+    void desensitize() {
+
+        var address = new Address("beijing");
+        var before = new User(1L, "123456@qq.com", "19962000001", 6222021234567890L, address, List.of("654321@qq.com"));
+        var after = Sensitive.desensitize(before);
+
+        Assertions.assertEquals(new User(1L, "1*****@qq.com", "199****0001", 6220000000007890L, address, List.of("6*****@qq.com")), after);
+        // 不需要脱敏的组件原样传入规范构造器
+        Assertions.assertSame(address, after.address());
+    }
+
+    @Test
+    void desensitizeNested() {
+
+        var before = new Account("alice", new Contact("19962000001"));
+        var after = Sensitive.desensitize(before);
+
+        Assertions.assertEquals("alice", after.name());
+        Assertions.assertEquals("199****0001", after.contact().phoneNumber());
+    }
+
+    @Test
+    void returnOriginal() {
+
+        // 没有敏感组件的记录以及级联的组件没有发生变化的记录都直接返回原对象
+        var address = new Address("beijing");
+        Assertions.assertSame(address, Sensitive.desensitize(address));
+
+        var holder = new Holder(address);
+        Assertions.assertSame(holder, Sensitive.desensitize(holder));
+
+        var list = List.of(address);
+        Assertions.assertSame(address, Sensitive.desensitize(list, new AnnotatedTypeToken<List<@Cascade Address>>() {
+        }).get(0));
+    }
+
+    record User(long id, @Email String email, @PhoneNumber String phoneNumber, @MaskDigits long card,
+                Address address, List<@Email String> emails) {
+    }
+
+    record Address(String city) {
+    }
+
+    record Holder(@Cascade Address address) {
+    }
+
+    record Contact(@PhoneNumber String phoneNumber) {
+    }
+
+    record Account(String name, @Cascade Contact contact) {
+    }
+}
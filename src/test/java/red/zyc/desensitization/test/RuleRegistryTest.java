@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.KeyRules;
+import red.zyc.desensitization.MaskingRules;
+import red.zyc.desensitization.RuleRegistry;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Condition;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.desensitization.annotation.MaskDigits;
+import red.zyc.desensitization.annotation.Password;
+import red.zyc.desensitization.annotation.PhoneNumber;
+import red.zyc.desensitization.annotation.Rounding;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 运行时发布脱敏规则
+ *
+ * @author zyc
+ */
+public class RuleRegistryTest {
+
+    private static final AnnotatedTypeToken<List<@PhoneNumber String>> PHONE_NUMBERS = new AnnotatedTypeToken<List<@PhoneNumber String>>() {
+    };
+
+    private static final MaskingRules TAIL = MaskingRules.builder()
+            .override(PhoneNumber.class, MaskingRules.mask(0, 2, '#'))
+            .build();
+
+    @AfterEach
+    void reset() {
+        RuleRegistry.reset();
+    }
+
+    @Test
+    void publish() {
+
+        assertEquals(List.of("199****0001"), Sensitive.desensitize(List.of("19962000001"), PHONE_NUMBERS));
+
+        RuleRegistry.publish(TAIL);
+
+        assertSame(TAIL, RuleRegistry.current());
+        assertEquals(List.of("#########01"), Sensitive.desensitize(List.of("19962000001"), PHONE_NUMBERS));
+        assertEquals("#########01", Sensitive.desensitize(new Account()).phoneNumber);
+        // 没有被替换的敏感注解不受影响
+        assertEquals("1*****@qq.com", Sensitive.desensitize(new Account()).email);
+
+        var column = new String[]{"19962000001"};
+        Sensitive.desensitizeColumn(column, column, Account.rule());
+        assertEquals("#########01", column[0]);
+
+        RuleRegistry.reset();
+        assertEquals(List.of("199****0001"), Sensitive.desensitize(List.of("19962000001"), PHONE_NUMBERS));
+    }
+
+    @Test
+    void inFlight() {
+
+        // 脱敏email时发布新规则，同一次调用中的phoneNumber仍然使用调用开始时的规则
+        var after = Sensitive.desensitize(new Publishing());
+        assertEquals("199****0001", after.phoneNumber);
+
+        assertEquals("#########01", Sensitive.desensitize(new Publishing()).phoneNumber);
+    }
+
+    @Test
+    void keyRules() {
+
+        var rules = MaskingRules.builder()
+                .keyRules(KeyRules.builder().rule(Account.rule(), "contact").build())
+                .build();
+
+        assertEquals(Map.of("contact", "19962000001"), Sensitive.desensitizeKeys(Map.of("contact", "19962000001")));
+        assertEquals(Map.of("phone", "199****0001"), Sensitive.desensitizeKeys(Map.of("phone", "19962000001")));
+
+        RuleRegistry.publish(rules);
+
+        assertEquals(Map.of("contact", "199****0001"), Sensitive.desensitizeKeys(Map.of("contact", "19962000001")));
+        assertEquals(Map.of("phone", "19962000001"), Sensitive.desensitizeKeys(Map.of("phone", "19962000001")));
+    }
+
+    @Test
+    void illegalOverride() {
+
+        assertThrows(IllegalArgumentException.class, () -> MaskingRules.builder().override(Deprecated.class, MaskingRules.mask(0, 0, '*')));
+        // 字符序列处理器无法处理数字
+        assertThrows(IllegalArgumentException.class, () -> MaskingRules.builder().override(MaskDigits.class, MaskingRules.mask(0, 0, '*')));
+        var rounding = new AnnotatedTypeToken<@Rounding Long>() {
+        }.getAnnotatedType().getAnnotation(Rounding.class);
+        assertThrows(IllegalArgumentException.class, () -> MaskingRules.builder().override(PhoneNumber.class, rounding));
+        MaskingRules.builder().override(MaskDigits.class, rounding);
+    }
+
+    static class Account {
+
+        @Email
+        String email = "123456@qq.com";
+
+        @PhoneNumber
+        String phoneNumber = "19962000001";
+
+        static PhoneNumber rule() {
+            try {
+                return Account.class.getDeclaredField("phoneNumber").getAnnotation(PhoneNumber.class);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static class Publishing {
+
+        @Password(condition = PublishingCondition.class)
+        String password = "123456";
+
+        @PhoneNumber
+        String phoneNumber = "19962000001";
+    }
+
+    /**
+     * 第一次判断时发布新规则
+     */
+    private static class PublishingCondition implements Condition<String> {
+
+        private boolean published;
+
+        @Override
+        public boolean required(String target) {
+            if (!published) {
+                published = true;
+                RuleRegistry.publish(TAIL);
+            }
+            return true;
+        }
+    }
+}
@@ -18,9 +18,13 @@ package red.zyc.desensitization.test;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.Email;
 import red.zyc.desensitization.annotation.Strings;
 import red.zyc.parser.type.AnnotatedTypeToken;
 
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
 /**
  * {@link java.lang.CharSequence}脱敏
  *
@@ -37,4 +41,30 @@ public class StringTest {
 
         Assertions.assertEquals("******", after);
     }
+
+    @Test
+    void desensitizeEmptyMatches() {
+
+        // 正则表达式能够匹配空字符串，空的匹配项不会被替换
+        var after = Sensitive.desensitize("ab12cd3", new AnnotatedTypeToken<@Strings(regexp = "\\d*") String>() {
+        });
+
+        Assertions.assertEquals("ab**cd*", after);
+    }
+
+    @Test
+    void desensitizeInVirtualThreads() throws Exception {
+
+        var typeToken = new AnnotatedTypeToken<@Email String>() {
+        };
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = IntStream.range(0, 10_000)
+                    .mapToObj(i -> executor.submit(() -> Sensitive.desensitize(i + "@qq.com", typeToken)))
+                    .toList();
+            for (int i = 0; i < futures.size(); i++) {
+                var expected = String.valueOf(i).charAt(0) + "*".repeat(String.valueOf(i).length() - 1) + "@qq.com";
+                Assertions.assertEquals(expected, futures.get(i).get());
+            }
+        }
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package red.zyc.desensitization.test;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import red.zyc.desensitization.Sensitive;
+import red.zyc.desensitization.annotation.ChineseName;
+import red.zyc.desensitization.annotation.Email;
+import red.zyc.parser.type.AnnotatedTypeToken;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 脱敏视图
+ *
+ * @author zyc
+ */
+public class ViewTest {
+
+    @Test
+    void viewList() {
+
+        var before = new ArrayList<>(Collections.nCopies(100_000, "123456@qq.com"));
+        var after = Sensitive.view(before, new AnnotatedTypeToken<List<@Email String>>() {
+        });
+
+        Assertions.assertEquals(100_000, after.size());
+        Assertions.assertEquals(List.of("1*****@qq.com", "1*****@qq.com"), after.subList(10, 12));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> after.add("123456@qq.com"));
+        // 视图会反映目标List的修改
+        before.set(0, "654321@qq.com");
+        Assertions.assertEquals("6*****@qq.com", after.get(0));
+    }
+
+    @Test
+    void viewMemoizedList() {
+
+        var after = Sensitive.view(new ArrayList<>(List.of("123456@qq.com")), new AnnotatedTypeToken<List<@Email String>>() {
+        }, true);
+
+        Assertions.assertSame(after.get(0), after.get(0));
+    }
+
+    @Test
+    void viewMap() {
+
+        var before = new HashMap<>(Map.of("张三", "123456@qq.com"));
+        var after = Sensitive.view(before, new AnnotatedTypeToken<Map<String, @Email String>>() {
+        });
+
+        Assertions.assertEquals("1*****@qq.com", after.get("张三"));
+        Assertions.assertEquals(Map.of("张三", "1*****@qq.com"), after);
+
+        var maskedKeys = Sensitive.view(before, new AnnotatedTypeToken<Map<@ChineseName String, String>>() {
+        });
+        Assertions.assertEquals(Set.of("张*"), maskedKeys.keySet());
+        Assertions.assertEquals("123456@qq.com", maskedKeys.get("张*"));
+    }
+
+    @Test
+    void viewAnnotatedContainer() {
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Sensitive.view(List.of("123456"), new AnnotatedTypeToken<@Email List<String>>() {
+        }));
+    }
+}